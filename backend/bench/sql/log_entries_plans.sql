@@ -0,0 +1,115 @@
+-- Query plans for log_entries before and after the V1 schema (indexes + daily partitions).
+--
+--   psql -d <database> -v rows=1000000 -f bench/sql/log_entries_plans.sql > plans.txt
+--
+-- Builds two copies of the table in a scratch schema "bench" with the same generated rows
+-- spread over 30 days:
+--   bench.log_entries_before  what ddl-auto used to create: primary key on id only
+--   bench.log_entries_after   the db/migration/postgresql layout
+-- and prints EXPLAIN (ANALYZE, BUFFERS) for the query shapes used by LogEntryRepository.
+-- The schema is dropped again at the end.
+
+\set ON_ERROR_STOP on
+\if :{?rows}
+\else
+\set rows 1000000
+\endif
+\timing on
+
+DROP SCHEMA IF EXISTS bench CASCADE;
+CREATE SCHEMA bench;
+SET search_path = bench;
+
+CREATE TABLE log_entries_before (
+    id        BIGINT       NOT NULL PRIMARY KEY,
+    timestamp TIMESTAMP(6) NOT NULL,
+    level     VARCHAR(255) NOT NULL,
+    message   TEXT         NOT NULL,
+    source    VARCHAR(255),
+    thread    VARCHAR(255),
+    logger    VARCHAR(255)
+);
+
+INSERT INTO log_entries_before
+SELECT g,
+       TIMESTAMP '2026-01-01' + (g::double precision / :rows) * INTERVAL '30 days',
+       (ARRAY['INFO', 'INFO', 'INFO', 'INFO', 'DEBUG', 'DEBUG', 'WARN', 'ERROR', 'TRACE', 'INFO'])[1 + g % 10],
+       'request ' || g || ' completed in ' || (g % 997) || ' ms',
+       'service-' || (g % 20),
+       'worker-' || (g % 8),
+       'com.example.Service' || (g % 20)
+  FROM generate_series(1, :rows) AS g;
+
+CREATE TABLE log_entries_after (LIKE log_entries_before INCLUDING DEFAULTS)
+    PARTITION BY RANGE (timestamp);
+ALTER TABLE log_entries_after ADD PRIMARY KEY (id, timestamp);
+CREATE TABLE log_entries_after_default PARTITION OF log_entries_after DEFAULT;
+
+DO $$
+BEGIN
+    FOR d IN 0..30 LOOP
+        EXECUTE format('CREATE TABLE bench.log_entries_after_p%s PARTITION OF bench.log_entries_after FOR VALUES FROM (%L) TO (%L)',
+                       to_char(DATE '2026-01-01' + d, 'YYYYMMDD'), DATE '2026-01-01' + d, DATE '2026-01-01' + d + 1);
+    END LOOP;
+END $$;
+
+CREATE INDEX ON log_entries_after (timestamp DESC, id DESC);
+CREATE INDEX ON log_entries_after (level, timestamp DESC, id DESC);
+CREATE INDEX ON log_entries_after (source, timestamp DESC, id DESC);
+
+INSERT INTO log_entries_after SELECT * FROM log_entries_before;
+
+ANALYZE log_entries_before;
+ANALYZE log_entries_after;
+
+-- findTop100ByOrderByTimestampDesc
+\echo '=== newest 100 (before) ==='
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT * FROM log_entries_before ORDER BY timestamp DESC LIMIT 100;
+\echo '=== newest 100 (after) ==='
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT * FROM log_entries_after ORDER BY timestamp DESC LIMIT 100;
+
+-- /level/{level} stream and /filter/cursor?level= first page
+\echo '=== level, newest first (before) ==='
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT * FROM log_entries_before
+ WHERE level = 'ERROR' AND timestamp BETWEEN '2026-01-29' AND '2026-01-30'
+ ORDER BY timestamp DESC, id DESC LIMIT 50;
+\echo '=== level, newest first (after) ==='
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT * FROM log_entries_after
+ WHERE level = 'ERROR' AND timestamp BETWEEN '2026-01-29' AND '2026-01-30'
+ ORDER BY timestamp DESC, id DESC LIMIT 50;
+
+-- /filter/cursor?source=&after= (keyset continuation)
+\echo '=== source, keyset page (before) ==='
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT * FROM log_entries_before
+ WHERE source = 'service-7' AND timestamp <= '2026-01-20 12:00'
+   AND (timestamp < '2026-01-20 12:00' OR (timestamp = '2026-01-20 12:00' AND id < 123456))
+ ORDER BY timestamp DESC, id DESC LIMIT 51;
+\echo '=== source, keyset page (after) ==='
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT * FROM log_entries_after
+ WHERE source = 'service-7' AND timestamp <= '2026-01-20 12:00'
+   AND (timestamp < '2026-01-20 12:00' OR (timestamp = '2026-01-20 12:00' AND id < 123456))
+ ORDER BY timestamp DESC, id DESC LIMIT 51;
+
+-- countGroupByLevelSince (/stats?hours= beyond the in-memory window)
+\echo '=== level counts for the last 48 hours (before) ==='
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT level, count(*) FROM log_entries_before WHERE timestamp >= '2026-01-29' GROUP BY level;
+\echo '=== level counts for the last 48 hours (after) ==='
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT level, count(*) FROM log_entries_after WHERE timestamp >= '2026-01-29' GROUP BY level;
+
+-- Expiring the oldest day: row-by-row delete against dropping one partition
+\echo '=== expire one day (before) ==='
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+DELETE FROM log_entries_before WHERE timestamp < '2026-01-02';
+\echo '=== expire one day (after) ==='
+DROP TABLE log_entries_after_p20260101;
+
+RESET search_path;
+DROP SCHEMA bench CASCADE;
@@ -0,0 +1,100 @@
+package com.loganalytics.service;
+
+import com.loganalytics.LogAnalyticsApplication;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The application started once per fork on an embedded H2 database (in memory, or file backed
+ * with -p database=file) and seeded with {@link #rows} entries from {@link SyntheticLogs}
+ * spread over the last {@link #SPAN_HOURS} hours. The query cache is off unless -p cache=true.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkApplication {
+    
+    public static final long SEED = 42;
+    public static final int SPAN_HOURS = 48;
+    
+    private static final int SEED_BATCH_SIZE = 5000;
+    private static final Path FILE_DATABASE = Path.of("target", "benchmark-db");
+    
+    @Param("100000")
+    public int rows;
+    
+    @Param("mem")
+    public String database;
+    
+    // Off by default: nothing is ingested between iterations, so cached reads would only measure map lookups
+    @Param("false")
+    public boolean cache;
+    
+    // With the hot tier the queries over its window do not reach the database; -p hotTier=false for the database paths
+    @Param("true")
+    public boolean hotTier;
+    
+    ConfigurableApplicationContext context;
+    LogService logService;
+    
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", 0);
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("spring.h2.console.enabled", false);
+        // application.yml logs every SQL statement and web request at DEBUG
+        properties.put("logging.level.root", "WARN");
+        properties.put("logging.level.com.loganalytics", "WARN");
+        properties.put("logging.level.org.hibernate.SQL", "WARN");
+        properties.put("logging.level.org.springframework.web", "WARN");
+        properties.put("logs.retention.enabled", false);
+        properties.put("logs.generator.enabled", false);
+        properties.put("logs.cache.enabled", cache);
+        properties.put("logs.hot-tier.enabled", hotTier);
+        if ("file".equals(database)) {
+            FileSystemUtils.deleteRecursively(FILE_DATABASE);
+            properties.put("spring.datasource.url", "jdbc:h2:file:./" + FILE_DATABASE + "/logs");
+        } else if (!"mem".equals(database)) {
+            throw new IllegalArgumentException("database must be mem or file, not " + database);
+        }
+        
+        // As command line arguments, so they take precedence over application.yml
+        String[] args = properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+        context = new SpringApplicationBuilder(LogAnalyticsApplication.class).run(args);
+        logService = context.getBean(LogService.class);
+        seed();
+    }
+    
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+    
+    private void seed() throws IOException {
+        SyntheticLogs logs = new SyntheticLogs(SEED);
+        LocalDateTime end = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+        for (int seeded = 0; seeded < rows; seeded += SEED_BATCH_SIZE) {
+            int size = Math.min(SEED_BATCH_SIZE, rows - seeded);
+            logService.createLogs(logs.spread(size, end, SPAN_HOURS * 3600L));
+        }
+        
+        // Make the seeded data visible to the timeseries and search paths before measuring
+        context.getBean(LogRollupService.class).flush();
+        context.getBean(LogSearchIndex.class).refresh();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,100 @@
+package com.loganalytics.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.loganalytics.dto.LogEntryDto;
+import com.loganalytics.model.LogEntry;
+import com.loganalytics.model.LogFileFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing a file of 10000 entries in each format from a direct buffer, as LogFileIngestService
+ * does with a mapped chunk; needs no application context. Every tenth pattern entry carries a
+ * two-line stack trace. The buffer size is logged once per trial, to turn times into MB/s.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LogFileParserBenchmark {
+    
+    private static final Logger log = LoggerFactory.getLogger(LogFileParserBenchmark.class);
+    
+    private static final int ENTRIES = 10_000;
+    
+    @Param({"PATTERN", "JSON_LINES", "SYSLOG"})
+    public LogFileFormat format;
+    
+    private ByteBuffer file;
+    private JsonFactory jsonFactory;
+    
+    @Setup
+    public void setUp() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        jsonFactory = mapper.getFactory();
+        List<LogEntryDto> entries = new SyntheticLogs(BenchmarkApplication.SEED).spread(ENTRIES, LocalDateTime.now(), 3600);
+        DateTimeFormatter iso = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+        DateTimeFormatter logback = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+        DateTimeFormatter bsd = DateTimeFormatter.ofPattern("MMM ppd HH:mm:ss", Locale.ROOT);
+        StringBuilder text = new StringBuilder(ENTRIES * 160);
+        for (int i = 0; i < entries.size(); i++) {
+            LogEntryDto entry = entries.get(i);
+            switch (format) {
+                case JSON_LINES -> text.append(mapper.writeValueAsString(Map.of(
+                        "@timestamp", iso.format(entry.getTimestamp()), "level", entry.getLevel().name(),
+                        "logger_name", entry.getLogger(), "thread_name", entry.getThread(),
+                        "message", entry.getMessage()))).append('\n');
+                case SYSLOG -> text.append("<14>").append(bsd.format(entry.getTimestamp())).append(" host ")
+                        .append(entry.getSource()).append('[').append(entry.getThread()).append("]: ")
+                        .append(entry.getMessage()).append('\n');
+                default -> {
+                    text.append(logback.format(entry.getTimestamp())).append(" [").append(entry.getThread())
+                            .append("] ").append(entry.getLevel()).append(' ').append(entry.getLogger()).append(" - ")
+                            .append(entry.getMessage()).append('\n');
+                    if (i % 10 == 0) {
+                        text.append("java.lang.IllegalStateException: failed\n\tat com.example.Service.run(Service.java:42)\n");
+                    }
+                }
+            }
+        }
+        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+        file = ByteBuffer.allocateDirect(bytes.length);
+        file.put(bytes).flip();
+        log.info("{}: {} entries, {} bytes", format, ENTRIES, bytes.length);
+    }
+    
+    @Benchmark
+    public List<LogEntry> parse() {
+        LogFileParser parser = new LogFileParser(format, "bench", jsonFactory);
+        List<LogEntry> out = new ArrayList<>(ENTRIES);
+        parser.parse(file, 0, file.limit(), Integer.MAX_VALUE, out, true);
+        if (out.size() != ENTRIES) {
+            throw new IllegalStateException("Parsed " + out.size() + " of " + ENTRIES + " entries");
+        }
+        return out;
+    }
+}
\ No newline at end of file
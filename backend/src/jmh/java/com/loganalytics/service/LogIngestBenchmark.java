@@ -0,0 +1,54 @@
+package com.loganalytics.service;
+
+import com.loganalytics.dto.LogEntryDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingest through LogService: one entry per call and batches. Every call stores new rows, so the
+ * table grows by the entries written during warmup and measurement on top of the seeded rows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LogIngestBenchmark {
+    
+    @State(Scope.Thread)
+    public static class Entries {
+        
+        final SyntheticLogs logs = new SyntheticLogs(BenchmarkApplication.SEED + 1);
+    }
+    
+    @State(Scope.Thread)
+    public static class Batches {
+        
+        @Param({"100", "1000"})
+        public int batchSize;
+        
+        final SyntheticLogs logs = new SyntheticLogs(BenchmarkApplication.SEED + 2);
+    }
+    
+    @Benchmark
+    public LogEntryDto createLog(BenchmarkApplication app, Entries entries) {
+        return app.logService.createLog(entries.logs.next(LocalDateTime.now()));
+    }
+    
+    // Time per batch, including building its DTOs (small next to the insert)
+    @Benchmark
+    public int createLogs(BenchmarkApplication app, Batches batches) {
+        return app.logService.createLogs(batches.logs.batch(batches.batchSize, LocalDateTime.now()));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,49 @@
+package com.loganalytics.service;
+
+import com.loganalytics.dto.LogEntryDto;
+import com.loganalytics.model.LogEntry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+// Entity <-> DTO mapping on its own; needs no application context
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LogMappingBenchmark {
+    
+    private final LogService logService = new LogService();
+    
+    private LogEntryDto dto;
+    private LogEntry entity;
+    
+    @Setup
+    public void setUp() {
+        dto = new SyntheticLogs(BenchmarkApplication.SEED).next(LocalDateTime.now());
+        entity = logService.convertToEntity(dto);
+        entity.setId(1L);
+    }
+    
+    @Benchmark
+    public LogEntryDto convertToDto() {
+        return logService.convertToDto(entity);
+    }
+    
+    @Benchmark
+    public LogEntry convertToEntity() {
+        return logService.convertToEntity(dto);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,85 @@
+package com.loganalytics.service;
+
+import com.loganalytics.dto.LogEntryDto;
+import com.loganalytics.model.LogEntry;
+import com.loganalytics.model.LogLevel;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The same newest-first query read as managed entities copied into DTOs (the read path before
+ * the projections) and selected straight into DTOs, both in a read-only transaction like the
+ * repository methods. Run with {@code -prof gc} to compare allocation per query.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LogProjectionBenchmark {
+    
+    private static final String WHERE = "FROM LogEntry l WHERE l.level = :level ORDER BY l.timestamp DESC, l.id DESC";
+    
+    // A /filter page and a /level stream
+    @Param({"50", "1000"})
+    public int limit;
+    
+    private EntityManager entityManager;
+    private TransactionTemplate readOnly;
+    private LogService logService;
+    
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkApplication app) {
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(
+                app.context.getBean(EntityManagerFactory.class));
+        readOnly = new TransactionTemplate(app.context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        logService = app.logService;
+    }
+    
+    @Benchmark
+    public List<LogEntryDto> entities() {
+        return readOnly.execute(status -> {
+            List<LogEntry> entries = entityManager.createQuery("SELECT l " + WHERE, LogEntry.class)
+                    .setParameter("level", LogLevel.INFO)
+                    .setMaxResults(limit)
+                    .getResultList();
+            List<LogEntryDto> dtos = new ArrayList<>(entries.size());
+            for (LogEntry entry : entries) {
+                dtos.add(logService.convertToDto(entry));
+            }
+            return dtos;
+        });
+    }
+    
+    @Benchmark
+    public List<LogEntryDto> projection() {
+        return readOnly.execute(status -> entityManager
+                .createQuery("SELECT new com.loganalytics.dto.LogEntryDto(" +
+                             "l.id, l.timestamp, l.level, l.message, l.source, l.thread, l.logger, l.templateId) " + WHERE,
+                             LogEntryDto.class)
+                .setParameter("level", LogLevel.INFO)
+                .setMaxResults(limit)
+                .getResultList());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,119 @@
+package com.loganalytics.service;
+
+import com.loganalytics.dto.CursorPageDto;
+import com.loganalytics.dto.LogEntryDto;
+import com.loganalytics.dto.LogStatsDto;
+import com.loganalytics.dto.TimeSeriesDataDto;
+import com.loganalytics.model.LogLevel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Read paths behind the REST endpoints, against the seeded dataset
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LogQueryBenchmark {
+    
+    private static final int PAGE_SIZE = 50;
+    private static final String SOURCE = "service-3";
+    private static final String QUERY = "timeout";
+    
+    @State(Scope.Benchmark)
+    public static class Cursors {
+        
+        String deepErrorPage;
+        LocalDateTime windowStart;
+        LocalDateTime windowEnd;
+        
+        // The cursor of the 20th page of ERROR entries, for a keyset page far from the newest rows
+        @Setup(Level.Trial)
+        public void setUp(BenchmarkApplication app) {
+            CursorPageDto<LogEntryDto> page = null;
+            for (int i = 0; i < 20 && (page == null || page.getNextCursor() != null); i++) {
+                String after = page != null ? page.getNextCursor() : null;
+                page = app.logService.getLogsWithCursor(LogLevel.ERROR, null, null, null, null, after, null, PAGE_SIZE);
+            }
+            deepErrorPage = page.getNextCursor();
+            windowEnd = LocalDateTime.now();
+            windowStart = windowEnd.minusHours(6);
+        }
+    }
+    
+    // GET /api/logs
+    @Benchmark
+    public List<LogEntryDto> recentLogs(BenchmarkApplication app) {
+        return app.logService.getAllLogs();
+    }
+    
+    // GET /api/logs/stats?hours=1, in-memory counters
+    @Benchmark
+    public LogStatsDto statsLastHour(BenchmarkApplication app) {
+        return app.logService.getLogStats(1);
+    }
+    
+    // GET /api/logs/stats?hours=168, beyond the in-memory window so read from the hour rollups
+    @Benchmark
+    public LogStatsDto statsLastWeek(BenchmarkApplication app) {
+        return app.logService.getLogStats(168);
+    }
+    
+    // GET /api/logs/timeseries?hours=24
+    @Benchmark
+    public List<TimeSeriesDataDto> timeseriesHourly(BenchmarkApplication app) {
+        return app.logService.getTimeSeriesData(24);
+    }
+    
+    // GET /api/logs/timeseries?hours=6&bucket=5m&source=
+    @Benchmark
+    public List<TimeSeriesDataDto> timeseriesFiveMinutesBySource(BenchmarkApplication app) {
+        return app.logService.getTimeSeriesData(6, TimeBucket.FIVE_MINUTES, SOURCE);
+    }
+    
+    // GET /api/logs/filter?query=
+    @Benchmark
+    public Page<LogEntryDto> searchPage(BenchmarkApplication app) {
+        return app.logService.getLogsWithFilters(null, null, null, null, QUERY, 0, PAGE_SIZE);
+    }
+    
+    // GET /api/logs/filter/cursor?query=&level=
+    @Benchmark
+    public CursorPageDto<LogEntryDto> searchCursorByLevel(BenchmarkApplication app) {
+        return app.logService.getLogsWithCursor(LogLevel.WARN, null, null, null, QUERY, null, null, PAGE_SIZE);
+    }
+    
+    // GET /api/logs/filter?level=&source=&startTime=&endTime=&page=10
+    @Benchmark
+    public Page<LogEntryDto> filteredOffsetPage(BenchmarkApplication app, Cursors cursors) {
+        return app.logService.getLogsWithFilters(LogLevel.INFO, SOURCE, cursors.windowStart, cursors.windowEnd,
+                null, 10, PAGE_SIZE);
+    }
+    
+    // GET /api/logs/filter/cursor?level=
+    @Benchmark
+    public CursorPageDto<LogEntryDto> filteredCursorFirstPage(BenchmarkApplication app) {
+        return app.logService.getLogsWithCursor(LogLevel.ERROR, null, null, null, null, null, null, PAGE_SIZE);
+    }
+    
+    // GET /api/logs/filter/cursor?level=&after=, twenty pages in
+    @Benchmark
+    public CursorPageDto<LogEntryDto> filteredCursorDeepPage(BenchmarkApplication app, Cursors cursors) {
+        return app.logService.getLogsWithCursor(LogLevel.ERROR, null, null, null, null,
+                cursors.deepErrorPage, null, PAGE_SIZE);
+    }
+}
\ No newline at end of file
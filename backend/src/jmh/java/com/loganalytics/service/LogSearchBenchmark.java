@@ -0,0 +1,71 @@
+package com.loganalytics.service;
+
+import com.loganalytics.dto.LogEntryDto;
+import com.loganalytics.repository.LogEntryRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A page of message search results through the Lucene index and through the LIKE '%...%' query
+ * it replaced, for the same terms. Meant for large datasets, e.g.
+ * -p rows=1000000,10000000 -p database=file with a heap to match.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class LogSearchBenchmark {
+    
+    private static final int PAGE_SIZE = 50;
+    // One of eight message templates, so about an eighth of the rows match
+    private static final String WORD = "timeout";
+    private static final String PHRASE = "payment transaction";
+    
+    @State(Scope.Benchmark)
+    public static class Repository {
+        
+        LogEntryRepository logRepository;
+        
+        @Setup(Level.Trial)
+        public void setUp(BenchmarkApplication app) {
+            logRepository = app.context.getBean(LogEntryRepository.class);
+        }
+    }
+    
+    // GET /api/logs/filter?query=timeout
+    @Benchmark
+    public Page<LogEntryDto> wordIndex(BenchmarkApplication app) {
+        return app.logService.getLogsWithFilters(null, null, null, null, WORD, 0, PAGE_SIZE);
+    }
+    
+    // The same page with logs.search.index.enabled=false
+    @Benchmark
+    public Page<LogEntryDto> wordLike(Repository repository) {
+        return repository.logRepository.findWithFilters(null, null, null, null, WORD, PageRequest.of(0, PAGE_SIZE));
+    }
+    
+    // GET /api/logs/filter?query="payment transaction"
+    @Benchmark
+    public Page<LogEntryDto> phraseIndex(BenchmarkApplication app) {
+        return app.logService.getLogsWithFilters(null, null, null, null, "\"" + PHRASE + "\"", 0, PAGE_SIZE);
+    }
+    
+    @Benchmark
+    public Page<LogEntryDto> phraseLike(Repository repository) {
+        return repository.logRepository.findWithFilters(null, null, null, null, PHRASE, PageRequest.of(0, PAGE_SIZE));
+    }
+}
\ No newline at end of file
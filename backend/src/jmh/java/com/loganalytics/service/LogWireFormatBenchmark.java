@@ -0,0 +1,101 @@
+package com.loganalytics.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.loganalytics.dto.LogEntryDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoding one page or broadcast frame of entries in each wire format; needs no application
+ * context. The payload sizes, plain and gzipped, are logged once per trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LogWireFormatBenchmark {
+    
+    private static final Logger log = LoggerFactory.getLogger(LogWireFormatBenchmark.class);
+    
+    // A /filter page and a full broadcast frame
+    @Param({"100", "500"})
+    public int entries;
+    
+    private List<LogEntryDto> batch;
+    private ObjectMapper json;
+    private ObjectMapper cbor;
+    private ObjectMapper smile;
+    
+    @Setup
+    public void setUp() throws IOException {
+        batch = new SyntheticLogs(BenchmarkApplication.SEED).spread(entries, LocalDateTime.now(), 3600);
+        long id = 1;
+        for (LogEntryDto dto : batch) {
+            dto.setId(id++);
+        }
+        // Like the spring.jackson defaults of Spring Boot: ISO timestamps
+        json = Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        cbor = Jackson2ObjectMapperBuilder.cbor().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        smile = Jackson2ObjectMapperBuilder.smile().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        
+        log.info("{} entries, bytes plain/gzip: json {}/{}, columns {}/{}, cbor {}/{}, smile {}/{}", entries,
+                json().length, gzip(json()), columns().length, gzip(columns()),
+                cbor().length, gzip(cbor()), smile().length, gzip(smile()));
+    }
+    
+    @Benchmark
+    public byte[] json() throws IOException {
+        return json.writeValueAsBytes(batch);
+    }
+    
+    @Benchmark
+    public byte[] columns() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(batch.size() * 64);
+        try (JsonGenerator generator = json.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            LogColumnsWriter.write(generator, batch);
+        }
+        return out.toByteArray();
+    }
+    
+    @Benchmark
+    public byte[] cbor() throws IOException {
+        return cbor.writeValueAsBytes(batch);
+    }
+    
+    @Benchmark
+    public byte[] smile() throws IOException {
+        return smile.writeValueAsBytes(batch);
+    }
+    
+    private static int gzip(byte[] payload) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(payload);
+        }
+        return out.size();
+    }
+}
\ No newline at end of file
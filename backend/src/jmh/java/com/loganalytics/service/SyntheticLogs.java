@@ -0,0 +1,79 @@
+package com.loganalytics.service;
+
+import com.loganalytics.dto.LogEntryDto;
+import com.loganalytics.model.LogLevel;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Reproducible synthetic log entries: the same seed always produces the same sequence of
+ * levels, sources, threads and messages.
+ */
+public class SyntheticLogs {
+    
+    public static final int SOURCE_COUNT = 20;
+    
+    // Roughly what a busy service writes: mostly INFO and DEBUG, a few percent errors
+    private static final LogLevel[] LEVEL_WEIGHTS = weighted(
+            LogLevel.INFO, 60, LogLevel.DEBUG, 18, LogLevel.WARN, 10, LogLevel.TRACE, 8, LogLevel.ERROR, 4);
+    
+    private static final String[] TEMPLATES = {
+        "Request %d completed in %d ms",
+        "Database connection timeout after %d ms for query %d",
+        "Cache miss for key user_session_%d (%d entries)",
+        "Payment transaction %d failed with code %d",
+        "User %d authenticated via token %d",
+        "Scheduled task %d finished, %d records processed",
+        "Connection pool at %d of %d connections",
+        "Retrying message %d, attempt %d"
+    };
+    
+    private final Random random;
+    
+    public SyntheticLogs(long seed) {
+        this.random = new Random(seed);
+    }
+    
+    public LogEntryDto next(LocalDateTime timestamp) {
+        LogEntryDto dto = new LogEntryDto();
+        dto.setTimestamp(timestamp);
+        dto.setLevel(LEVEL_WEIGHTS[random.nextInt(LEVEL_WEIGHTS.length)]);
+        dto.setMessage(String.format(TEMPLATES[random.nextInt(TEMPLATES.length)],
+                random.nextInt(100_000), random.nextInt(5_000)));
+        dto.setSource("service-" + random.nextInt(SOURCE_COUNT));
+        dto.setThread("worker-" + random.nextInt(16));
+        dto.setLogger("com.example.Service" + random.nextInt(SOURCE_COUNT));
+        return dto;
+    }
+    
+    public List<LogEntryDto> batch(int size, LocalDateTime timestamp) {
+        List<LogEntryDto> batch = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            batch.add(next(timestamp));
+        }
+        return batch;
+    }
+    
+    // Entries spread uniformly over the span before end, in no particular order
+    public List<LogEntryDto> spread(int size, LocalDateTime end, long spanSeconds) {
+        List<LogEntryDto> batch = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            long offsetMillis = (long) (random.nextDouble() * spanSeconds * 1000);
+            batch.add(next(end.minusNanos(offsetMillis * 1_000_000)));
+        }
+        return batch;
+    }
+    
+    private static LogLevel[] weighted(Object... levelsAndWeights) {
+        List<LogLevel> levels = new ArrayList<>();
+        for (int i = 0; i < levelsAndWeights.length; i += 2) {
+            for (int w = 0; w < (Integer) levelsAndWeights[i + 1]; w++) {
+                levels.add((LogLevel) levelsAndWeights[i]);
+            }
+        }
+        return levels.toArray(new LogLevel[0]);
+    }
+}
\ No newline at end of file
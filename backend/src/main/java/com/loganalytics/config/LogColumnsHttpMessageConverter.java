@@ -0,0 +1,111 @@
+package com.loganalytics.config;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.loganalytics.dto.CursorPageDto;
+import com.loganalytics.dto.LogEntryDto;
+import com.loganalytics.service.LogColumnsWriter;
+import com.loganalytics.service.LogWireFormat;
+import org.springframework.core.ResolvableType;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Writes lists, pages and cursor pages of log entries as {@link LogWireFormat#COLUMNS}: the
+ * entries become one column block and the page fields stay as they are in JSON. Write only;
+ * anything else asking for this media type gets 406.
+ */
+public class LogColumnsHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+    
+    private final ObjectMapper objectMapper;
+    
+    public LogColumnsHttpMessageConverter(ObjectMapper objectMapper) {
+        super(LogWireFormat.COLUMNS.getMediaType());
+        this.objectMapper = objectMapper;
+    }
+    
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return List.class.isAssignableFrom(clazz) || Page.class.isAssignableFrom(clazz)
+                || CursorPageDto.class.isAssignableFrom(clazz);
+    }
+    
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        if (!supports(clazz) || !canWrite(mediaType)) {
+            return false;
+        }
+        // Only containers declared with LogEntryDto elements; the generic type is lost at runtime
+        ResolvableType declared = ResolvableType.forType(type != null ? type : clazz);
+        for (Class<?> container : List.of(List.class, Page.class, CursorPageDto.class)) {
+            ResolvableType element = declared.as(container).getGeneric(0);
+            if (element != ResolvableType.NONE && LogEntryDto.class.equals(element.resolve())) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+    
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage) throws IOException {
+        // Flushed, not closed: the response stream belongs to the container
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputMessage.getBody(), JsonEncoding.UTF8);
+        if (value instanceof Page<?> page) {
+            generator.writeStartObject();
+            generator.writeFieldName("content");
+            LogColumnsWriter.write(generator, (List<LogEntryDto>) page.getContent());
+            generator.writeNumberField("totalElements", page.getTotalElements());
+            generator.writeNumberField("totalPages", page.getTotalPages());
+            generator.writeNumberField("number", page.getNumber());
+            generator.writeNumberField("size", page.getSize());
+            generator.writeNumberField("numberOfElements", page.getNumberOfElements());
+            generator.writeBooleanField("first", page.isFirst());
+            generator.writeBooleanField("last", page.isLast());
+            generator.writeBooleanField("empty", page.isEmpty());
+            generator.writeEndObject();
+        } else if (value instanceof CursorPageDto<?> cursorPage) {
+            generator.writeStartObject();
+            generator.writeFieldName("content");
+            LogColumnsWriter.write(generator, (List<LogEntryDto>) cursorPage.getContent());
+            generator.writeNumberField("size", cursorPage.getSize());
+            generator.writeStringField("nextCursor", cursorPage.getNextCursor());
+            generator.writeStringField("prevCursor", cursorPage.getPrevCursor());
+            generator.writeBooleanField("hasNext", cursorPage.isHasNext());
+            generator.writeBooleanField("hasPrevious", cursorPage.isHasPrevious());
+            generator.writeEndObject();
+        } else {
+            LogColumnsWriter.write(generator, (List<LogEntryDto>) value);
+        }
+        generator.flush();
+    }
+    
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Log columns are only written", inputMessage);
+    }
+    
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Log columns are only written", inputMessage);
+    }
+}
\ No newline at end of file
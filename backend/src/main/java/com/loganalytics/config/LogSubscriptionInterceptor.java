@@ -0,0 +1,76 @@
+package com.loganalytics.config;
+
+import com.loganalytics.service.LogBroadcaster;
+import com.loganalytics.service.LogStreamFilter;
+import com.loganalytics.service.LogSubscriptionRegistry;
+import com.loganalytics.service.LogWireFormat;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+
+/**
+ * Reads the filter headers of SUBSCRIBE frames for /topic/logs and points the subscription
+ * at the shared destination of its filter:
+ * <pre>
+ * SUBSCRIBE
+ * destination:/topic/logs
+ * levels:ERROR,WARN
+ * source:payment-service
+ * contains:timeout
+ * regex:order-\d+
+ * accept:application/vnd.loganalytics.columns
+ * </pre>
+ * Frames are JSON unless {@code accept} asks for the column format. CBOR and Smile are not
+ * offered here: SockJS only carries text frames.
+ */
+public class LogSubscriptionInterceptor implements ChannelInterceptor {
+    
+    private final LogSubscriptionRegistry registry;
+    
+    public LogSubscriptionInterceptor(LogSubscriptionRegistry registry) {
+        this.registry = registry;
+    }
+    
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+        
+        switch (accessor.getCommand()) {
+            case SUBSCRIBE -> {
+                if (!LogBroadcaster.DESTINATION.equals(accessor.getDestination())) {
+                    return message;
+                }
+                LogStreamFilter filter;
+                try {
+                    filter = LogStreamFilter.parse(
+                            accessor.getFirstNativeHeader("levels"),
+                            accessor.getFirstNativeHeader("source"),
+                            accessor.getFirstNativeHeader("contains"),
+                            accessor.getFirstNativeHeader("regex"));
+                } catch (IllegalArgumentException e) {
+                    // Sent back to the client as the message of a STOMP ERROR frame
+                    throw new MessageDeliveryException(message, "Invalid log filter: " + e.getMessage());
+                }
+                LogWireFormat format = LogWireFormat.fromAccept(accessor.getFirstNativeHeader("accept"), LogWireFormat.COLUMNS);
+                String destination = registry.subscribe(accessor.getSessionId(), accessor.getSubscriptionId(), filter, format);
+                if (!destination.equals(accessor.getDestination())) {
+                    StompHeaderAccessor rewritten = StompHeaderAccessor.wrap(message);
+                    rewritten.setDestination(destination);
+                    return MessageBuilder.createMessage(message.getPayload(), rewritten.getMessageHeaders());
+                }
+            }
+            case UNSUBSCRIBE -> registry.unsubscribe(accessor.getSessionId(), accessor.getSubscriptionId());
+            case DISCONNECT -> registry.disconnect(accessor.getSessionId());
+            default -> {
+            }
+        }
+        return message;
+    }
+}
\ No newline at end of file
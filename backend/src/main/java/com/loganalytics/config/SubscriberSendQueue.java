@@ -0,0 +1,149 @@
+package com.loganalytics.config;
+
+import com.loganalytics.model.LogLevel;
+import com.loganalytics.service.LogBroadcaster;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Outbound queue for one WebSocket session. Frames are written by a pooled sender thread so a
+ * slow client never blocks the broker, and the queue is bounded: once it is half full, log
+ * frames that carry nothing above INFO are dropped; once it is full, every log frame is dropped
+ * until the client catches up. Other frames (CONNECTED, RECEIPT, ERROR) are always delivered.
+ */
+public class SubscriberSendQueue extends WebSocketSessionDecorator {
+    
+    private static final Logger log = LoggerFactory.getLogger(SubscriberSendQueue.class);
+    
+    private static final String LOG_DESTINATION_HEADER = "\ndestination:" + LogBroadcaster.DESTINATION;
+    private static final String MAX_LEVEL_HEADER = "\n" + LogBroadcaster.MAX_LEVEL_HEADER + ":";
+    
+    private final Executor executor;
+    private final int bufferSizeLimit;
+    private final Counter[] droppedCounters;
+    private final Timer writeTimer;
+    
+    private final Queue<WebSocketMessage<?>> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicLong queuedBytes = new AtomicLong();
+    private final AtomicBoolean sending = new AtomicBoolean();
+    private volatile CloseStatus closeStatus;
+    
+    public SubscriberSendQueue(WebSocketSession session, Executor executor, int bufferSizeLimit,
+                               Counter[] droppedCounters, Timer writeTimer) {
+        super(session);
+        this.executor = executor;
+        this.bufferSizeLimit = bufferSizeLimit;
+        this.droppedCounters = droppedCounters;
+        this.writeTimer = writeTimer;
+    }
+    
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) throws IOException {
+        if (!isOpen() || closeStatus != null) {
+            return;
+        }
+        int length = message.getPayloadLength();
+        long queued = queuedBytes.get();
+        if (queued > bufferSizeLimit / 2 && message instanceof TextMessage text) {
+            LogLevel level = logFrameLevel(text.getPayload());
+            if (level != null && (queued > bufferSizeLimit || level.compareTo(LogLevel.WARN) > 0)) {
+                droppedCounters[level.ordinal()].increment();
+                return;
+            }
+        }
+        
+        queuedBytes.addAndGet(length);
+        queue.add(message);
+        scheduleSend();
+    }
+    
+    @Override
+    public void close() throws IOException {
+        close(CloseStatus.NORMAL);
+    }
+    
+    @Override
+    public void close(CloseStatus status) throws IOException {
+        // Frames already queued, e.g. the STOMP ERROR explaining the close, go out first
+        closeStatus = status;
+        scheduleSend();
+    }
+    
+    private void scheduleSend() {
+        if (sending.compareAndSet(false, true)) {
+            executor.execute(this::sendQueued);
+        }
+    }
+    
+    private void sendQueued() {
+        try {
+            WebSocketMessage<?> message;
+            while ((message = queue.poll()) != null) {
+                queuedBytes.addAndGet(-message.getPayloadLength());
+                long start = System.nanoTime();
+                getDelegate().sendMessage(message);
+                writeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            if (closeStatus != null && getDelegate().isOpen()) {
+                getDelegate().close(closeStatus);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.debug("Send to WebSocket session {} failed: {}", getId(), e.getMessage());
+            discardQueued();
+        } finally {
+            sending.set(false);
+        }
+        // A frame or close added after the last poll but before the flag was reset would otherwise wait
+        if ((!queue.isEmpty() || closeStatus != null) && isOpen()) {
+            scheduleSend();
+        }
+    }
+    
+    private void discardQueued() {
+        queue.clear();
+        queuedBytes.set(0);
+    }
+    
+    // Most severe level in a /topic/logs MESSAGE frame, or null for any other frame
+    private static LogLevel logFrameLevel(String frame) {
+        int headersEnd = frame.indexOf("\n\n");
+        if (headersEnd < 0) {
+            return null;
+        }
+        // /topic/logs itself or one of its filtered destinations (/topic/logs.f<n>)
+        int destination = frame.indexOf(LOG_DESTINATION_HEADER);
+        if (destination < 0 || destination > headersEnd) {
+            return null;
+        }
+        char next = frame.charAt(destination + LOG_DESTINATION_HEADER.length());
+        if (next != '\n' && next != '.') {
+            return null;
+        }
+        
+        int start = frame.indexOf(MAX_LEVEL_HEADER);
+        if (start < 0 || start > headersEnd) {
+            return LogLevel.ERROR;
+        }
+        start += MAX_LEVEL_HEADER.length();
+        try {
+            return LogLevel.valueOf(frame.substring(start, frame.indexOf('\n', start)));
+        } catch (IllegalArgumentException e) {
+            return LogLevel.ERROR;
+        }
+    }
+}
\ No newline at end of file
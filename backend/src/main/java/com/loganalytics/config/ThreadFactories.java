@@ -0,0 +1,28 @@
+package com.loganalytics.config;
+
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Thread factories for the application's own blocking pools. They follow Spring Boot's
+ * {@code spring.threads.virtual.enabled}: virtual threads when it is set and the JVM supports
+ * them (Java 21+), daemon platform threads otherwise.
+ */
+public final class ThreadFactories {
+    
+    private ThreadFactories() {
+    }
+    
+    public static ThreadFactory forBlockingWork(String namePrefix, Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return new VirtualThreadTaskExecutor(namePrefix).getVirtualThreadFactory();
+        }
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(namePrefix);
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+}
\ No newline at end of file
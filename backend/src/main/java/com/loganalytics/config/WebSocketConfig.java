@@ -1,15 +1,51 @@
 package com.loganalytics.config;
 
+import com.loganalytics.model.LogLevel;
+import com.loganalytics.service.LogSubscriptionRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private LogSubscriptionRegistry subscriptionRegistry;
+
+    @Value("${logs.broadcast.subscriber.buffer-size-limit:1048576}")
+    private int subscriberBufferSizeLimit;
+
+    @Autowired
+    private Environment environment;
+
+    private ExecutorService sendExecutor;
+
+    @PostConstruct
+    void init() {
+        // Daemon or virtual threads; idle ones end after a minute, so the pool needs no explicit shutdown
+        sendExecutor = Executors.newCachedThreadPool(ThreadFactories.forBlockingWork("ws-send-", environment));
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         // Enable a simple memory-based message broker to carry messages back to the client
@@ -25,4 +61,40 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .setAllowedOriginPatterns("*")
                 .withSockJS();
     }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // Filter headers on SUBSCRIBE /topic/logs move the subscription to a shared filtered destination
+        registration.interceptors(new LogSubscriptionInterceptor(subscriptionRegistry));
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // Give every session its own bounded send queue so a slow client loses log frames
+        // instead of stalling the broker or being disconnected for overflowing its buffer
+        Counter[] droppedCounters = subscriberDroppedCounters();
+        Timer writeTimer = Timer.builder("logs.broadcast.subscriber.write")
+                .description("Time to write one frame to a WebSocket client")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        registration.addDecoratorFactory(handler -> new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                super.afterConnectionEstablished(new SubscriberSendQueue(
+                        session, sendExecutor, subscriberBufferSizeLimit, droppedCounters, writeTimer));
+            }
+        });
+    }
+
+    private Counter[] subscriberDroppedCounters() {
+        LogLevel[] levels = LogLevel.values();
+        Counter[] counters = new Counter[levels.length];
+        for (LogLevel level : levels) {
+            counters[level.ordinal()] = Counter.builder("logs.broadcast.subscriber.dropped")
+                    .description("Log frames not sent to a WebSocket client that fell behind, by most severe level")
+                    .tag("level", level.name())
+                    .register(meterRegistry);
+        }
+        return counters;
+    }
 }
\ No newline at end of file
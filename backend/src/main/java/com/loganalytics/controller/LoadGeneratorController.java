@@ -0,0 +1,43 @@
+package com.loganalytics.controller;
+
+import com.loganalytics.dto.LoadGeneratorReportDto;
+import com.loganalytics.dto.LoadGeneratorRequestDto;
+import com.loganalytics.service.LoadGeneratorService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+@RequestMapping("/api/loadgen")
+@ConditionalOnProperty(name = "logs.loadgen.enabled", havingValue = "true")
+@CrossOrigin(origins = "*", allowedHeaders = "*")
+public class LoadGeneratorController {
+    
+    @Autowired
+    private LoadGeneratorService loadGeneratorService;
+    
+    @PostMapping("/start")
+    public ResponseEntity<LoadGeneratorReportDto> start(@Valid @RequestBody LoadGeneratorRequestDto settings) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(loadGeneratorService.start(settings));
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+    
+    @PostMapping("/stop")
+    public ResponseEntity<LoadGeneratorReportDto> stop() {
+        return ResponseEntity.ok(loadGeneratorService.stopRun());
+    }
+    
+    @GetMapping("/report")
+    public ResponseEntity<LoadGeneratorReportDto> getReport() {
+        return ResponseEntity.ok(loadGeneratorService.getReport());
+    }
+}
\ No newline at end of file
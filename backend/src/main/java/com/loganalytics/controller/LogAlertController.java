@@ -0,0 +1,35 @@
+package com.loganalytics.controller;
+
+import com.loganalytics.dto.LogAlertDto;
+import com.loganalytics.dto.SourceRateDto;
+import com.loganalytics.service.LogAnomalyDetector;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+// Error spikes found by LogAnomalyDetector; the same events are pushed on /topic/alerts
+@RestController
+@RequestMapping("/api/logs/alerts")
+@CrossOrigin(origins = "*", allowedHeaders = "*")
+public class LogAlertController {
+    
+    @Autowired
+    private LogAnomalyDetector anomalyDetector;
+    
+    @GetMapping
+    public ResponseEntity<List<LogAlertDto>> getAlerts(@RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(anomalyDetector.getAlerts(Math.max(limit, 0)));
+    }
+    
+    @GetMapping("/open")
+    public ResponseEntity<List<LogAlertDto>> getOpenAlerts() {
+        return ResponseEntity.ok(anomalyDetector.getOpenAlerts());
+    }
+    
+    @GetMapping("/rates")
+    public ResponseEntity<List<SourceRateDto>> getRates(@RequestParam(required = false) String source) {
+        return ResponseEntity.ok(anomalyDetector.getRates(source));
+    }
+}
\ No newline at end of file
@@ -1,19 +1,44 @@
 package com.loganalytics.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.loganalytics.dto.BatchIngestResultDto;
+import com.loganalytics.dto.CursorPageDto;
 import com.loganalytics.dto.LogEntryDto;
+import com.loganalytics.dto.LogFieldValuesDto;
 import com.loganalytics.dto.LogStatsDto;
+import com.loganalytics.dto.LogSummaryDto;
 import com.loganalytics.dto.TimeSeriesDataDto;
 import com.loganalytics.model.LogLevel;
+import com.loganalytics.service.AsyncIngestService;
 import com.loganalytics.service.LogService;
+import com.loganalytics.service.LogWireFormat;
+import com.loganalytics.service.TimeBucket;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 @RestController
@@ -24,6 +49,28 @@ public class LogController {
     @Autowired
     private LogService logService;
     
+    @Autowired
+    private AsyncIngestService asyncIngestService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    // Their mappers write the streamed responses in CBOR and Smile
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+    
+    @Autowired
+    private MappingJackson2SmileHttpMessageConverter smileConverter;
+    
+    @Value("${logs.stream.default-limit:1000}")
+    private int defaultStreamLimit;
+    
+    @Value("${logs.stream.max-limit:100000}")
+    private int maxStreamLimit;
+    
+    @Value("${logs.stream.default-window:24h}")
+    private Duration defaultStreamWindow;
+    
     @GetMapping
     public ResponseEntity<List<LogEntryDto>> getAllLogs() {
         List<LogEntryDto> logs = logService.getAllLogs();
@@ -39,28 +86,71 @@ public class LogController {
     }
     
     @GetMapping("/level/{level}")
-    public ResponseEntity<List<LogEntryDto>> getLogsByLevel(@PathVariable LogLevel level) {
-        List<LogEntryDto> logs = logService.getLogsByLevel(level);
-        return ResponseEntity.ok(logs);
+    public ResponseEntity<StreamingResponseBody> getLogsByLevel(
+            @PathVariable LogLevel level,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return streamLogs(level, null, startTime, endTime, null, limit, accept);
+    }
+    
+    @GetMapping("/source/{source}")
+    public ResponseEntity<StreamingResponseBody> getLogsBySource(
+            @PathVariable String source,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return streamLogs(null, source, startTime, endTime, null, limit, accept);
     }
     
     @GetMapping("/search")
-    public ResponseEntity<List<LogEntryDto>> searchLogs(@RequestParam String query) {
-        List<LogEntryDto> logs = logService.searchLogs(query);
-        return ResponseEntity.ok(logs);
+    public ResponseEntity<StreamingResponseBody> searchLogs(
+            @RequestParam String query,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return streamLogs(null, null, startTime, endTime, query, limit, accept);
     }
     
     @GetMapping("/stats")
-    public ResponseEntity<LogStatsDto> getLogStats() {
-        LogStatsDto stats = logService.getLogStats();
+    public ResponseEntity<LogStatsDto> getLogStats(@RequestParam(required = false) Integer hours) {
+        LogStatsDto stats = hours != null ? logService.getLogStats(hours) : logService.getLogStats();
         return ResponseEntity.ok(stats);
     }
     
+    // Distinct sources, threads and loggers and the most frequent sources and messages, estimated from sketches
+    @GetMapping("/stats/summary")
+    public ResponseEntity<LogSummaryDto> getLogSummary(
+            @RequestParam(defaultValue = "1") int hours,
+            @RequestParam(required = false) LogLevel level,
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(logService.getLogSummary(hours, level, Math.max(limit, 0)));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+    
     @GetMapping("/timeseries")
     public ResponseEntity<List<TimeSeriesDataDto>> getTimeSeriesData(
-            @RequestParam(defaultValue = "24") int hours) {
-        List<TimeSeriesDataDto> data = logService.getTimeSeriesData(hours);
-        return ResponseEntity.ok(data);
+            @RequestParam(defaultValue = "24") int hours,
+            @RequestParam(defaultValue = "1h") String bucket,
+            @RequestParam(required = false) String source) {
+        try {
+            List<TimeSeriesDataDto> data = logService.getTimeSeriesData(hours, TimeBucket.fromLabel(bucket), source);
+            return ResponseEntity.ok(data);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+    
+    // Distinct sources, threads and loggers, for filter drop-downs
+    @GetMapping("/fields")
+    public ResponseEntity<LogFieldValuesDto> getFieldValues() {
+        return ResponseEntity.ok(logService.getFieldValues());
     }
     
     @PostMapping
@@ -69,6 +159,117 @@ public class LogController {
         return ResponseEntity.status(HttpStatus.CREATED).body(createdLog);
     }
     
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BatchIngestResultDto> createLogs(@RequestBody List<LogEntryDto> logDtos) {
+        return ingestBatch(logDtos);
+    }
+    
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<BatchIngestResultDto> createLogsFromNdjson(InputStream body) throws IOException {
+        return ingestBatch(readNdjson(body));
+    }
+    
+    @PostMapping("/async")
+    public ResponseEntity<BatchIngestResultDto> createLogAsync(@Valid @RequestBody LogEntryDto logDto) {
+        return enqueueBatch(new ArrayList<>(List.of(logDto)));
+    }
+    
+    @PostMapping(value = "/async/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BatchIngestResultDto> createLogsAsync(@RequestBody List<LogEntryDto> logDtos) {
+        return enqueueBatch(logDtos);
+    }
+    
+    @PostMapping(value = "/async/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<BatchIngestResultDto> createLogsAsyncFromNdjson(InputStream body) throws IOException {
+        return enqueueBatch(readNdjson(body));
+    }
+    
+    @ExceptionHandler(JsonProcessingException.class)
+    public ResponseEntity<BatchIngestResultDto> handleMalformedNdjson(JsonProcessingException e) {
+        String error = e.getLocation() != null
+                ? "line " + e.getLocation().getLineNr() + ": " + e.getOriginalMessage()
+                : e.getOriginalMessage();
+        return ResponseEntity.badRequest().body(new BatchIngestResultDto(List.of(error)));
+    }
+    
+    private List<LogEntryDto> readNdjson(InputStream body) throws IOException {
+        List<LogEntryDto> logDtos = new ArrayList<>();
+        try (MappingIterator<LogEntryDto> lines = objectMapper.readerFor(LogEntryDto.class).readValues(body)) {
+            // Read one entry past the limit so oversized batches are rejected without buffering the rest
+            while (lines.hasNextValue() && logDtos.size() <= logService.getMaxBatchSize()) {
+                logDtos.add(lines.nextValue());
+            }
+        }
+        return logDtos;
+    }
+    
+    // Writes entries as they are read, as a JSON array, or as NDJSON or a CBOR or Smile array when the client asks for it
+    private ResponseEntity<StreamingResponseBody> streamLogs(LogLevel level, String source,
+                                                             LocalDateTime startTime, LocalDateTime endTime,
+                                                             String query, Integer limit, String accept) {
+        int rows = limit != null ? limit : defaultStreamLimit;
+        if (rows < 1 || rows > maxStreamLimit) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + maxStreamLimit);
+        }
+        LocalDateTime end = endTime != null ? endTime : LocalDateTime.now();
+        LocalDateTime start = startTime != null ? startTime : end.minus(defaultStreamWindow);
+        if (start.isAfter(end)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "startTime must not be after endTime");
+        }
+        
+        boolean ndjson = accept != null && MediaType.parseMediaTypes(accept).stream()
+                .anyMatch(MediaType.APPLICATION_NDJSON::equalsTypeAndSubtype);
+        LogWireFormat format = ndjson ? LogWireFormat.JSON
+                : LogWireFormat.fromAccept(accept, LogWireFormat.CBOR, LogWireFormat.SMILE);
+        ObjectMapper mapper = switch (format) {
+            case CBOR -> cborConverter.getObjectMapper();
+            case SMILE -> smileConverter.getObjectMapper();
+            default -> objectMapper;
+        };
+        ObjectWriter writer = mapper.writerFor(LogEntryDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> {
+            try (SequenceWriter sequence = ndjson
+                    ? writer.withRootValueSeparator("\n").writeValues(out)
+                    : writer.writeValuesAsArray(out)) {
+                logService.streamLogs(level, source, start, end, query, rows, logDto -> {
+                    try {
+                        sequence.write(logDto);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(ndjson ? MediaType.APPLICATION_NDJSON : format.getMediaType())
+                .body(body);
+    }
+    
+    private ResponseEntity<BatchIngestResultDto> ingestBatch(List<LogEntryDto> logDtos) {
+        List<String> errors = logService.validateBatch(logDtos);
+        if (!errors.isEmpty()) {
+            return ResponseEntity.badRequest().body(new BatchIngestResultDto(errors));
+        }
+        int accepted = logService.createLogs(logDtos);
+        return ResponseEntity.status(HttpStatus.CREATED).body(new BatchIngestResultDto(accepted));
+    }
+    
+    private ResponseEntity<BatchIngestResultDto> enqueueBatch(List<LogEntryDto> logDtos) {
+        List<String> errors = logService.validateBatch(logDtos);
+        if (!errors.isEmpty()) {
+            return ResponseEntity.badRequest().body(new BatchIngestResultDto(errors));
+        }
+        AsyncIngestService.SubmitResult result = asyncIngestService.submit(logDtos);
+        if (result.status() == AsyncIngestService.SubmitStatus.REJECTED) {
+            BatchIngestResultDto body = new BatchIngestResultDto(List.of("ingest queue is full, retry later"));
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header("Retry-After", "1").body(body);
+        }
+        BatchIngestResultDto body = new BatchIngestResultDto(result.accepted());
+        body.setDropped(result.dropped());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(body);
+    }
+    
     @GetMapping("/filter")
     public ResponseEntity<Page<LogEntryDto>> getLogsWithFilters(
             @RequestParam(required = false) LogLevel level,
@@ -82,4 +283,34 @@ public class LogController {
         Page<LogEntryDto> logs = logService.getLogsWithFilters(level, source, startTime, endTime, query, page, size);
         return ResponseEntity.ok(logs);
     }
+    
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPageDto<LogEntryDto>> getLogsWithCursor(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String before,
+            @RequestParam(defaultValue = "50") int size) {
+        return getLogsWithFiltersAndCursor(null, null, null, null, null, after, before, size);
+    }
+    
+    @GetMapping("/filter/cursor")
+    public ResponseEntity<CursorPageDto<LogEntryDto>> getLogsWithFiltersAndCursor(
+            @RequestParam(required = false) LogLevel level,
+            @RequestParam(required = false) String source,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime,
+            @RequestParam(required = false) String query,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String before,
+            @RequestParam(defaultValue = "50") int size) {
+        
+        if (size < 1 || size > 1000) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be between 1 and 1000");
+        }
+        try {
+            CursorPageDto<LogEntryDto> logs = logService.getLogsWithCursor(level, source, startTime, endTime, query, after, before, size);
+            return ResponseEntity.ok(logs);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,69 @@
+package com.loganalytics.controller;
+
+import com.loganalytics.dto.FileIngestJobDto;
+import com.loganalytics.dto.FileTailDto;
+import com.loganalytics.dto.LogFileIngestRequestDto;
+import com.loganalytics.service.LogFileIngestService;
+import com.loganalytics.service.LogFileTailService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+// Raw log files below logs.file-ingest.base-dir: one-off imports and tails
+@RestController
+@RequestMapping("/api/logs/files")
+@CrossOrigin(origins = "*", allowedHeaders = "*")
+public class LogFileIngestController {
+    
+    @Autowired
+    private LogFileIngestService fileIngestService;
+    
+    @Autowired
+    private LogFileTailService fileTailService;
+    
+    @PostMapping("/ingest")
+    public ResponseEntity<FileIngestJobDto> ingest(@Valid @RequestBody LogFileIngestRequestDto request) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(fileIngestService.submit(request));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+    
+    @GetMapping("/jobs")
+    public ResponseEntity<List<FileIngestJobDto>> getJobs() {
+        return ResponseEntity.ok(fileIngestService.getJobs());
+    }
+    
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<FileIngestJobDto> getJob(@PathVariable long id) {
+        FileIngestJobDto job = fileIngestService.getJob(id);
+        return job != null ? ResponseEntity.ok(job) : ResponseEntity.notFound().build();
+    }
+    
+    @PostMapping("/tails")
+    public ResponseEntity<FileTailDto> startTail(@Valid @RequestBody LogFileIngestRequestDto request) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(fileTailService.start(request));
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+    
+    @GetMapping("/tails")
+    public ResponseEntity<List<FileTailDto>> getTails() {
+        return ResponseEntity.ok(fileTailService.getTails());
+    }
+    
+    @DeleteMapping("/tails/{id}")
+    public ResponseEntity<Void> stopTail(@PathVariable long id) {
+        return fileTailService.stop(id) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+}
\ No newline at end of file
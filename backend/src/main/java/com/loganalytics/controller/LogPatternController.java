@@ -0,0 +1,50 @@
+package com.loganalytics.controller;
+
+import com.loganalytics.dto.LogEntryDto;
+import com.loganalytics.dto.LogPatternDto;
+import com.loganalytics.service.LogService;
+import com.loganalytics.service.LogTemplateService;
+import com.loganalytics.service.TimeBucket;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+// Message templates mined on ingest: the most frequent ones and the entries of one of them
+@RestController
+@RequestMapping("/api/logs/patterns")
+@CrossOrigin(origins = "*", allowedHeaders = "*")
+public class LogPatternController {
+    
+    @Autowired
+    private LogTemplateService templateService;
+    
+    @Autowired
+    private LogService logService;
+    
+    @GetMapping
+    public ResponseEntity<List<LogPatternDto>> getTopPatterns(
+            @RequestParam(defaultValue = "24") int hours,
+            @RequestParam(defaultValue = "1h") String bucket,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(templateService.getTopPatterns(hours, TimeBucket.fromLabel(bucket), Math.max(limit, 0)));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+    
+    @GetMapping("/{templateId}/logs")
+    public ResponseEntity<List<LogEntryDto>> getLogsByTemplate(
+            @PathVariable int templateId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "100") int size) {
+        if (!templateService.exists(templateId)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(logService.getLogsByTemplate(templateId, page, size));
+    }
+}
\ No newline at end of file
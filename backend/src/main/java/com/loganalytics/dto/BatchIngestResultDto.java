@@ -0,0 +1,47 @@
+package com.loganalytics.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BatchIngestResultDto {
+    
+    private int accepted;
+    private int dropped;
+    private List<String> errors = new ArrayList<>();
+    
+    // Constructors
+    public BatchIngestResultDto() {}
+    
+    public BatchIngestResultDto(int accepted) {
+        this.accepted = accepted;
+    }
+    
+    public BatchIngestResultDto(List<String> errors) {
+        this.errors = errors;
+    }
+    
+    // Getters and Setters
+    public int getAccepted() {
+        return accepted;
+    }
+    
+    public void setAccepted(int accepted) {
+        this.accepted = accepted;
+    }
+    
+    public int getDropped() {
+        return dropped;
+    }
+    
+    public void setDropped(int dropped) {
+        this.dropped = dropped;
+    }
+    
+    public List<String> getErrors() {
+        return errors;
+    }
+    
+    public void setErrors(List<String> errors) {
+        this.errors = errors;
+    }
+}
@@ -0,0 +1,63 @@
+package com.loganalytics.dto;
+
+import java.util.List;
+
+// One slice of a keyset-paginated listing; cursors are opaque and null when there is no such page
+public class CursorPageDto<T> {
+    
+    private List<T> content;
+    private int size;
+    private String nextCursor;
+    private String prevCursor;
+    
+    // Constructors
+    public CursorPageDto() {}
+    
+    public CursorPageDto(List<T> content, int size, String nextCursor, String prevCursor) {
+        this.content = content;
+        this.size = size;
+        this.nextCursor = nextCursor;
+        this.prevCursor = prevCursor;
+    }
+    
+    // Getters and Setters
+    public List<T> getContent() {
+        return content;
+    }
+    
+    public void setContent(List<T> content) {
+        this.content = content;
+    }
+    
+    public int getSize() {
+        return size;
+    }
+    
+    public void setSize(int size) {
+        this.size = size;
+    }
+    
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+    
+    public String getPrevCursor() {
+        return prevCursor;
+    }
+    
+    public void setPrevCursor(String prevCursor) {
+        this.prevCursor = prevCursor;
+    }
+    
+    public boolean isHasNext() {
+        return nextCursor != null;
+    }
+    
+    public boolean isHasPrevious() {
+        return prevCursor != null;
+    }
+}
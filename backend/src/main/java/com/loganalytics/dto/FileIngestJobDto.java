@@ -0,0 +1,128 @@
+package com.loganalytics.dto;
+
+import com.loganalytics.model.LogFileFormat;
+import java.time.LocalDateTime;
+
+// Progress of a file import started through POST /api/logs/files/ingest
+public class FileIngestJobDto {
+    
+    public enum State {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+    
+    private long id;
+    private String path;
+    // The detected format when AUTO was requested
+    private LogFileFormat format;
+    private State state;
+    private long bytesTotal;
+    private long bytesParsed;
+    private long entries;
+    // Lines that were no record of the format, and records that could not be parsed
+    private long skippedLines;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    // Stored entries per second since the start
+    private double entriesPerSecond;
+    private String error;
+    
+    // Getters and Setters
+    public long getId() {
+        return id;
+    }
+    
+    public void setId(long id) {
+        this.id = id;
+    }
+    
+    public String getPath() {
+        return path;
+    }
+    
+    public void setPath(String path) {
+        this.path = path;
+    }
+    
+    public LogFileFormat getFormat() {
+        return format;
+    }
+    
+    public void setFormat(LogFileFormat format) {
+        this.format = format;
+    }
+    
+    public State getState() {
+        return state;
+    }
+    
+    public void setState(State state) {
+        this.state = state;
+    }
+    
+    public long getBytesTotal() {
+        return bytesTotal;
+    }
+    
+    public void setBytesTotal(long bytesTotal) {
+        this.bytesTotal = bytesTotal;
+    }
+    
+    public long getBytesParsed() {
+        return bytesParsed;
+    }
+    
+    public void setBytesParsed(long bytesParsed) {
+        this.bytesParsed = bytesParsed;
+    }
+    
+    public long getEntries() {
+        return entries;
+    }
+    
+    public void setEntries(long entries) {
+        this.entries = entries;
+    }
+    
+    public long getSkippedLines() {
+        return skippedLines;
+    }
+    
+    public void setSkippedLines(long skippedLines) {
+        this.skippedLines = skippedLines;
+    }
+    
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+    
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+    
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+    
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+    
+    public double getEntriesPerSecond() {
+        return entriesPerSecond;
+    }
+    
+    public void setEntriesPerSecond(double entriesPerSecond) {
+        this.entriesPerSecond = entriesPerSecond;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public void setError(String error) {
+        this.error = error;
+    }
+}
\ No newline at end of file
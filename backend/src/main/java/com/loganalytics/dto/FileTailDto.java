@@ -0,0 +1,93 @@
+package com.loganalytics.dto;
+
+import com.loganalytics.model.LogFileFormat;
+import java.time.LocalDateTime;
+
+// A tailed file and how far it has been read
+public class FileTailDto {
+    
+    private long id;
+    private String path;
+    private LogFileFormat format;
+    private String source;
+    // Bytes stored so far, and the size of the file at the last poll
+    private long offset;
+    private long size;
+    // Entries stored since this instance started
+    private long entries;
+    private LocalDateTime updatedAt;
+    private String error;
+    
+    // Getters and Setters
+    public long getId() {
+        return id;
+    }
+    
+    public void setId(long id) {
+        this.id = id;
+    }
+    
+    public String getPath() {
+        return path;
+    }
+    
+    public void setPath(String path) {
+        this.path = path;
+    }
+    
+    public LogFileFormat getFormat() {
+        return format;
+    }
+    
+    public void setFormat(LogFileFormat format) {
+        this.format = format;
+    }
+    
+    public String getSource() {
+        return source;
+    }
+    
+    public void setSource(String source) {
+        this.source = source;
+    }
+    
+    public long getOffset() {
+        return offset;
+    }
+    
+    public void setOffset(long offset) {
+        this.offset = offset;
+    }
+    
+    public long getSize() {
+        return size;
+    }
+    
+    public void setSize(long size) {
+        this.size = size;
+    }
+    
+    public long getEntries() {
+        return entries;
+    }
+    
+    public void setEntries(long entries) {
+        this.entries = entries;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public void setError(String error) {
+        this.error = error;
+    }
+}
\ No newline at end of file
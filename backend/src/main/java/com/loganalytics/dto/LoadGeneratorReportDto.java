@@ -0,0 +1,175 @@
+package com.loganalytics.dto;
+
+import java.time.LocalDateTime;
+
+public class LoadGeneratorReportDto {
+    
+    private boolean running;
+    private LoadGeneratorRequestDto settings;
+    private LocalDateTime startedAt;
+    private double elapsedSeconds;
+    // Entries per second the profile asks for right now
+    private double targetRate;
+    // Accepted entries per second since the start, and over the last report interval
+    private double achievedRate;
+    private double currentRate;
+    private long sentEntries;
+    private long acceptedEntries;
+    // Refused or lost by the backend: failed requests, async rejections and drops
+    private long droppedEntries;
+    // Never sent because the generator fell more than a second behind its schedule
+    private long missedEntries;
+    private long failedRequests;
+    // Per request, measured from when it was due rather than when it was sent
+    private double latencyP50Ms;
+    private double latencyP90Ms;
+    private double latencyP99Ms;
+    private double latencyP999Ms;
+    private double latencyMaxMs;
+    private String lastError;
+    
+    // Getters and Setters
+    public boolean isRunning() {
+        return running;
+    }
+    
+    public void setRunning(boolean running) {
+        this.running = running;
+    }
+    
+    public LoadGeneratorRequestDto getSettings() {
+        return settings;
+    }
+    
+    public void setSettings(LoadGeneratorRequestDto settings) {
+        this.settings = settings;
+    }
+    
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+    
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+    
+    public double getElapsedSeconds() {
+        return elapsedSeconds;
+    }
+    
+    public void setElapsedSeconds(double elapsedSeconds) {
+        this.elapsedSeconds = elapsedSeconds;
+    }
+    
+    public double getTargetRate() {
+        return targetRate;
+    }
+    
+    public void setTargetRate(double targetRate) {
+        this.targetRate = targetRate;
+    }
+    
+    public double getAchievedRate() {
+        return achievedRate;
+    }
+    
+    public void setAchievedRate(double achievedRate) {
+        this.achievedRate = achievedRate;
+    }
+    
+    public double getCurrentRate() {
+        return currentRate;
+    }
+    
+    public void setCurrentRate(double currentRate) {
+        this.currentRate = currentRate;
+    }
+    
+    public long getSentEntries() {
+        return sentEntries;
+    }
+    
+    public void setSentEntries(long sentEntries) {
+        this.sentEntries = sentEntries;
+    }
+    
+    public long getAcceptedEntries() {
+        return acceptedEntries;
+    }
+    
+    public void setAcceptedEntries(long acceptedEntries) {
+        this.acceptedEntries = acceptedEntries;
+    }
+    
+    public long getDroppedEntries() {
+        return droppedEntries;
+    }
+    
+    public void setDroppedEntries(long droppedEntries) {
+        this.droppedEntries = droppedEntries;
+    }
+    
+    public long getMissedEntries() {
+        return missedEntries;
+    }
+    
+    public void setMissedEntries(long missedEntries) {
+        this.missedEntries = missedEntries;
+    }
+    
+    public long getFailedRequests() {
+        return failedRequests;
+    }
+    
+    public void setFailedRequests(long failedRequests) {
+        this.failedRequests = failedRequests;
+    }
+    
+    public double getLatencyP50Ms() {
+        return latencyP50Ms;
+    }
+    
+    public void setLatencyP50Ms(double latencyP50Ms) {
+        this.latencyP50Ms = latencyP50Ms;
+    }
+    
+    public double getLatencyP90Ms() {
+        return latencyP90Ms;
+    }
+    
+    public void setLatencyP90Ms(double latencyP90Ms) {
+        this.latencyP90Ms = latencyP90Ms;
+    }
+    
+    public double getLatencyP99Ms() {
+        return latencyP99Ms;
+    }
+    
+    public void setLatencyP99Ms(double latencyP99Ms) {
+        this.latencyP99Ms = latencyP99Ms;
+    }
+    
+    public double getLatencyP999Ms() {
+        return latencyP999Ms;
+    }
+    
+    public void setLatencyP999Ms(double latencyP999Ms) {
+        this.latencyP999Ms = latencyP999Ms;
+    }
+    
+    public double getLatencyMaxMs() {
+        return latencyMaxMs;
+    }
+    
+    public void setLatencyMaxMs(double latencyMaxMs) {
+        this.latencyMaxMs = latencyMaxMs;
+    }
+    
+    public String getLastError() {
+        return lastError;
+    }
+    
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+}
\ No newline at end of file
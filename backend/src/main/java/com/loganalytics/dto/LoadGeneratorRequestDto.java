@@ -0,0 +1,202 @@
+package com.loganalytics.dto;
+
+import com.loganalytics.model.LogLevel;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import java.util.EnumMap;
+import java.util.Map;
+
+// Settings of a load generator run; defaults are what logs.loadgen.* does not override
+public class LoadGeneratorRequestDto {
+    
+    public enum Mode {
+        // Calls LogService / AsyncIngestService directly
+        IN_PROCESS,
+        // Posts to the REST API at targetUrl, which may be another allowed instance
+        HTTP
+    }
+    
+    public enum Profile {
+        // rate all the time
+        CONSTANT,
+        // climbs linearly from zero to rate over the first period, then holds
+        RAMP,
+        // alternates rate and rate * burstFactor every half period
+        SQUARE,
+        // rate * burstFactor for the first tenth of every period, rate otherwise
+        SPIKE
+    }
+    
+    @NotNull
+    private Mode mode = Mode.IN_PROCESS;
+    
+    // Base URL of the instance to post to in HTTP mode; null posts to this one
+    private String targetUrl;
+    
+    // Entries per second
+    @Min(1)
+    private int rate = 1000;
+    
+    @Min(1)
+    private int durationSeconds = 60;
+    
+    @Min(1)
+    private int concurrency = 4;
+    
+    // Entries per call; 1 uses the single entry endpoint
+    @Min(1)
+    private int batchSize = 100;
+    
+    // Use the write-behind endpoints (/api/logs/async*)
+    private boolean async;
+    
+    @NotNull
+    private Profile profile = Profile.CONSTANT;
+    
+    @DecimalMin("1.0")
+    private double burstFactor = 5;
+    
+    @Min(1)
+    private int periodSeconds = 60;
+    
+    // Relative weight of each level; levels left out are not generated
+    @NotEmpty
+    private Map<LogLevel, Integer> levelWeights = defaultLevelWeights();
+    
+    @Min(1)
+    private int sourceCount = 8;
+    
+    // Zipf exponent of the source distribution; 0 picks every source equally often
+    @DecimalMin("0.0")
+    private double sourceSkew;
+    
+    // Distinct messages per level; 0 makes nearly every message unique
+    @Min(0)
+    private int messageCardinality = 1000;
+    
+    // Getters and Setters
+    public Mode getMode() {
+        return mode;
+    }
+    
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+    
+    public String getTargetUrl() {
+        return targetUrl;
+    }
+    
+    public void setTargetUrl(String targetUrl) {
+        this.targetUrl = targetUrl;
+    }
+    
+    public int getRate() {
+        return rate;
+    }
+    
+    public void setRate(int rate) {
+        this.rate = rate;
+    }
+    
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+    
+    public void setDurationSeconds(int durationSeconds) {
+        this.durationSeconds = durationSeconds;
+    }
+    
+    public int getConcurrency() {
+        return concurrency;
+    }
+    
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+    
+    public int getBatchSize() {
+        return batchSize;
+    }
+    
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+    
+    public boolean isAsync() {
+        return async;
+    }
+    
+    public void setAsync(boolean async) {
+        this.async = async;
+    }
+    
+    public Profile getProfile() {
+        return profile;
+    }
+    
+    public void setProfile(Profile profile) {
+        this.profile = profile;
+    }
+    
+    public double getBurstFactor() {
+        return burstFactor;
+    }
+    
+    public void setBurstFactor(double burstFactor) {
+        this.burstFactor = burstFactor;
+    }
+    
+    public int getPeriodSeconds() {
+        return periodSeconds;
+    }
+    
+    public void setPeriodSeconds(int periodSeconds) {
+        this.periodSeconds = periodSeconds;
+    }
+    
+    public Map<LogLevel, Integer> getLevelWeights() {
+        return levelWeights;
+    }
+    
+    public void setLevelWeights(Map<LogLevel, Integer> levelWeights) {
+        this.levelWeights = levelWeights;
+    }
+    
+    public int getSourceCount() {
+        return sourceCount;
+    }
+    
+    public void setSourceCount(int sourceCount) {
+        this.sourceCount = sourceCount;
+    }
+    
+    public double getSourceSkew() {
+        return sourceSkew;
+    }
+    
+    public void setSourceSkew(double sourceSkew) {
+        this.sourceSkew = sourceSkew;
+    }
+    
+    public int getMessageCardinality() {
+        return messageCardinality;
+    }
+    
+    public void setMessageCardinality(int messageCardinality) {
+        this.messageCardinality = messageCardinality;
+    }
+    
+    // Same mix as the demo generator
+    private static Map<LogLevel, Integer> defaultLevelWeights() {
+        Map<LogLevel, Integer> weights = new EnumMap<>(LogLevel.class);
+        weights.put(LogLevel.ERROR, 10);
+        weights.put(LogLevel.WARN, 15);
+        weights.put(LogLevel.INFO, 45);
+        weights.put(LogLevel.DEBUG, 20);
+        weights.put(LogLevel.TRACE, 10);
+        return weights;
+    }
+}
\ No newline at end of file
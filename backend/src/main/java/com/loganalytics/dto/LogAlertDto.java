@@ -0,0 +1,118 @@
+package com.loganalytics.dto;
+
+import com.loganalytics.model.LogLevel;
+import java.time.LocalDateTime;
+
+// An error spike of one source opening or resolving, sent on /topic/alerts and listed by /api/logs/alerts
+public class LogAlertDto {
+    
+    public enum State {
+        OPEN,
+        RESOLVED
+    }
+    
+    private long id;
+    // Same for the OPEN and the RESOLVED event of one spike
+    private long alertId;
+    private State state;
+    private String source;
+    private LogLevel level;
+    private LocalDateTime timestamp;
+    private LocalDateTime openedAt;
+    // Entries of the level in the bucket that was evaluated
+    private long count;
+    private double ratePerSecond;
+    // The EWMA rate before this bucket
+    private double baselinePerSecond;
+    // Standard deviations above the baseline
+    private double score;
+    
+    // Getters and Setters
+    public long getId() {
+        return id;
+    }
+    
+    public void setId(long id) {
+        this.id = id;
+    }
+    
+    public long getAlertId() {
+        return alertId;
+    }
+    
+    public void setAlertId(long alertId) {
+        this.alertId = alertId;
+    }
+    
+    public State getState() {
+        return state;
+    }
+    
+    public void setState(State state) {
+        this.state = state;
+    }
+    
+    public String getSource() {
+        return source;
+    }
+    
+    public void setSource(String source) {
+        this.source = source;
+    }
+    
+    public LogLevel getLevel() {
+        return level;
+    }
+    
+    public void setLevel(LogLevel level) {
+        this.level = level;
+    }
+    
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+    
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+    
+    public LocalDateTime getOpenedAt() {
+        return openedAt;
+    }
+    
+    public void setOpenedAt(LocalDateTime openedAt) {
+        this.openedAt = openedAt;
+    }
+    
+    public long getCount() {
+        return count;
+    }
+    
+    public void setCount(long count) {
+        this.count = count;
+    }
+    
+    public double getRatePerSecond() {
+        return ratePerSecond;
+    }
+    
+    public void setRatePerSecond(double ratePerSecond) {
+        this.ratePerSecond = ratePerSecond;
+    }
+    
+    public double getBaselinePerSecond() {
+        return baselinePerSecond;
+    }
+    
+    public void setBaselinePerSecond(double baselinePerSecond) {
+        this.baselinePerSecond = baselinePerSecond;
+    }
+    
+    public double getScore() {
+        return score;
+    }
+    
+    public void setScore(double score) {
+        this.score = score;
+    }
+}
\ No newline at end of file
@@ -3,6 +3,7 @@ package com.loganalytics.dto;
 import com.loganalytics.model.LogLevel;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import java.time.LocalDateTime;
 
 public class LogEntryDto {
@@ -18,10 +19,19 @@ public class LogEntryDto {
     @NotBlank
     private String message;
     
+    // Stored in log_dictionary, whose names are limited to 255 characters
+    @Size(max = 255)
     private String source;
+    
+    @Size(max = 255)
     private String thread;
+    
+    @Size(max = 255)
     private String logger;
     
+    // Message template assigned on ingest; ignored when posted
+    private Integer templateId;
+    
     // Constructors
     public LogEntryDto() {}
     
@@ -31,6 +41,19 @@ public class LogEntryDto {
         this.message = message;
     }
     
+    // Built directly by the projection queries of LogEntryRepository
+    public LogEntryDto(Long id, LocalDateTime timestamp, LogLevel level, String message,
+                       String source, String thread, String logger, Integer templateId) {
+        this.id = id;
+        this.timestamp = timestamp;
+        this.level = level;
+        this.message = message;
+        this.source = source;
+        this.thread = thread;
+        this.logger = logger;
+        this.templateId = templateId;
+    }
+    
     // Getters and Setters
     public Long getId() {
         return id;
@@ -87,4 +110,12 @@ public class LogEntryDto {
     public void setLogger(String logger) {
         this.logger = logger;
     }
+    
+    public Integer getTemplateId() {
+        return templateId;
+    }
+    
+    public void setTemplateId(Integer templateId) {
+        this.templateId = templateId;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+package com.loganalytics.dto;
+
+import java.util.List;
+
+// Distinct values of the dictionary-encoded fields, sorted
+public class LogFieldValuesDto {
+    
+    private List<String> sources;
+    private List<String> threads;
+    private List<String> loggers;
+    
+    // Constructors
+    public LogFieldValuesDto() {}
+    
+    public LogFieldValuesDto(List<String> sources, List<String> threads, List<String> loggers) {
+        this.sources = sources;
+        this.threads = threads;
+        this.loggers = loggers;
+    }
+    
+    // Getters and Setters
+    public List<String> getSources() {
+        return sources;
+    }
+    
+    public void setSources(List<String> sources) {
+        this.sources = sources;
+    }
+    
+    public List<String> getThreads() {
+        return threads;
+    }
+    
+    public void setThreads(List<String> threads) {
+        this.threads = threads;
+    }
+    
+    public List<String> getLoggers() {
+        return loggers;
+    }
+    
+    public void setLoggers(List<String> loggers) {
+        this.loggers = loggers;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,45 @@
+package com.loganalytics.dto;
+
+import com.loganalytics.model.LogFileFormat;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+// A file to import or tail, relative to logs.file-ingest.base-dir
+public class LogFileIngestRequestDto {
+    
+    @NotBlank
+    private String path;
+    
+    @NotNull
+    private LogFileFormat format = LogFileFormat.AUTO;
+    
+    // Source of entries that do not name one; the file name when empty
+    @Size(max = 255)
+    private String source;
+    
+    // Getters and Setters
+    public String getPath() {
+        return path;
+    }
+    
+    public void setPath(String path) {
+        this.path = path;
+    }
+    
+    public LogFileFormat getFormat() {
+        return format;
+    }
+    
+    public void setFormat(LogFileFormat format) {
+        this.format = format;
+    }
+    
+    public String getSource() {
+        return source;
+    }
+    
+    public void setSource(String source) {
+        this.source = source;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,75 @@
+package com.loganalytics.dto;
+
+import java.time.LocalDateTime;
+
+// One message template with its entry counts over a window, as returned by /api/logs/patterns
+public class LogPatternDto {
+    
+    private int templateId;
+    private String template;
+    // Entries in the whole window
+    private long count;
+    // Share of all templated entries in the window, in percent
+    private double percentage;
+    private String bucket;
+    // Start of the first bucket; counts holds one value per bucket from there, oldest first
+    private LocalDateTime from;
+    private long[] counts;
+    
+    // Getters and Setters
+    public int getTemplateId() {
+        return templateId;
+    }
+    
+    public void setTemplateId(int templateId) {
+        this.templateId = templateId;
+    }
+    
+    public String getTemplate() {
+        return template;
+    }
+    
+    public void setTemplate(String template) {
+        this.template = template;
+    }
+    
+    public long getCount() {
+        return count;
+    }
+    
+    public void setCount(long count) {
+        this.count = count;
+    }
+    
+    public double getPercentage() {
+        return percentage;
+    }
+    
+    public void setPercentage(double percentage) {
+        this.percentage = percentage;
+    }
+    
+    public String getBucket() {
+        return bucket;
+    }
+    
+    public void setBucket(String bucket) {
+        this.bucket = bucket;
+    }
+    
+    public LocalDateTime getFrom() {
+        return from;
+    }
+    
+    public void setFrom(LocalDateTime from) {
+        this.from = from;
+    }
+    
+    public long[] getCounts() {
+        return counts;
+    }
+    
+    public void setCounts(long[] counts) {
+        this.counts = counts;
+    }
+}
\ No newline at end of file
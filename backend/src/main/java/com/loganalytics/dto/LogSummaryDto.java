@@ -0,0 +1,105 @@
+package com.loganalytics.dto;
+
+import com.loganalytics.model.LogLevel;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Sketch based summary of a window, served by /api/logs/stats/summary
+public class LogSummaryDto {
+    
+    // The window rounded out to whole sketch buckets
+    private LocalDateTime from;
+    private LocalDateTime to;
+    // null for all levels
+    private LogLevel level;
+    private long entries;
+    // HyperLogLog estimates
+    private long distinctSources;
+    private long distinctThreads;
+    private long distinctLoggers;
+    // Relative standard error of the distinct counts
+    private double distinctError;
+    private List<TopValueDto> topSources;
+    private List<TopValueDto> topMessages;
+    
+    // Getters and Setters
+    public LocalDateTime getFrom() {
+        return from;
+    }
+    
+    public void setFrom(LocalDateTime from) {
+        this.from = from;
+    }
+    
+    public LocalDateTime getTo() {
+        return to;
+    }
+    
+    public void setTo(LocalDateTime to) {
+        this.to = to;
+    }
+    
+    public LogLevel getLevel() {
+        return level;
+    }
+    
+    public void setLevel(LogLevel level) {
+        this.level = level;
+    }
+    
+    public long getEntries() {
+        return entries;
+    }
+    
+    public void setEntries(long entries) {
+        this.entries = entries;
+    }
+    
+    public long getDistinctSources() {
+        return distinctSources;
+    }
+    
+    public void setDistinctSources(long distinctSources) {
+        this.distinctSources = distinctSources;
+    }
+    
+    public long getDistinctThreads() {
+        return distinctThreads;
+    }
+    
+    public void setDistinctThreads(long distinctThreads) {
+        this.distinctThreads = distinctThreads;
+    }
+    
+    public long getDistinctLoggers() {
+        return distinctLoggers;
+    }
+    
+    public void setDistinctLoggers(long distinctLoggers) {
+        this.distinctLoggers = distinctLoggers;
+    }
+    
+    public double getDistinctError() {
+        return distinctError;
+    }
+    
+    public void setDistinctError(double distinctError) {
+        this.distinctError = distinctError;
+    }
+    
+    public List<TopValueDto> getTopSources() {
+        return topSources;
+    }
+    
+    public void setTopSources(List<TopValueDto> topSources) {
+        this.topSources = topSources;
+    }
+    
+    public List<TopValueDto> getTopMessages() {
+        return topMessages;
+    }
+    
+    public void setTopMessages(List<TopValueDto> topMessages) {
+        this.topMessages = topMessages;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,56 @@
+package com.loganalytics.dto;
+
+import com.loganalytics.model.LogLevel;
+import java.util.Map;
+
+// Entries per second of one source over the detector's sliding window, next to the EWMA baselines
+public class SourceRateDto {
+    
+    private String source;
+    private long windowSeconds;
+    private Map<LogLevel, Double> ratePerSecond;
+    private Map<LogLevel, Double> baselinePerSecond;
+    // False until the baseline has seen logs.anomaly.warmup-buckets buckets
+    private boolean warmedUp;
+    
+    // Getters and Setters
+    public String getSource() {
+        return source;
+    }
+    
+    public void setSource(String source) {
+        this.source = source;
+    }
+    
+    public long getWindowSeconds() {
+        return windowSeconds;
+    }
+    
+    public void setWindowSeconds(long windowSeconds) {
+        this.windowSeconds = windowSeconds;
+    }
+    
+    public Map<LogLevel, Double> getRatePerSecond() {
+        return ratePerSecond;
+    }
+    
+    public void setRatePerSecond(Map<LogLevel, Double> ratePerSecond) {
+        this.ratePerSecond = ratePerSecond;
+    }
+    
+    public Map<LogLevel, Double> getBaselinePerSecond() {
+        return baselinePerSecond;
+    }
+    
+    public void setBaselinePerSecond(Map<LogLevel, Double> baselinePerSecond) {
+        this.baselinePerSecond = baselinePerSecond;
+    }
+    
+    public boolean isWarmedUp() {
+        return warmedUp;
+    }
+    
+    public void setWarmedUp(boolean warmedUp) {
+        this.warmedUp = warmedUp;
+    }
+}
\ No newline at end of file
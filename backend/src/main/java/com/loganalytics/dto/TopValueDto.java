@@ -0,0 +1,54 @@
+package com.loganalytics.dto;
+
+// A heavy hitter from a Space-Saving summary; the true count lies between count - error and count
+public class TopValueDto {
+    
+    private String value;
+    // Message template id, for top messages
+    private Integer templateId;
+    private long count;
+    private long error;
+    
+    // Constructors
+    public TopValueDto() {}
+    
+    public TopValueDto(String value, Integer templateId, long count, long error) {
+        this.value = value;
+        this.templateId = templateId;
+        this.count = count;
+        this.error = error;
+    }
+    
+    // Getters and Setters
+    public String getValue() {
+        return value;
+    }
+    
+    public void setValue(String value) {
+        this.value = value;
+    }
+    
+    public Integer getTemplateId() {
+        return templateId;
+    }
+    
+    public void setTemplateId(Integer templateId) {
+        this.templateId = templateId;
+    }
+    
+    public long getCount() {
+        return count;
+    }
+    
+    public void setCount(long count) {
+        this.count = count;
+    }
+    
+    public long getError() {
+        return error;
+    }
+    
+    public void setError(long error) {
+        this.error = error;
+    }
+}
\ No newline at end of file
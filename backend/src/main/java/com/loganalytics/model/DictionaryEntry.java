@@ -0,0 +1,56 @@
+package com.loganalytics.model;
+
+import jakarta.persistence.*;
+
+// One distinct source, thread or logger name; log_entries references it by id
+@Entity
+@Table(name = "log_dictionary",
+       uniqueConstraints = @UniqueConstraint(name = "uk_log_dictionary_field_name",
+                                             columnNames = {"field", "name"}))
+public class DictionaryEntry {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "log_dictionary_seq")
+    @SequenceGenerator(name = "log_dictionary_seq", sequenceName = "log_dictionary_seq", allocationSize = 1)
+    private Integer id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "field", nullable = false, length = 16)
+    private DictionaryField field;
+    
+    @Column(name = "name", nullable = false)
+    private String name;
+    
+    // Constructors
+    public DictionaryEntry() {}
+    
+    public DictionaryEntry(DictionaryField field, String name) {
+        this.field = field;
+        this.name = name;
+    }
+    
+    // Getters and Setters
+    public Integer getId() {
+        return id;
+    }
+    
+    public void setId(Integer id) {
+        this.id = id;
+    }
+    
+    public DictionaryField getField() {
+        return field;
+    }
+    
+    public void setField(DictionaryField field) {
+        this.field = field;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+}
\ No newline at end of file
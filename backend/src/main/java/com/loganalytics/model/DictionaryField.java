@@ -0,0 +1,8 @@
+package com.loganalytics.model;
+
+// The low-cardinality string fields of a log entry that are stored as log_dictionary ids
+public enum DictionaryField {
+    SOURCE,
+    THREAD,
+    LOGGER
+}
\ No newline at end of file
@@ -1,23 +1,27 @@
 package com.loganalytics.model;
 
+import com.loganalytics.repository.DictionaryCodeConverter;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import java.time.LocalDateTime;
 
 @Entity
+// Table, indexes and (on PostgreSQL) partitions are defined in db/migration
 @Table(name = "log_entries")
 public class LogEntry {
     
+    // Sequence ids (pooled) so Hibernate can batch inserts; IDENTITY forces one round trip per row
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "log_entries_seq")
+    @SequenceGenerator(name = "log_entries_seq", sequenceName = "log_entries_seq", allocationSize = 100)
     private Long id;
     
     @NotNull
     @Column(name = "timestamp", nullable = false)
     private LocalDateTime timestamp;
     
-    @NotBlank
+    @NotNull
     @Enumerated(EnumType.STRING)
     @Column(name = "level", nullable = false)
     private LogLevel level;
@@ -26,15 +30,27 @@ public class LogEntry {
     @Column(name = "message", nullable = false, columnDefinition = "TEXT")
     private String message;
     
-    @Column(name = "source")
+    // source, thread and logger are stored as log_dictionary ids, see LogDictionary
+    @Convert(converter = DictionaryCodeConverter.SourceConverter.class)
+    @Column(name = "source_id")
     private String source;
     
-    @Column(name = "thread")
+    // The stored id of source, so equality filters compare integers
+    @Column(name = "source_id", insertable = false, updatable = false)
+    private Integer sourceId;
+    
+    @Convert(converter = DictionaryCodeConverter.ThreadConverter.class)
+    @Column(name = "thread_id")
     private String thread;
     
-    @Column(name = "logger")
+    @Convert(converter = DictionaryCodeConverter.LoggerConverter.class)
+    @Column(name = "logger_id")
     private String logger;
     
+    // log_templates id of the message's template, assigned by LogTemplateService before insert
+    @Column(name = "template_id")
+    private Integer templateId;
+    
     // Constructors
     public LogEntry() {}
     
@@ -94,6 +110,10 @@ public class LogEntry {
         this.source = source;
     }
     
+    public Integer getSourceId() {
+        return sourceId;
+    }
+    
     public String getThread() {
         return thread;
     }
@@ -109,4 +129,12 @@ public class LogEntry {
     public void setLogger(String logger) {
         this.logger = logger;
     }
+    
+    public Integer getTemplateId() {
+        return templateId;
+    }
+    
+    public void setTemplateId(Integer templateId) {
+        this.templateId = templateId;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,103 @@
+package com.loganalytics.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// A file tailed by LogFileTailService and the byte offset up to which it has been stored
+@Entity
+@Table(name = "log_file_checkpoints",
+       uniqueConstraints = @UniqueConstraint(name = "uk_log_file_checkpoints_path", columnNames = "path"))
+public class LogFileCheckpoint {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "log_file_checkpoints_seq")
+    @SequenceGenerator(name = "log_file_checkpoints_seq", sequenceName = "log_file_checkpoints_seq", allocationSize = 1)
+    private Long id;
+    
+    @Column(name = "path", nullable = false, length = 1024)
+    private String path;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "format", nullable = false, length = 16)
+    private LogFileFormat format;
+    
+    @Column(name = "source")
+    private String source;
+    
+    // Identity of the file the offset belongs to (inode where the file system has one)
+    @Column(name = "file_key")
+    private String fileKey;
+    
+    @Column(name = "file_offset", nullable = false)
+    private long fileOffset;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+    
+    // Constructors
+    public LogFileCheckpoint() {}
+    
+    public LogFileCheckpoint(String path, LogFileFormat format, String source) {
+        this.path = path;
+        this.format = format;
+        this.source = source;
+        this.updatedAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getPath() {
+        return path;
+    }
+    
+    public void setPath(String path) {
+        this.path = path;
+    }
+    
+    public LogFileFormat getFormat() {
+        return format;
+    }
+    
+    public void setFormat(LogFileFormat format) {
+        this.format = format;
+    }
+    
+    public String getSource() {
+        return source;
+    }
+    
+    public void setSource(String source) {
+        this.source = source;
+    }
+    
+    public String getFileKey() {
+        return fileKey;
+    }
+    
+    public void setFileKey(String fileKey) {
+        this.fileKey = fileKey;
+    }
+    
+    public long getFileOffset() {
+        return fileOffset;
+    }
+    
+    public void setFileOffset(long fileOffset) {
+        this.fileOffset = fileOffset;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
\ No newline at end of file
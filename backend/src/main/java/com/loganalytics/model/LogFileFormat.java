@@ -0,0 +1,49 @@
+package com.loganalytics.model;
+
+import java.nio.ByteBuffer;
+
+// Layouts of raw log files understood by LogFileParser
+public enum LogFileFormat {
+    // Logback/log4j pattern layouts: timestamp, then [thread], level and logger in any order, then the message.
+    // Lines not starting with a timestamp (stack traces) continue the previous entry
+    PATTERN,
+    // One JSON object per line, as written by logstash-logback-encoder or log4j's JsonTemplateLayout
+    JSON_LINES,
+    // RFC 5424 or RFC 3164 lines starting with <PRI>
+    SYSLOG,
+    // Picked from the first line of the file
+    AUTO;
+    
+    // Format of a file whose first line is the given bytes; PATTERN when nothing else fits
+    public static LogFileFormat detect(byte[] line, int length) {
+        int i = length >= 3 && line[0] == (byte) 0xEF && line[1] == (byte) 0xBB && line[2] == (byte) 0xBF ? 3 : 0;
+        while (i < length && (line[i] == ' ' || line[i] == '\t')) {
+            i++;
+        }
+        if (i < length && line[i] == '{') {
+            return JSON_LINES;
+        }
+        if (i + 1 < length && line[i] == '<' && line[i + 1] >= '0' && line[i + 1] <= '9') {
+            return SYSLOG;
+        }
+        return PATTERN;
+    }
+    
+    // Whether a record of this format starts at pos; splits files and tells entries from continuation lines
+    public boolean isRecordStart(ByteBuffer buf, int pos, int end) {
+        switch (this) {
+            case JSON_LINES:
+                return pos < end && buf.get(pos) == '{';
+            case SYSLOG:
+                return pos + 1 < end && buf.get(pos) == '<' && isDigit(buf.get(pos + 1));
+            default:
+                // A year, as in every pattern layout this understands
+                return pos + 4 < end && isDigit(buf.get(pos)) && isDigit(buf.get(pos + 1)) && isDigit(buf.get(pos + 2))
+                        && isDigit(buf.get(pos + 3)) && buf.get(pos + 4) == '-';
+        }
+    }
+    
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+}
\ No newline at end of file
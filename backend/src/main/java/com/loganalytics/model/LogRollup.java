@@ -0,0 +1,95 @@
+package com.loganalytics.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Pre-aggregated entry count for one time bucket, level and source
+@Entity
+@Table(name = "log_rollups",
+       uniqueConstraints = @UniqueConstraint(name = "uk_log_rollups_bucket",
+                                             columnNames = {"granularity", "bucket_start", "level", "source"}))
+public class LogRollup {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "log_rollups_seq")
+    @SequenceGenerator(name = "log_rollups_seq", sequenceName = "log_rollups_seq", allocationSize = 50)
+    private Long id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", nullable = false, length = 10)
+    private RollupGranularity granularity;
+    
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "level", nullable = false)
+    private LogLevel level;
+    
+    // Entries without a source are counted under the empty string
+    @Column(name = "source", nullable = false)
+    private String source;
+    
+    @Column(name = "entry_count", nullable = false)
+    private long count;
+    
+    // Constructors
+    public LogRollup() {}
+    
+    public LogRollup(RollupGranularity granularity, LocalDateTime bucketStart, LogLevel level, String source, long count) {
+        this.granularity = granularity;
+        this.bucketStart = bucketStart;
+        this.level = level;
+        this.source = source;
+        this.count = count;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public RollupGranularity getGranularity() {
+        return granularity;
+    }
+    
+    public void setGranularity(RollupGranularity granularity) {
+        this.granularity = granularity;
+    }
+    
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+    
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+    
+    public LogLevel getLevel() {
+        return level;
+    }
+    
+    public void setLevel(LogLevel level) {
+        this.level = level;
+    }
+    
+    public String getSource() {
+        return source;
+    }
+    
+    public void setSource(String source) {
+        this.source = source;
+    }
+    
+    public long getCount() {
+        return count;
+    }
+    
+    public void setCount(long count) {
+        this.count = count;
+    }
+}
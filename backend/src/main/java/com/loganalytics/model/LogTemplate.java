@@ -0,0 +1,67 @@
+package com.loganalytics.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// A message template mined from incoming entries; log_entries references it by id
+@Entity
+@Table(name = "log_templates")
+public class LogTemplate {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "log_templates_seq")
+    @SequenceGenerator(name = "log_templates_seq", sequenceName = "log_templates_seq", allocationSize = 1)
+    private Integer id;
+    
+    // Tokens separated by single spaces, <*> for a token that varies
+    @Column(name = "template", nullable = false, columnDefinition = "TEXT")
+    private String template;
+    
+    @Column(name = "token_count", nullable = false)
+    private int tokenCount;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    // Constructors
+    public LogTemplate() {}
+    
+    public LogTemplate(String template, int tokenCount, LocalDateTime createdAt) {
+        this.template = template;
+        this.tokenCount = tokenCount;
+        this.createdAt = createdAt;
+    }
+    
+    // Getters and Setters
+    public Integer getId() {
+        return id;
+    }
+    
+    public void setId(Integer id) {
+        this.id = id;
+    }
+    
+    public String getTemplate() {
+        return template;
+    }
+    
+    public void setTemplate(String template) {
+        this.template = template;
+    }
+    
+    public int getTokenCount() {
+        return tokenCount;
+    }
+    
+    public void setTokenCount(int tokenCount) {
+        this.tokenCount = tokenCount;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,81 @@
+package com.loganalytics.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Entry count of one template in one time bucket
+@Entity
+@Table(name = "log_template_counts",
+       uniqueConstraints = @UniqueConstraint(name = "uk_log_template_counts_bucket",
+                                             columnNames = {"granularity", "bucket_start", "template_id"}))
+public class LogTemplateCount {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "log_template_counts_seq")
+    @SequenceGenerator(name = "log_template_counts_seq", sequenceName = "log_template_counts_seq", allocationSize = 50)
+    private Long id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", nullable = false, length = 10)
+    private RollupGranularity granularity;
+    
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+    
+    @Column(name = "template_id", nullable = false)
+    private int templateId;
+    
+    @Column(name = "entry_count", nullable = false)
+    private long count;
+    
+    // Constructors
+    public LogTemplateCount() {}
+    
+    public LogTemplateCount(RollupGranularity granularity, LocalDateTime bucketStart, int templateId, long count) {
+        this.granularity = granularity;
+        this.bucketStart = bucketStart;
+        this.templateId = templateId;
+        this.count = count;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public RollupGranularity getGranularity() {
+        return granularity;
+    }
+    
+    public void setGranularity(RollupGranularity granularity) {
+        this.granularity = granularity;
+    }
+    
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+    
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+    
+    public int getTemplateId() {
+        return templateId;
+    }
+    
+    public void setTemplateId(int templateId) {
+        this.templateId = templateId;
+    }
+    
+    public long getCount() {
+        return count;
+    }
+    
+    public void setCount(long count) {
+        this.count = count;
+    }
+}
\ No newline at end of file
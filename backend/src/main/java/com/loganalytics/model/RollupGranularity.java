@@ -0,0 +1,6 @@
+package com.loganalytics.model;
+
+public enum RollupGranularity {
+    MINUTE,
+    HOUR
+}
@@ -0,0 +1,67 @@
+package com.loganalytics.repository;
+
+import com.loganalytics.model.DictionaryField;
+import com.loganalytics.service.LogDictionary;
+import jakarta.persistence.AttributeConverter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Stores a source, thread or logger name as its log_dictionary id. Only looks names up: they are
+ * registered with {@link LogDictionary#registerAll} before entries are stored. Hibernate creates the
+ * converters through Spring while the entity manager factory is still starting, before the
+ * dictionary (which needs it) can exist, so the dictionary is resolved on first use.
+ */
+public abstract class DictionaryCodeConverter implements AttributeConverter<String, Integer> {
+    
+    private final DictionaryField field;
+    
+    @Autowired
+    private ObjectProvider<LogDictionary> dictionaryProvider;
+    
+    private volatile LogDictionary dictionary;
+    
+    protected DictionaryCodeConverter(DictionaryField field) {
+        this.field = field;
+    }
+    
+    @Override
+    public Integer convertToDatabaseColumn(String value) {
+        return value != null ? dictionary().require(field, value) : null;
+    }
+    
+    @Override
+    public String convertToEntityAttribute(Integer code) {
+        return code != null ? dictionary().decode(field, code) : null;
+    }
+    
+    private LogDictionary dictionary() {
+        LogDictionary resolved = dictionary;
+        if (resolved == null) {
+            resolved = dictionaryProvider.getObject();
+            dictionary = resolved;
+        }
+        return resolved;
+    }
+    
+    public static class SourceConverter extends DictionaryCodeConverter {
+        
+        public SourceConverter() {
+            super(DictionaryField.SOURCE);
+        }
+    }
+    
+    public static class ThreadConverter extends DictionaryCodeConverter {
+        
+        public ThreadConverter() {
+            super(DictionaryField.THREAD);
+        }
+    }
+    
+    public static class LoggerConverter extends DictionaryCodeConverter {
+        
+        public LoggerConverter() {
+            super(DictionaryField.LOGGER);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.loganalytics.repository;
+
+import com.loganalytics.model.DictionaryEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DictionaryEntryRepository extends JpaRepository<DictionaryEntry, Integer> {
+}
\ No newline at end of file
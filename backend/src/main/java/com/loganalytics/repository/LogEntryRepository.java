@@ -1,36 +1,61 @@
 package com.loganalytics.repository;
 
+import com.loganalytics.dto.LogEntryDto;
 import com.loganalytics.model.LogEntry;
 import com.loganalytics.model.LogLevel;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface LogEntryRepository extends JpaRepository<LogEntry, Long> {
+public interface LogEntryRepository extends JpaRepository<LogEntry, Long>, LogEntryRepositoryCustom {
     
-    // Find logs by level
-    List<LogEntry> findByLevelOrderByTimestampDesc(LogLevel level);
+    // Read paths select straight into DTOs: no entities, no dirty-checking snapshots, nothing
+    // held by the persistence context, and a read-only transaction each
+    String SELECT_DTO = "SELECT new com.loganalytics.dto.LogEntryDto(" +
+                        "l.id, l.timestamp, l.level, l.message, l.source, l.thread, l.logger, l.templateId) ";
+    
+    String FILTER = "FROM LogEntry l WHERE " +
+                    "(:level IS NULL OR l.level = :level) AND " +
+                    "(:sourceId IS NULL OR l.sourceId = :sourceId) AND " +
+                    "(:startTime IS NULL OR l.timestamp >= :startTime) AND " +
+                    "(:endTime IS NULL OR l.timestamp <= :endTime) AND " +
+                    "(:query IS NULL OR LOWER(l.message) LIKE LOWER(CONCAT('%', :query, '%'))) ";
     
     // Find logs by date range
     List<LogEntry> findByTimestampBetweenOrderByTimestampDesc(LocalDateTime start, LocalDateTime end);
     
-    // Search logs by message content
-    @Query("SELECT l FROM LogEntry l WHERE LOWER(l.message) LIKE LOWER(CONCAT('%', :query, '%')) ORDER BY l.timestamp DESC")
-    List<LogEntry> searchByMessage(@Param("query") String query);
-    
     // Get recent logs with pagination
-    Page<LogEntry> findAllByOrderByTimestampDesc(Pageable pageable);
+    @Transactional(readOnly = true)
+    @Query(value = SELECT_DTO + "FROM LogEntry l ORDER BY l.timestamp DESC, l.id DESC",
+           countQuery = "SELECT COUNT(l) FROM LogEntry l")
+    Page<LogEntryDto> findNewestPage(Pageable pageable);
     
     // Count logs by level
     long countByLevel(LogLevel level);
     
+    // Delete up to limit entries of one level older than before; the outer time bound lets partitions be pruned
+    @Modifying
+    @Query(value = "DELETE FROM log_entries WHERE timestamp < :before AND id IN (" +
+                   "SELECT id FROM log_entries WHERE level = :level AND timestamp < :before LIMIT :limit)",
+           nativeQuery = true)
+    int deleteChunkOlderThan(@Param("level") String level,
+                             @Param("before") LocalDateTime before,
+                             @Param("limit") int limit);
+    
     // Count logs in date range
     long countByTimestampBetween(LocalDateTime start, LocalDateTime end);
     
@@ -43,26 +68,55 @@ public interface LogEntryRepository extends JpaRepository<LogEntry, Long> {
            "ORDER BY hour")
     List<Object[]> getTimeSeriesData(@Param("startTime") LocalDateTime startTime);
     
-    // Get latest logs for streaming
-    List<LogEntry> findTop100ByOrderByTimestampDesc();
+    // Count logs per hour, level and source id, used to backfill the rollup table
+    @Query("SELECT FUNCTION('DATE_TRUNC', 'hour', l.timestamp) as bucket, " +
+           "l.level, l.sourceId, COUNT(l) " +
+           "FROM LogEntry l " +
+           "WHERE l.timestamp >= :startTime " +
+           "GROUP BY FUNCTION('DATE_TRUNC', 'hour', l.timestamp), l.level, l.sourceId")
+    List<Object[]> countByHourLevelAndSourceSince(@Param("startTime") LocalDateTime startTime);
+    
+    // Count logs per minute, level and source id, used to backfill the rollup table
+    @Query("SELECT FUNCTION('DATE_TRUNC', 'minute', l.timestamp) as bucket, " +
+           "l.level, l.sourceId, COUNT(l) " +
+           "FROM LogEntry l " +
+           "WHERE l.timestamp >= :startTime " +
+           "GROUP BY FUNCTION('DATE_TRUNC', 'minute', l.timestamp), l.level, l.sourceId")
+    List<Object[]> countByMinuteLevelAndSourceSince(@Param("startTime") LocalDateTime startTime);
+    
+    // Read all logs after a given id in id order, used to (re)build the search index
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT l FROM LogEntry l WHERE l.id > :afterId ORDER BY l.id")
+    Stream<LogEntry> streamByIdGreaterThan(@Param("afterId") long afterId);
+    
+    // Get latest logs; the page size is the limit
+    @Transactional(readOnly = true)
+    @Query(SELECT_DTO + "FROM LogEntry l ORDER BY l.timestamp DESC, l.id DESC")
+    List<LogEntryDto> findNewest(Pageable limit);
+    
+    // Entries by id in no particular order, used to load search index hits
+    @Transactional(readOnly = true)
+    @Query(SELECT_DTO + "FROM LogEntry l WHERE l.id IN :ids")
+    List<LogEntryDto> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // Newest entries of one message template, read along idx_log_entries_template_timestamp_id
+    @Transactional(readOnly = true)
+    @Query(SELECT_DTO + "FROM LogEntry l WHERE l.templateId = :templateId ORDER BY l.timestamp DESC, l.id DESC")
+    List<LogEntryDto> findByTemplate(@Param("templateId") int templateId, Pageable pageable);
     
     // Find logs by multiple levels
     List<LogEntry> findByLevelInOrderByTimestampDesc(List<LogLevel> levels);
     
-    // Get logs by source
-    List<LogEntry> findBySourceOrderByTimestampDesc(String source);
-    
-    // Advanced search with multiple criteria
-    @Query("SELECT l FROM LogEntry l WHERE " +
-           "(:level IS NULL OR l.level = :level) AND " +
-           "(:source IS NULL OR l.source = :source) AND " +
-           "(:startTime IS NULL OR l.timestamp >= :startTime) AND " +
-           "(:endTime IS NULL OR l.timestamp <= :endTime) AND " +
-           "(:query IS NULL OR LOWER(l.message) LIKE LOWER(CONCAT('%', :query, '%'))) " +
-           "ORDER BY l.timestamp DESC")
-    Page<LogEntry> findWithFilters(
+    // Advanced search with multiple criteria; sourceId is the source's log_dictionary id
+    @Transactional(readOnly = true)
+    @Query(value = SELECT_DTO + FILTER + "ORDER BY l.timestamp DESC, l.id DESC",
+           countQuery = "SELECT COUNT(l) " + FILTER)
+    Page<LogEntryDto> findWithFilters(
         @Param("level") LogLevel level,
-        @Param("source") String source,
+        @Param("sourceId") Integer sourceId,
         @Param("startTime") LocalDateTime startTime,
         @Param("endTime") LocalDateTime endTime,
         @Param("query") String query,
@@ -0,0 +1,32 @@
+package com.loganalytics.repository;
+
+import com.loganalytics.dto.LogEntryDto;
+import com.loganalytics.model.LogEntry;
+import com.loganalytics.model.LogLevel;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface LogEntryRepositoryCustom {
+    
+    // Insert new entries in one transaction using JDBC batching
+    List<LogEntry> insertAll(List<LogEntry> entries);
+    
+    // Keyset page in (timestamp, id) order starting after the cursor; null filters are ignored
+    List<LogEntry> findKeysetPage(LogLevel level, String source,
+                                  LocalDateTime startTime, LocalDateTime endTime, String query,
+                                  LocalDateTime cursorTime, Long cursorId,
+                                  boolean ascending, int limit);
+    
+    // findKeysetPage selected straight into DTOs
+    List<LogEntryDto> findKeysetPageAsDtos(LogLevel level, String source,
+                                           LocalDateTime startTime, LocalDateTime endTime, String query,
+                                           LocalDateTime cursorTime, Long cursorId,
+                                           boolean ascending, int limit);
+    
+    // Newest first as DTOs, at most limit rows, fetched in chunks; must be consumed inside a transaction
+    Stream<LogEntryDto> streamFiltered(LogLevel level, String source,
+                                       LocalDateTime startTime, LocalDateTime endTime, String query,
+                                       int limit);
+}
\ No newline at end of file
@@ -0,0 +1,168 @@
+package com.loganalytics.repository;
+
+import com.loganalytics.dto.LogEntryDto;
+import com.loganalytics.model.DictionaryField;
+import com.loganalytics.model.LogEntry;
+import com.loganalytics.model.LogLevel;
+import com.loganalytics.service.LogDictionary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class LogEntryRepositoryCustomImpl implements LogEntryRepositoryCustom {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Autowired
+    private LogDictionary dictionary;
+    
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:500}")
+    private int batchSize;
+    
+    @Value("${logs.stream.fetch-size:1000}")
+    private int streamFetchSize;
+    
+    @Override
+    @Transactional
+    public List<LogEntry> insertAll(List<LogEntry> entries) {
+        for (int i = 0; i < entries.size(); i++) {
+            entityManager.persist(entries.get(i));
+            
+            // Flush each full JDBC batch and detach it so the persistence context stays small
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return entries;
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public List<LogEntry> findKeysetPage(LogLevel level, String source,
+                                         LocalDateTime startTime, LocalDateTime endTime, String query,
+                                         LocalDateTime cursorTime, Long cursorId,
+                                         boolean ascending, int limit) {
+        return keysetPage(LogEntry.class, level, source, startTime, endTime, query, cursorTime, cursorId, ascending, limit);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public List<LogEntryDto> findKeysetPageAsDtos(LogLevel level, String source,
+                                                  LocalDateTime startTime, LocalDateTime endTime, String query,
+                                                  LocalDateTime cursorTime, Long cursorId,
+                                                  boolean ascending, int limit) {
+        return keysetPage(LogEntryDto.class, level, source, startTime, endTime, query, cursorTime, cursorId, ascending, limit);
+    }
+    
+    @Override
+    public Stream<LogEntryDto> streamFiltered(LogLevel level, String source,
+                                              LocalDateTime startTime, LocalDateTime endTime, String query,
+                                              int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<LogEntryDto> criteria = cb.createQuery(LogEntryDto.class);
+        Root<LogEntry> root = criteria.from(LogEntry.class);
+        
+        criteria.select(selection(cb, root, LogEntryDto.class));
+        criteria.where(filterPredicates(cb, root, level, sourceId(source), startTime, endTime, query).toArray(new Predicate[0]));
+        criteria.orderBy(cb.desc(root.get("timestamp")), cb.desc(root.get("id")));
+        
+        // DTOs are not managed, so the persistence context does not grow with the result
+        return entityManager.createQuery(criteria)
+                .setMaxResults(limit)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, streamFetchSize)
+                .getResultStream();
+    }
+    
+    private <T> List<T> keysetPage(Class<T> type, LogLevel level, String source,
+                                   LocalDateTime startTime, LocalDateTime endTime, String query,
+                                   LocalDateTime cursorTime, Long cursorId,
+                                   boolean ascending, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> criteria = cb.createQuery(type);
+        Root<LogEntry> root = criteria.from(LogEntry.class);
+        Path<LocalDateTime> timestamp = root.get("timestamp");
+        Path<Long> id = root.get("id");
+        
+        List<Predicate> predicates = filterPredicates(cb, root, level, sourceId(source), startTime, endTime, query);
+        if (cursorTime != null) {
+            // (timestamp, id) > / < (cursorTime, cursorId), plus a plain bound on timestamp for the index
+            if (ascending) {
+                predicates.add(cb.greaterThanOrEqualTo(timestamp, cursorTime));
+                predicates.add(cb.or(cb.greaterThan(timestamp, cursorTime),
+                        cb.and(cb.equal(timestamp, cursorTime), cb.greaterThan(id, cursorId))));
+            } else {
+                predicates.add(cb.lessThanOrEqualTo(timestamp, cursorTime));
+                predicates.add(cb.or(cb.lessThan(timestamp, cursorTime),
+                        cb.and(cb.equal(timestamp, cursorTime), cb.lessThan(id, cursorId))));
+            }
+        }
+        
+        criteria.select(selection(cb, root, type));
+        criteria.where(predicates.toArray(new Predicate[0]));
+        criteria.orderBy(ascending
+                ? List.of(cb.asc(timestamp), cb.asc(id))
+                : List.of(cb.desc(timestamp), cb.desc(id)));
+        
+        return entityManager.createQuery(criteria)
+                .setMaxResults(limit)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultList();
+    }
+    
+    // The entity itself, or a DTO constructed from its columns without materializing the entity
+    @SuppressWarnings("unchecked")
+    private static <T> Selection<? extends T> selection(CriteriaBuilder cb, Root<LogEntry> root, Class<T> type) {
+        if (type == LogEntry.class) {
+            return (Selection<? extends T>) root;
+        }
+        return cb.construct(type, root.get("id"), root.get("timestamp"), root.get("level"), root.get("message"),
+                root.get("source"), root.get("thread"), root.get("logger"), root.get("templateId"));
+    }
+    
+    // Sources are compared by dictionary id; an unknown source is -1, which matches nothing
+    private Integer sourceId(String source) {
+        return source != null ? dictionary.find(DictionaryField.SOURCE, source) : null;
+    }
+    
+    // Only add the predicates that are used so the planner sees a plain index range scan
+    private static List<Predicate> filterPredicates(CriteriaBuilder cb, Root<LogEntry> root,
+                                                    LogLevel level, Integer sourceId,
+                                                    LocalDateTime startTime, LocalDateTime endTime,
+                                                    String query) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (level != null) {
+            predicates.add(cb.equal(root.get("level"), level));
+        }
+        if (sourceId != null) {
+            predicates.add(cb.equal(root.get("sourceId"), sourceId));
+        }
+        if (startTime != null) {
+            predicates.add(cb.greaterThanOrEqualTo(root.get("timestamp"), startTime));
+        }
+        if (endTime != null) {
+            predicates.add(cb.lessThanOrEqualTo(root.get("timestamp"), endTime));
+        }
+        if (query != null) {
+            predicates.add(cb.like(cb.lower(root.get("message")), "%" + query.toLowerCase() + "%"));
+        }
+        return predicates;
+    }
+}
\ No newline at end of file
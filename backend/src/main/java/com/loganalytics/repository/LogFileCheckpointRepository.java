@@ -0,0 +1,26 @@
+package com.loganalytics.repository;
+
+import com.loganalytics.model.LogFileCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface LogFileCheckpointRepository extends JpaRepository<LogFileCheckpoint, Long> {
+    
+    Optional<LogFileCheckpoint> findByPath(String path);
+    
+    // Run in the transaction that stores the entries read up to fileOffset
+    @Modifying
+    @Query("UPDATE LogFileCheckpoint c SET c.fileKey = :fileKey, c.fileOffset = :fileOffset, c.updatedAt = :updatedAt " +
+           "WHERE c.id = :id")
+    int updateOffset(@Param("id") Long id,
+                     @Param("fileKey") String fileKey,
+                     @Param("fileOffset") long fileOffset,
+                     @Param("updatedAt") LocalDateTime updatedAt);
+}
\ No newline at end of file
@@ -0,0 +1,64 @@
+package com.loganalytics.repository;
+
+import com.loganalytics.model.LogLevel;
+import com.loganalytics.model.LogRollup;
+import com.loganalytics.model.RollupGranularity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface LogRollupRepository extends JpaRepository<LogRollup, Long> {
+    
+    // Add to an existing bucket; returns 0 when the bucket row does not exist yet.
+    // Buckets saved earlier in the same flush are never the target, so the auto-flush that
+    // would dirty-check every one of them before each update is skipped
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query("UPDATE LogRollup r SET r.count = r.count + :delta " +
+           "WHERE r.granularity = :granularity AND r.bucketStart = :bucketStart " +
+           "AND r.level = :level AND r.source = :source")
+    int increment(@Param("granularity") RollupGranularity granularity,
+                  @Param("bucketStart") LocalDateTime bucketStart,
+                  @Param("level") LogLevel level,
+                  @Param("source") String source,
+                  @Param("delta") long delta);
+    
+    // Bucket counts per level across all sources
+    @Query("SELECT r.bucketStart, r.level, SUM(r.count) FROM LogRollup r " +
+           "WHERE r.granularity = :granularity AND r.bucketStart >= :start AND r.bucketStart < :end " +
+           "GROUP BY r.bucketStart, r.level")
+    List<Object[]> sumByBucketAndLevel(@Param("granularity") RollupGranularity granularity,
+                                       @Param("start") LocalDateTime start,
+                                       @Param("end") LocalDateTime end);
+    
+    // Bucket counts per level for one source
+    @Query("SELECT r.bucketStart, r.level, SUM(r.count) FROM LogRollup r " +
+           "WHERE r.granularity = :granularity AND r.bucketStart >= :start AND r.bucketStart < :end " +
+           "AND r.source = :source " +
+           "GROUP BY r.bucketStart, r.level")
+    List<Object[]> sumByBucketAndLevelForSource(@Param("granularity") RollupGranularity granularity,
+                                                @Param("start") LocalDateTime start,
+                                                @Param("end") LocalDateTime end,
+                                                @Param("source") String source);
+    
+    // Counts per level over all buckets starting at or after start
+    @Query("SELECT r.level, SUM(r.count) FROM LogRollup r " +
+           "WHERE r.granularity = :granularity AND r.bucketStart >= :start " +
+           "GROUP BY r.level")
+    List<Object[]> sumByLevelSince(@Param("granularity") RollupGranularity granularity,
+                                   @Param("start") LocalDateTime start);
+    
+    @Modifying
+    @Query("DELETE FROM LogRollup r WHERE r.granularity = :granularity AND r.bucketStart < :before")
+    int deleteOlderThan(@Param("granularity") RollupGranularity granularity,
+                        @Param("before") LocalDateTime before);
+}
\ No newline at end of file
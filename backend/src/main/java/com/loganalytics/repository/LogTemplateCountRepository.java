@@ -0,0 +1,52 @@
+package com.loganalytics.repository;
+
+import com.loganalytics.model.LogTemplateCount;
+import com.loganalytics.model.RollupGranularity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface LogTemplateCountRepository extends JpaRepository<LogTemplateCount, Long> {
+    
+    // Add to an existing bucket; returns 0 when the bucket row does not exist yet (see LogRollupRepository)
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query("UPDATE LogTemplateCount c SET c.count = c.count + :delta " +
+           "WHERE c.granularity = :granularity AND c.bucketStart = :bucketStart AND c.templateId = :templateId")
+    int increment(@Param("granularity") RollupGranularity granularity,
+                  @Param("bucketStart") LocalDateTime bucketStart,
+                  @Param("templateId") int templateId,
+                  @Param("delta") long delta);
+    
+    // Entries per template in the window, as (template id, count) rows
+    @Query("SELECT c.templateId, SUM(c.count) FROM LogTemplateCount c " +
+           "WHERE c.granularity = :granularity AND c.bucketStart >= :start AND c.bucketStart < :end " +
+           "GROUP BY c.templateId")
+    List<Object[]> sumByTemplate(@Param("granularity") RollupGranularity granularity,
+                                 @Param("start") LocalDateTime start,
+                                 @Param("end") LocalDateTime end);
+    
+    // Bucket counts of the given templates, as (template id, bucket start, count) rows
+    @Query("SELECT c.templateId, c.bucketStart, c.count FROM LogTemplateCount c " +
+           "WHERE c.granularity = :granularity AND c.bucketStart >= :start AND c.bucketStart < :end " +
+           "AND c.templateId IN :templateIds")
+    List<Object[]> findBuckets(@Param("granularity") RollupGranularity granularity,
+                               @Param("start") LocalDateTime start,
+                               @Param("end") LocalDateTime end,
+                               @Param("templateIds") Collection<Integer> templateIds);
+    
+    @Modifying
+    @Query("DELETE FROM LogTemplateCount c WHERE c.granularity = :granularity AND c.bucketStart < :before")
+    int deleteOlderThan(@Param("granularity") RollupGranularity granularity,
+                        @Param("before") LocalDateTime before);
+}
\ No newline at end of file
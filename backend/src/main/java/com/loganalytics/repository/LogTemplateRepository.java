@@ -0,0 +1,24 @@
+package com.loganalytics.repository;
+
+import com.loganalytics.model.LogTemplate;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface LogTemplateRepository extends JpaRepository<LogTemplate, Integer> {
+    
+    // Newest templates first; the miner is seeded with as many as it keeps
+    @Query("SELECT t FROM LogTemplate t ORDER BY t.id DESC")
+    List<LogTemplate> findNewest(Pageable limit);
+    
+    // A template only ever gains wildcards, so its text is the only column that changes
+    @Modifying
+    @Query("UPDATE LogTemplate t SET t.template = :template WHERE t.id = :id")
+    int updateTemplate(@Param("id") int id, @Param("template") String template);
+}
\ No newline at end of file
@@ -0,0 +1,254 @@
+package com.loganalytics.service;
+
+import com.loganalytics.dto.LogEntryDto;
+import com.loganalytics.model.LogLevel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Write-behind ingest: requests only enqueue, a dedicated writer thread persists in batches
+@Service
+public class AsyncIngestService implements SmartLifecycle {
+    
+    private static final Logger log = LoggerFactory.getLogger(AsyncIngestService.class);
+    
+    @Autowired
+    private LogService logService;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${logs.ingest.async.capacity:100000}")
+    private int capacity;
+    
+    @Value("${logs.ingest.async.batch-size:1000}")
+    private int batchSize;
+    
+    @Value("${logs.ingest.async.flush-interval:200ms}")
+    private Duration flushInterval;
+    
+    @Value("${logs.ingest.async.backpressure:REJECT}")
+    private IngestBuffer.BackpressurePolicy backpressure;
+    
+    @Value("${logs.ingest.async.block-timeout:1s}")
+    private Duration blockTimeout;
+    
+    @Value("${logs.ingest.async.max-retry-backoff:5s}")
+    private Duration maxRetryBackoff;
+    
+    @Value("${logs.ingest.async.drain-timeout:30s}")
+    private Duration drainTimeout;
+    
+    private IngestBuffer buffer;
+    private Thread writer;
+    private volatile boolean running;
+    // Set by stop(); a failing flush gives up once it has passed
+    private volatile long drainDeadline;
+    private volatile boolean draining;
+    
+    private Timer flushTimer;
+    private DistributionSummary flushSize;
+    private Counter acceptedCounter;
+    private Counter rejectedCounter;
+    private Counter failedCounter;
+    private Counter[] droppedCounters;
+    
+    public enum SubmitStatus {
+        ACCEPTED,
+        REJECTED
+    }
+    
+    public record SubmitResult(SubmitStatus status, int accepted, int dropped) {}
+    
+    public SubmitResult submit(List<LogEntryDto> logDtos) {
+        // Stamp entries at acceptance time, not when the writer gets to them
+        LocalDateTime now = LocalDateTime.now();
+        for (LogEntryDto logDto : logDtos) {
+            if (logDto.getTimestamp() == null) {
+                logDto.setTimestamp(now);
+            }
+        }
+        
+        int dropped;
+        try {
+            dropped = buffer.offer(logDtos, backpressure, blockTimeout.toNanos());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            dropped = -1;
+        }
+        
+        if (dropped < 0) {
+            rejectedCounter.increment(logDtos.size());
+            return new SubmitResult(SubmitStatus.REJECTED, 0, 0);
+        }
+        
+        if (dropped > 0) {
+            int[] droppedByLevel = buffer.drainDroppedCounts();
+            for (int i = 0; i < droppedByLevel.length; i++) {
+                droppedCounters[i].increment(droppedByLevel[i]);
+            }
+        }
+        acceptedCounter.increment(logDtos.size());
+        return new SubmitResult(SubmitStatus.ACCEPTED, logDtos.size(), dropped);
+    }
+    
+    public int getQueueDepth() {
+        return buffer.size();
+    }
+    
+    @Override
+    public void start() {
+        buffer = new IngestBuffer(capacity);
+        registerMetrics();
+        
+        running = true;
+        writer = new Thread(this::runWriter, "log-ingest-writer");
+        writer.start();
+        log.info("Async ingest started (capacity={}, batchSize={}, flushInterval={}, backpressure={})",
+                capacity, batchSize, flushInterval, backpressure);
+    }
+    
+    @Override
+    public void stop() {
+        // Refuse new entries, then let the writer drain everything already acknowledged
+        drainDeadline = System.nanoTime() + drainTimeout.toNanos();
+        draining = true;
+        buffer.close();
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        running = false;
+        log.info("Async ingest stopped, {} entries left unflushed", buffer.size());
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    // Stop after the web server so no request can enqueue once the final drain has started
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+    
+    private void runWriter() {
+        List<LogEntryDto> batch = new ArrayList<>(batchSize);
+        long maxWaitNanos = flushInterval.toNanos();
+        while (true) {
+            try {
+                buffer.awaitBatch(batch, batchSize, maxWaitNanos);
+            } catch (InterruptedException e) {
+                // Keep draining; shutdown is signalled through buffer.close()
+                continue;
+            }
+            
+            if (batch.isEmpty()) {
+                if (buffer.isClosed()) {
+                    return;
+                }
+                continue;
+            }
+            
+            if (!flush(batch)) {
+                discardRemaining(batch.size());
+                return;
+            }
+            batch.clear();
+        }
+    }
+    
+    // The drain deadline has passed with the database still failing; count what is left as lost
+    private void discardRemaining(int unflushed) {
+        List<LogEntryDto> rest = new ArrayList<>(batchSize);
+        int lost = unflushed;
+        while (true) {
+            try {
+                if (buffer.awaitBatch(rest, batchSize, 0) == 0) {
+                    break;
+                }
+            } catch (InterruptedException e) {
+                continue;
+            }
+            lost += rest.size();
+            rest.clear();
+        }
+        failedCounter.increment(lost);
+        log.error("Drain deadline of {} passed, {} acknowledged entries were not stored", drainTimeout, lost);
+    }
+    
+    // Only failures up to the commit reach the retry; LogService logs those after it, so a retry never stores a batch twice.
+    // Retries until the batch is stored: meanwhile the buffer fills and the backpressure policy applies to new requests.
+    // Returns false only when draining on shutdown and the drain deadline has passed.
+    private boolean flush(List<LogEntryDto> batch) {
+        for (int attempt = 1; ; attempt++) {
+            long start = System.nanoTime();
+            try {
+                logService.createLogs(batch);
+                flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                flushSize.record(batch.size());
+                return true;
+            } catch (RuntimeException e) {
+                log.warn("Flush of {} entries failed (attempt {}), retrying: {}", batch.size(), attempt, e.getMessage());
+            }
+            if (draining && System.nanoTime() - drainDeadline >= 0) {
+                return false;
+            }
+            sleepBeforeRetry(attempt);
+        }
+    }
+    
+    private void sleepBeforeRetry(int attempt) {
+        long backoff = Math.min(100L << Math.min(attempt, 20), maxRetryBackoff.toMillis());
+        if (draining) {
+            backoff = Math.min(backoff, Math.max(0, TimeUnit.NANOSECONDS.toMillis(drainDeadline - System.nanoTime())));
+        }
+        try {
+            Thread.sleep(backoff);
+        } catch (InterruptedException e) {
+            // Shutdown is signalled through the drain deadline, keep retrying until then
+        }
+    }
+    
+    private void registerMetrics() {
+        Gauge.builder("logs.ingest.queue.depth", buffer, IngestBuffer::size)
+                .description("Entries waiting in the async ingest buffer")
+                .register(meterRegistry);
+        Gauge.builder("logs.ingest.queue.capacity", buffer, IngestBuffer::capacity)
+                .register(meterRegistry);
+        flushTimer = Timer.builder("logs.ingest.flush")
+                .description("Time to persist one batch from the async ingest buffer")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        flushSize = DistributionSummary.builder("logs.ingest.flush.size")
+                .description("Entries written per flush")
+                .register(meterRegistry);
+        acceptedCounter = Counter.builder("logs.ingest.accepted").register(meterRegistry);
+        rejectedCounter = Counter.builder("logs.ingest.rejected").register(meterRegistry);
+        failedCounter = Counter.builder("logs.ingest.failed").register(meterRegistry);
+        
+        LogLevel[] levels = LogLevel.values();
+        droppedCounters = new Counter[levels.length];
+        for (LogLevel level : levels) {
+            droppedCounters[level.ordinal()] = Counter.builder("logs.ingest.dropped")
+                    .tag("level", level.name())
+                    .register(meterRegistry);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,86 @@
+package com.loganalytics.service;
+
+/**
+ * HyperLogLog distinct counter (Flajolet et al. 2007) with 2^precision one-byte registers and
+ * the linear counting correction for small cardinalities. The standard error is
+ * 1.04 / sqrt(2^precision): 2.3% with the default precision of 11 (2KB). Sketches of the same
+ * precision merge losslessly by taking the larger register. Not thread safe.
+ */
+public final class HyperLogLog {
+    
+    private final int precision;
+    private final byte[] registers;
+    
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("precision must be between 4 and 18");
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+    
+    // hash must be well mixed over all 64 bits, see hash(String)
+    public void add(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        // Position of the first 1 bit after the index bits; the sentinel bit caps it
+        byte rank = (byte) (Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+    
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge sketches of precision " + precision + " and " + other.precision);
+        }
+        byte[] theirs = other.registers;
+        for (int i = 0; i < registers.length; i++) {
+            if (theirs[i] > registers[i]) {
+                registers[i] = theirs[i];
+            }
+        }
+    }
+    
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += Double.longBitsToDouble((1023L - register) << 52);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double alpha = m == 16 ? 0.673 : m == 32 ? 0.697 : m == 64 ? 0.709 : 0.7213 / (1 + 1.079 / m);
+        double estimate = alpha * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+    
+    public double standardError() {
+        return 1.04 / Math.sqrt(registers.length);
+    }
+    
+    public HyperLogLog copy() {
+        HyperLogLog copy = new HyperLogLog(precision);
+        System.arraycopy(registers, 0, copy.registers, 0, registers.length);
+        return copy;
+    }
+    
+    /**
+     * 64-bit hash of a string from its cached String.hashCode, spread with the MurmurHash3
+     * finalizer. Values with equal hash codes count once, which only matters far beyond the
+     * cardinalities of sources, threads and loggers.
+     */
+    public static long hash(String value) {
+        long h = value.hashCode() * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,201 @@
+package com.loganalytics.service;
+
+import com.loganalytics.dto.LogEntryDto;
+import com.loganalytics.model.LogLevel;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded buffer between the HTTP ingest threads and the write-behind flusher.
+ * Entries are kept in one ring per level so the lowest levels can be evicted first when full.
+ */
+public class IngestBuffer {
+    
+    public enum BackpressurePolicy {
+        BLOCK,
+        REJECT,
+        DROP_LOWEST
+    }
+    
+    private static final LogLevel[] LEVELS = LogLevel.values();
+    
+    private final int capacity;
+    private final ArrayDeque<LogEntryDto>[] queues;
+    private final int[] droppedByLevel = new int[LEVELS.length];
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition batchReady = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    
+    private int size;
+    private int batchThreshold = 1;
+    private boolean closed;
+    
+    @SuppressWarnings("unchecked")
+    public IngestBuffer(int capacity) {
+        this.capacity = capacity;
+        this.queues = new ArrayDeque[LEVELS.length];
+        for (int i = 0; i < LEVELS.length; i++) {
+            queues[i] = new ArrayDeque<>();
+        }
+    }
+    
+    /**
+     * Adds a batch of entries. Returns the number of entries that had to be dropped
+     * (DROP_LOWEST only): incoming ones that did not fit plus buffered ones evicted to make
+     * room, at most one per incoming entry. -1 when the batch was refused as a whole.
+     */
+    public int offer(List<LogEntryDto> entries, BackpressurePolicy policy, long timeoutNanos) throws InterruptedException {
+        lock.lock();
+        try {
+            if (closed) {
+                return -1;
+            }
+            switch (policy) {
+                case REJECT -> {
+                    if (size + entries.size() > capacity) {
+                        return -1;
+                    }
+                }
+                case BLOCK -> {
+                    if (entries.size() > capacity) {
+                        return -1;
+                    }
+                    long remaining = timeoutNanos;
+                    while (size + entries.size() > capacity) {
+                        if (remaining <= 0 || closed) {
+                            return -1;
+                        }
+                        remaining = notFull.awaitNanos(remaining);
+                    }
+                }
+                case DROP_LOWEST -> {
+                    int dropped = 0;
+                    for (LogEntryDto entry : entries) {
+                        if (size >= capacity) {
+                            dropped++;
+                            if (!evictLowerOrEqual(entry.getLevel())) {
+                                droppedByLevel[entry.getLevel().ordinal()]++;
+                                continue;
+                            }
+                        }
+                        enqueue(entry);
+                    }
+                    signalIfReady();
+                    return dropped;
+                }
+            }
+            for (LogEntryDto entry : entries) {
+                enqueue(entry);
+            }
+            signalIfReady();
+            return 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Waits until at least {@code maxEntries} are buffered, the buffer is closed or the
+     * wait time runs out, then moves up to {@code maxEntries} entries into {@code batch}.
+     */
+    public int awaitBatch(List<LogEntryDto> batch, int maxEntries, long maxWaitNanos) throws InterruptedException {
+        lock.lock();
+        try {
+            batchThreshold = maxEntries;
+            long remaining = maxWaitNanos;
+            while (size < maxEntries && !closed && remaining > 0) {
+                remaining = batchReady.awaitNanos(remaining);
+            }
+            
+            int drained = 0;
+            for (int i = 0; i < queues.length && drained < maxEntries; i++) {
+                ArrayDeque<LogEntryDto> queue = queues[i];
+                while (!queue.isEmpty() && drained < maxEntries) {
+                    batch.add(queue.pollFirst());
+                    drained++;
+                }
+            }
+            size -= drained;
+            if (drained > 0) {
+                notFull.signalAll();
+            }
+            return drained;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    // Stops accepting entries; entries already buffered can still be drained
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            batchReady.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public boolean isClosed() {
+        lock.lock();
+        try {
+            return closed;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public int capacity() {
+        return capacity;
+    }
+    
+    // Returns and resets the per-level count of entries dropped since the last call
+    public int[] drainDroppedCounts() {
+        lock.lock();
+        try {
+            int[] counts = droppedByLevel.clone();
+            Arrays.fill(droppedByLevel, 0);
+            return counts;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private void enqueue(LogEntryDto entry) {
+        queues[entry.getLevel().ordinal()].addLast(entry);
+        size++;
+    }
+    
+    // Evicts the oldest entry of the lowest buffered level, provided it is not more severe than the incoming one
+    private boolean evictLowerOrEqual(LogLevel incoming) {
+        for (int i = LEVELS.length - 1; i >= incoming.ordinal(); i--) {
+            if (!queues[i].isEmpty()) {
+                queues[i].pollFirst();
+                droppedByLevel[i]++;
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private void signalIfReady() {
+        if (size >= batchThreshold) {
+            batchReady.signal();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,481 @@
+package com.loganalytics.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.loganalytics.config.ThreadFactories;
+import com.loganalytics.dto.BatchIngestResultDto;
+import com.loganalytics.dto.LoadGeneratorReportDto;
+import com.loganalytics.dto.LoadGeneratorRequestDto;
+import com.loganalytics.dto.LogEntryDto;
+import jakarta.validation.Validator;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+/**
+ * Open-loop load generator: batches are due at a fixed schedule derived from the target rate and
+ * profile, whether or not earlier ones have completed, and latency is measured from when a batch
+ * was due. A slow backend therefore shows up as latency instead of silently lowering the rate.
+ * Only present with logs.loadgen.enabled, and runs are bounded by logs.loadgen.max-*: over HTTP
+ * it posts to this instance or to an origin of logs.loadgen.allowed-targets, nowhere else.
+ */
+@Service
+@ConditionalOnProperty(name = "logs.loadgen.enabled", havingValue = "true")
+public class LoadGeneratorService implements SmartLifecycle {
+    
+    private static final Logger log = LoggerFactory.getLogger(LoadGeneratorService.class);
+    
+    private static final long RATE_STEP_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    
+    @Autowired
+    private LogService logService;
+    
+    @Autowired
+    private AsyncIngestService asyncIngestService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private Validator validator;
+    
+    @Autowired
+    private Environment environment;
+    
+    // Start a run with the logs.loadgen.* settings once the application is up
+    @Value("${logs.loadgen.auto-start:false}")
+    private boolean autoStart;
+    
+    // Origins (scheme://host:port) besides this instance that HTTP runs may post to
+    @Value("${logs.loadgen.allowed-targets:}")
+    private String[] allowedTargets;
+    
+    // Highest rate at any point of the profile, i.e. rate * burstFactor for SQUARE and SPIKE
+    @Value("${logs.loadgen.max-rate:100000}")
+    private int maxRate;
+    
+    @Value("${logs.loadgen.max-concurrency:64}")
+    private int maxConcurrency;
+    
+    @Value("${logs.loadgen.max-duration:1h}")
+    private Duration maxDuration;
+    
+    @Value("${logs.loadgen.report-interval:10s}")
+    private Duration reportInterval;
+    
+    // Batches due longer ago than this are skipped and counted as missed instead of sent late
+    @Value("${logs.loadgen.max-lag:1s}")
+    private Duration maxLag;
+    
+    private volatile Run current;
+    private volatile boolean running;
+    
+    public synchronized LoadGeneratorReportDto start(LoadGeneratorRequestDto settings) {
+        if (current != null && !current.isFinished()) {
+            throw new IllegalStateException("A load generator run is already active");
+        }
+        if (settings.getBatchSize() > logService.getMaxBatchSize()) {
+            throw new IllegalArgumentException("batchSize must not exceed " + logService.getMaxBatchSize());
+        }
+        double peakRate = settings.getProfile() == LoadGeneratorRequestDto.Profile.SQUARE
+                || settings.getProfile() == LoadGeneratorRequestDto.Profile.SPIKE
+                ? settings.getRate() * settings.getBurstFactor() : settings.getRate();
+        if (peakRate > maxRate) {
+            throw new IllegalArgumentException("rate" + (peakRate > settings.getRate() ? " * burstFactor" : "")
+                    + " must not exceed " + maxRate);
+        }
+        if (settings.getConcurrency() > maxConcurrency) {
+            throw new IllegalArgumentException("concurrency must not exceed " + maxConcurrency);
+        }
+        if (settings.getDurationSeconds() > maxDuration.toSeconds()) {
+            throw new IllegalArgumentException("durationSeconds must not exceed " + maxDuration.toSeconds());
+        }
+        URI target = settings.getMode() == LoadGeneratorRequestDto.Mode.HTTP ? target(settings.getTargetUrl()) : null;
+        
+        current = new Run(settings, target);
+        current.start();
+        log.info("Load generator started: mode={}, rate={}/s, profile={}, duration={}s, concurrency={}, batchSize={}, async={}",
+                settings.getMode(), settings.getRate(), settings.getProfile(), settings.getDurationSeconds(),
+                settings.getConcurrency(), settings.getBatchSize(), settings.isAsync());
+        return current.report();
+    }
+    
+    // Stops the active run, if any, and returns the report of the latest run
+    public LoadGeneratorReportDto stopRun() {
+        Run run = current;
+        if (run == null) {
+            return idleReport();
+        }
+        run.stop();
+        return run.report();
+    }
+    
+    public LoadGeneratorReportDto getReport() {
+        Run run = current;
+        return run != null ? run.report() : idleReport();
+    }
+    
+    @Override
+    public void start() {
+        running = true;
+        if (autoStart) {
+            LoadGeneratorRequestDto settings = Binder.get(environment)
+                    .bind("logs.loadgen", LoadGeneratorRequestDto.class)
+                    .orElseGet(LoadGeneratorRequestDto::new);
+            String errors = validator.validate(settings).stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .collect(Collectors.joining(", "));
+            if (!errors.isEmpty()) {
+                throw new IllegalArgumentException("Invalid logs.loadgen settings: " + errors);
+            }
+            start(settings);
+        }
+    }
+    
+    @Override
+    public void stop() {
+        stopRun();
+        running = false;
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    // The base URI to post to: this instance when no target is given, else one of the allowed origins
+    private URI target(String targetUrl) {
+        String local = "http://localhost:" + environment.getProperty("local.server.port",
+                environment.getProperty("server.port", "8080"));
+        URI uri;
+        try {
+            uri = URI.create(targetUrl == null || targetUrl.isBlank() ? local : targetUrl.replaceAll("/+$", ""));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid targetUrl: " + e.getMessage());
+        }
+        String origin = origin(uri);
+        boolean allowed = origin != null && (origin.equals(origin(URI.create(local)))
+                || Arrays.stream(allowedTargets).filter(t -> !t.isBlank())
+                        .anyMatch(t -> origin.equals(origin(URI.create(t.strip())))));
+        if (!allowed) {
+            throw new IllegalArgumentException("targetUrl must be this instance or listed in logs.loadgen.allowed-targets");
+        }
+        return uri;
+    }
+    
+    private static String origin(URI uri) {
+        String scheme = uri.getScheme() != null ? uri.getScheme().toLowerCase() : null;
+        if ((!"http".equals(scheme) && !"https".equals(scheme)) || uri.getHost() == null || uri.getUserInfo() != null) {
+            return null;
+        }
+        int port = uri.getPort() >= 0 ? uri.getPort() : "https".equals(scheme) ? 443 : 80;
+        return scheme + "://" + uri.getHost().toLowerCase() + ":" + port;
+    }
+    
+    private LoadGeneratorReportDto idleReport() {
+        LoadGeneratorReportDto report = new LoadGeneratorReportDto();
+        report.setRunning(false);
+        return report;
+    }
+    
+    private final class Run {
+        
+        private final LoadGeneratorRequestDto settings;
+        private final SampleLogFactory factory;
+        private final ExecutorService httpExecutor;
+        private final HttpClient httpClient;
+        private final URI endpoint;
+        private final ExecutorService workers;
+        private final Thread reporter;
+        
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final long startNanos = System.nanoTime();
+        private final long endNanos;
+        private final long maxLagNanos = maxLag.toNanos();
+        // When the next batch is due
+        private final AtomicLong nextDue = new AtomicLong(startNanos);
+        
+        private final LongAdder sent = new LongAdder();
+        private final LongAdder accepted = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private final LongAdder missed = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final Recorder latencyRecorder = new Recorder(3);
+        private final Histogram latency = new Histogram(3);
+        
+        private volatile boolean stopped;
+        private volatile boolean finished;
+        private volatile long finishedNanos;
+        private volatile double currentRate;
+        private volatile String lastError;
+        
+        Run(LoadGeneratorRequestDto settings, URI target) {
+            this.settings = settings;
+            this.factory = new SampleLogFactory(settings.getLevelWeights(), settings.getSourceCount(),
+                    settings.getSourceSkew(), settings.getMessageCardinality());
+            this.endNanos = startNanos + TimeUnit.SECONDS.toNanos(settings.getDurationSeconds());
+            
+            if (target != null) {
+                this.httpExecutor = Executors.newCachedThreadPool(ThreadFactories.forBlockingWork("loadgen-http-", environment));
+                this.httpClient = HttpClient.newBuilder()
+                        .connectTimeout(Duration.ofSeconds(5))
+                        .executor(httpExecutor)
+                        .build();
+                this.endpoint = URI.create(target + path(settings));
+            } else {
+                this.httpExecutor = null;
+                this.httpClient = null;
+                this.endpoint = null;
+            }
+            this.workers = Executors.newFixedThreadPool(settings.getConcurrency(), ThreadFactories.forBlockingWork("loadgen-", environment));
+            this.reporter = new Thread(this::runReporter, "loadgen-report");
+            this.reporter.setDaemon(true);
+        }
+        
+        void start() {
+            for (int i = 0; i < settings.getConcurrency(); i++) {
+                workers.execute(this::runWorker);
+            }
+            // Workers leave on their own once the duration is over or the run is stopped
+            workers.shutdown();
+            reporter.start();
+        }
+        
+        void stop() {
+            stopped = true;
+            try {
+                reporter.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        
+        boolean isFinished() {
+            return finished;
+        }
+        
+        private void runWorker() {
+            long due;
+            while ((due = claimNextBatch()) >= 0) {
+                long wait;
+                while ((wait = due - System.nanoTime()) > 0 && !stopped) {
+                    LockSupport.parkNanos(wait);
+                }
+                if (stopped) {
+                    return;
+                }
+                
+                List<LogEntryDto> batch = factory.batch(settings.getBatchSize(), LocalDateTime.now());
+                sent.add(batch.size());
+                try {
+                    send(batch);
+                } catch (Exception e) {
+                    if (e instanceof InterruptedException) {
+                        Thread.currentThread().interrupt();
+                    }
+                    failed.increment();
+                    dropped.add(batch.size());
+                    lastError = e.getMessage() != null ? e.getClass().getSimpleName() + ": " + e.getMessage() : e.toString();
+                }
+                latencyRecorder.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - due));
+            }
+        }
+        
+        // Due time of the next batch, or -1 when the run is over
+        private long claimNextBatch() {
+            while (!stopped) {
+                long due = nextDue.get();
+                long next = due;
+                long skipped = 0;
+                // Skip what can no longer be sent on time rather than bursting to catch up
+                long oldestOnTime = System.nanoTime() - maxLagNanos;
+                while (next < oldestOnTime && next < endNanos) {
+                    next += interval(next);
+                    skipped++;
+                }
+                long claimed = next;
+                if (claimed >= endNanos) {
+                    if (nextDue.compareAndSet(due, claimed)) {
+                        missed.add(skipped * settings.getBatchSize());
+                    }
+                    return -1;
+                }
+                if (nextDue.compareAndSet(due, claimed + interval(claimed))) {
+                    missed.add(skipped * settings.getBatchSize());
+                    return claimed;
+                }
+            }
+            return -1;
+        }
+        
+        // Time until another batch worth of entries is due, following the rate in steps of at most 100 ms
+        private long interval(long due) {
+            double entries = settings.getBatchSize();
+            long t = due;
+            while (true) {
+                double rate = targetRate(t);
+                long step = (long) (entries * 1e9 / rate);
+                if (step <= RATE_STEP_NANOS) {
+                    return t + step - due;
+                }
+                entries -= rate * RATE_STEP_NANOS / 1e9;
+                t += RATE_STEP_NANOS;
+            }
+        }
+        
+        private double targetRate(long nanos) {
+            double rate = settings.getRate();
+            double elapsed = (nanos - startNanos) / 1e9;
+            double period = settings.getPeriodSeconds();
+            double phase = (elapsed % period) / period;
+            double target = switch (settings.getProfile()) {
+                case CONSTANT -> rate;
+                case RAMP -> rate * Math.min(1, elapsed / period);
+                case SQUARE -> phase < 0.5 ? rate : rate * settings.getBurstFactor();
+                case SPIKE -> phase < 0.1 ? rate * settings.getBurstFactor() : rate;
+            };
+            return Math.max(1, target);
+        }
+        
+        private void send(List<LogEntryDto> batch) throws IOException, InterruptedException {
+            if (httpClient != null) {
+                sendHttp(batch);
+            } else if (settings.isAsync()) {
+                AsyncIngestService.SubmitResult result = asyncIngestService.submit(batch);
+                if (result.status() == AsyncIngestService.SubmitStatus.REJECTED) {
+                    dropped.add(batch.size());
+                } else {
+                    accepted.add(result.accepted() - result.dropped());
+                    dropped.add(result.dropped());
+                }
+            } else if (batch.size() == 1) {
+                logService.createLog(batch.get(0));
+                accepted.increment();
+            } else {
+                accepted.add(logService.createLogs(batch));
+            }
+        }
+        
+        private void sendHttp(List<LogEntryDto> batch) throws IOException, InterruptedException {
+            Object body = settings.getBatchSize() == 1 ? batch.get(0) : batch;
+            HttpRequest request = HttpRequest.newBuilder(endpoint)
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            
+            int status = response.statusCode();
+            if (status == 429) {
+                dropped.add(batch.size());
+            } else if (status / 100 != 2) {
+                failed.increment();
+                dropped.add(batch.size());
+                lastError = "HTTP " + status + " from " + endpoint;
+            } else if (settings.getBatchSize() == 1 && !settings.isAsync()) {
+                accepted.increment();
+            } else {
+                BatchIngestResultDto result = objectMapper.readValue(response.body(), BatchIngestResultDto.class);
+                accepted.add(result.getAccepted() - result.getDropped());
+                dropped.add(result.getDropped());
+            }
+        }
+        
+        private void runReporter() {
+            long lastAccepted = 0;
+            long lastNanos = startNanos;
+            try {
+                while (!workers.awaitTermination(reportInterval.toMillis(), TimeUnit.MILLISECONDS)) {
+                    long now = System.nanoTime();
+                    long total = accepted.sum();
+                    currentRate = (total - lastAccepted) * 1e9 / (now - lastNanos);
+                    lastAccepted = total;
+                    lastNanos = now;
+                    logReport("running");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            // A run that ran its course lasted its duration, even if the last batch completed earlier
+            finishedNanos = stopped ? System.nanoTime() : Math.max(System.nanoTime(), endNanos);
+            finished = true;
+            logReport(stopped ? "stopped" : "finished");
+            if (httpExecutor != null) {
+                httpExecutor.shutdown();
+            }
+        }
+        
+        private void logReport(String state) {
+            LoadGeneratorReportDto report = report();
+            log.info("Load generator {}: {}s, {} sent, {} accepted ({}/s, {}/s now), {} dropped, {} missed, "
+                            + "{} failed requests, latency ms p50={} p99={} p99.9={} max={}",
+                    state, Math.round(report.getElapsedSeconds()), report.getSentEntries(),
+                    report.getAcceptedEntries(), Math.round(report.getAchievedRate()),
+                    Math.round(report.getCurrentRate()), report.getDroppedEntries(), report.getMissedEntries(),
+                    report.getFailedRequests(), report.getLatencyP50Ms(), report.getLatencyP99Ms(),
+                    report.getLatencyP999Ms(), report.getLatencyMaxMs());
+        }
+        
+        LoadGeneratorReportDto report() {
+            long now = finished ? finishedNanos : System.nanoTime();
+            double elapsed = Math.max(1, now - startNanos) / 1e9;
+            
+            LoadGeneratorReportDto report = new LoadGeneratorReportDto();
+            report.setRunning(!finished);
+            report.setSettings(settings);
+            report.setStartedAt(startedAt);
+            report.setElapsedSeconds(elapsed);
+            report.setTargetRate(finished ? 0 : targetRate(now));
+            report.setSentEntries(sent.sum());
+            report.setAcceptedEntries(accepted.sum());
+            report.setAchievedRate(report.getAcceptedEntries() / elapsed);
+            report.setCurrentRate(finished ? 0 : currentRate);
+            report.setDroppedEntries(dropped.sum());
+            report.setMissedEntries(missed.sum());
+            report.setFailedRequests(failed.sum());
+            report.setLastError(lastError);
+            synchronized (latency) {
+                latency.add(latencyRecorder.getIntervalHistogram());
+                report.setLatencyP50Ms(toMillis(latency.getValueAtPercentile(50)));
+                report.setLatencyP90Ms(toMillis(latency.getValueAtPercentile(90)));
+                report.setLatencyP99Ms(toMillis(latency.getValueAtPercentile(99)));
+                report.setLatencyP999Ms(toMillis(latency.getValueAtPercentile(99.9)));
+                report.setLatencyMaxMs(toMillis(latency.getMaxValue()));
+            }
+            return report;
+        }
+        
+        private double toMillis(long micros) {
+            return micros / 1000.0;
+        }
+    }
+    
+    private static String path(LoadGeneratorRequestDto settings) {
+        String path = settings.isAsync() ? "/api/logs/async" : "/api/logs";
+        return settings.getBatchSize() == 1 ? path : path + "/batch";
+    }
+}
\ No newline at end of file
@@ -0,0 +1,409 @@
+package com.loganalytics.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.loganalytics.dto.LogAlertDto;
+import com.loganalytics.dto.SourceRateDto;
+import com.loganalytics.model.LogEntry;
+import com.loganalytics.model.LogLevel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Watches the ingest stream for error spikes without touching log_entries. Every entry only
+ * increments the current bucket of its source and level. Once per bucket the counts move into
+ * a fixed ring per source, which gives the sliding-window rates, and are compared with an
+ * exponentially weighted mean and variance of the earlier buckets. A bucket more than
+ * threshold standard deviations above the mean opens an alert; it resolves once a bucket is
+ * back below half the threshold. Alerts are published on /topic/alerts.
+ * <p>
+ * Buckets are closed by a thread of the detector's own, as a late close on the shared scheduler
+ * would put several intervals into one bucket. A close that is late all the same scales the
+ * counts to one bucket's length, and missed closes are skipped rather than caught up on.
+ */
+@Component
+public class LogAnomalyDetector implements LogIngestListener {
+    
+    private static final Logger log = LoggerFactory.getLogger(LogAnomalyDetector.class);
+    
+    public static final String DESTINATION = "/topic/alerts";
+    
+    private static final LogLevel[] LEVELS = LogLevel.values();
+    
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${logs.anomaly.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${logs.anomaly.bucket:PT10S}")
+    private Duration bucket;
+    
+    @Value("${logs.anomaly.window:PT1M}")
+    private Duration window;
+    
+    @Value("${logs.anomaly.baseline-half-life:PT15M}")
+    private Duration baselineHalfLife;
+    
+    // Buckets a source must have been seen for before it can alert
+    @Value("${logs.anomaly.warmup-buckets:30}")
+    private int warmupBuckets;
+    
+    @Value("${logs.anomaly.threshold:4.0}")
+    private double threshold;
+    
+    // Fewer entries in a bucket never alert, however quiet the baseline was
+    @Value("${logs.anomaly.min-count:10}")
+    private long minCount;
+    
+    @Value("${logs.anomaly.levels:ERROR}")
+    private LogLevel[] alertLevels;
+    
+    // Older entries are backfills or replays and say nothing about the current rate
+    @Value("${logs.anomaly.max-lag:PT5M}")
+    private Duration maxLag;
+    
+    @Value("${logs.anomaly.max-sources:10000}")
+    private int maxSources;
+    
+    @Value("${logs.anomaly.idle-timeout:PT1H}")
+    private Duration idleTimeout;
+    
+    @Value("${logs.anomaly.history:500}")
+    private int historySize;
+    
+    private final Map<String, SourceState> sources = new ConcurrentHashMap<>();
+    private final ArrayDeque<LogAlertDto> history = new ArrayDeque<>();
+    private long nextEventId = 1;
+    private long nextAlertId = 1;
+    private int windowBuckets;
+    private double alpha;
+    private boolean[] alerting;
+    private Counter[] alertCounters;
+    private Counter untrackedCounter;
+    private ScheduledExecutorService ticker;
+    // Used by the ticker thread only
+    private long lastClose;
+    private long nextClose;
+    
+    @PostConstruct
+    void init() {
+        windowBuckets = (int) Math.max(1, window.toMillis() / bucket.toMillis());
+        // Weight of the newest bucket, so that a bucket's weight halves after baselineHalfLife
+        alpha = 1 - Math.pow(0.5, (double) bucket.toMillis() / baselineHalfLife.toMillis());
+        alerting = new boolean[LEVELS.length];
+        for (LogLevel level : alertLevels) {
+            alerting[level.ordinal()] = true;
+        }
+        alertCounters = new Counter[LEVELS.length];
+        for (LogLevel level : LEVELS) {
+            alertCounters[level.ordinal()] = Counter.builder("logs.anomaly.alerts")
+                    .description("Alerts opened for a spike of entries of a level")
+                    .tag("level", level.name())
+                    .register(meterRegistry);
+        }
+        untrackedCounter = Counter.builder("logs.anomaly.untracked")
+                .description("Entries not watched because logs.anomaly.max-sources sources were tracked already")
+                .register(meterRegistry);
+        Gauge.builder("logs.anomaly.sources", sources, Map::size)
+                .description("Sources tracked by the anomaly detector")
+                .register(meterRegistry);
+        
+        if (enabled) {
+            CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("log-anomaly-");
+            threadFactory.setDaemon(true);
+            ticker = Executors.newSingleThreadScheduledExecutor(threadFactory);
+            lastClose = System.currentTimeMillis();
+            nextClose = lastClose + bucket.toMillis();
+            ticker.schedule(this::tick, bucket.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+    
+    @Override
+    public void onLogsIngested(List<LogEntry> entries) {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minus(maxLag);
+        long now = System.currentTimeMillis();
+        for (LogEntry entry : entries) {
+            if (entry.getTimestamp().isBefore(cutoff)) {
+                continue;
+            }
+            // ConcurrentHashMap has no null keys; sourceless entries are tracked as ""
+            String name = entry.getSource() != null ? entry.getSource() : "";
+            SourceState source = sources.get(name);
+            if (source == null) {
+                if (sources.size() >= maxSources) {
+                    untrackedCounter.increment();
+                    continue;
+                }
+                source = sources.computeIfAbsent(name, SourceState::new);
+            }
+            source.current.incrementAndGet(entry.getLevel().ordinal());
+            source.lastSeen = now;
+        }
+    }
+    
+    private void tick() {
+        long now = System.currentTimeMillis();
+        try {
+            closeBucket(now, now - lastClose);
+        } catch (RuntimeException e) {
+            log.warn("Closing an anomaly bucket failed", e);
+        }
+        lastClose = now;
+        long bucketMillis = bucket.toMillis();
+        nextClose += bucketMillis;
+        if (nextClose <= now) {
+            // Missed closes are skipped; catching up would close buckets without entries
+            nextClose = now + bucketMillis;
+        }
+        ticker.schedule(this::tick, nextClose - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+    }
+    
+    private void closeBucket(long now, long elapsedMillis) {
+        // A late close holds the entries of more than one bucket; scale them down to one
+        double scale = elapsedMillis > bucket.toMillis() * 3 / 2 ? (double) bucket.toMillis() / elapsedMillis : 1;
+        List<LogAlertDto> events = new ArrayList<>();
+        for (Iterator<SourceState> it = sources.values().iterator(); it.hasNext(); ) {
+            SourceState source = it.next();
+            long[] counts = new long[LEVELS.length];
+            for (int i = 0; i < LEVELS.length; i++) {
+                counts[i] = Math.round(source.current.getAndSet(i, 0) * scale);
+            }
+            synchronized (source) {
+                source.close(counts, events);
+                if (now - source.lastSeen > idleTimeout.toMillis() && source.openAlerts() == 0) {
+                    // An entry arriving right now is lost to the detector; the source starts over with the next one
+                    it.remove();
+                }
+            }
+        }
+        for (LogAlertDto event : events) {
+            publish(event);
+        }
+    }
+    
+    // Alert events, newest first
+    public List<LogAlertDto> getAlerts(int limit) {
+        synchronized (history) {
+            List<LogAlertDto> alerts = new ArrayList<>(Math.min(limit, history.size()));
+            Iterator<LogAlertDto> it = history.descendingIterator();
+            while (it.hasNext() && alerts.size() < limit) {
+                alerts.add(it.next());
+            }
+            return alerts;
+        }
+    }
+    
+    // The OPEN event of every alert that has not resolved yet
+    public List<LogAlertDto> getOpenAlerts() {
+        List<LogAlertDto> open = new ArrayList<>();
+        for (SourceState source : sources.values()) {
+            synchronized (source) {
+                for (LogAlertDto alert : source.open) {
+                    if (alert != null) {
+                        open.add(alert);
+                    }
+                }
+            }
+        }
+        open.sort(Comparator.comparing(LogAlertDto::getTimestamp).reversed());
+        return open;
+    }
+    
+    // Sliding-window rates of one source, or of every tracked source when source is null
+    public List<SourceRateDto> getRates(String source) {
+        List<SourceRateDto> rates = new ArrayList<>();
+        if (source != null) {
+            SourceState state = sources.get(source);
+            if (state != null) {
+                rates.add(state.toRateDto());
+            }
+            return rates;
+        }
+        for (SourceState state : sources.values()) {
+            rates.add(state.toRateDto());
+        }
+        rates.sort(Comparator.comparing(SourceRateDto::getSource));
+        return rates;
+    }
+    
+    private void publish(LogAlertDto event) {
+        synchronized (history) {
+            event.setId(nextEventId++);
+            history.addLast(event);
+            while (history.size() > historySize) {
+                history.removeFirst();
+            }
+        }
+        if (event.getState() == LogAlertDto.State.OPEN) {
+            alertCounters[event.getLevel().ordinal()].increment();
+            log.warn("{} spike on source '{}': {} entries in {}s, baseline {}/s",
+                    event.getLevel(), event.getSource(), event.getCount(), bucket.toSeconds(),
+                    String.format("%.2f", event.getBaselinePerSecond()));
+        } else {
+            log.info("{} spike on source '{}' resolved", event.getLevel(), event.getSource());
+        }
+        try {
+            SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+            accessor.setLeaveMutable(true);
+            byte[] payload = objectMapper.writeValueAsBytes(event);
+            messagingTemplate.send(DESTINATION, MessageBuilder.createMessage(payload, accessor.getMessageHeaders()));
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Could not publish alert {}", event.getId(), e);
+        }
+    }
+    
+    private synchronized long nextAlertId() {
+        return nextAlertId++;
+    }
+    
+    private double perSecond(double perBucket) {
+        return perBucket * 1000 / bucket.toMillis();
+    }
+    
+    private final class SourceState {
+        final String name;
+        // Counts of the bucket in progress, written by ingest threads
+        final AtomicLongArray current = new AtomicLongArray(LEVELS.length);
+        volatile long lastSeen;
+        // The rest only changes when a bucket closes: counts of the last windowBuckets buckets
+        // (bucket-major), their sums, and the EWMA mean and variance of a bucket's count per level
+        final long[] ring = new long[windowBuckets * LEVELS.length];
+        final long[] windowSums = new long[LEVELS.length];
+        final double[] mean = new double[LEVELS.length];
+        final double[] variance = new double[LEVELS.length];
+        final LogAlertDto[] open = new LogAlertDto[LEVELS.length];
+        int head;
+        long closedBuckets;
+        
+        SourceState(String name) {
+            this.name = name;
+        }
+        
+        void close(long[] counts, List<LogAlertDto> events) {
+            int base = head * LEVELS.length;
+            for (int i = 0; i < LEVELS.length; i++) {
+                windowSums[i] += counts[i] - ring[base + i];
+                ring[base + i] = counts[i];
+            }
+            head = (head + 1) % windowBuckets;
+            closedBuckets++;
+            
+            // Plain average over the first buckets, so the baseline does not start out at zero
+            double weight = Math.max(alpha, 1.0 / closedBuckets);
+            for (int i = 0; i < LEVELS.length; i++) {
+                long count = counts[i];
+                // Counts are roughly Poisson, so the deviation is at least the square root of the mean
+                double deviation = Math.sqrt(Math.max(variance[i], Math.max(mean[i], 1.0)));
+                double score = (count - mean[i]) / deviation;
+                if (alerting[i]) {
+                    if (open[i] == null) {
+                        if (closedBuckets > warmupBuckets && count >= minCount && score >= threshold) {
+                            open[i] = event(LogAlertDto.State.OPEN, nextAlertId(), LEVELS[i], count, score, null);
+                            events.add(open[i]);
+                        }
+                    } else if (score < threshold / 2) {
+                        events.add(event(LogAlertDto.State.RESOLVED, open[i].getAlertId(), LEVELS[i], count, score,
+                                open[i].getOpenedAt()));
+                        open[i] = null;
+                    }
+                }
+                // A spike enters the baseline capped at the threshold, so it cannot hide itself by inflating
+                // the variance, while a lasting change still becomes the new normal step by step
+                double difference = Math.min(count, mean[i] + threshold * deviation) - mean[i];
+                double increment = weight * difference;
+                mean[i] += increment;
+                variance[i] = (1 - weight) * (variance[i] + difference * increment);
+            }
+        }
+        
+        int openAlerts() {
+            int n = 0;
+            for (LogAlertDto alert : open) {
+                if (alert != null) {
+                    n++;
+                }
+            }
+            return n;
+        }
+        
+        LogAlertDto event(LogAlertDto.State state, long alertId, LogLevel level, long count, double score,
+                          LocalDateTime openedAt) {
+            LogAlertDto event = new LogAlertDto();
+            event.setAlertId(alertId);
+            event.setState(state);
+            event.setSource(name.isEmpty() ? null : name);
+            event.setLevel(level);
+            event.setTimestamp(LocalDateTime.now());
+            event.setOpenedAt(openedAt != null ? openedAt : event.getTimestamp());
+            event.setCount(count);
+            event.setRatePerSecond(perSecond(count));
+            event.setBaselinePerSecond(perSecond(mean[level.ordinal()]));
+            event.setScore(score);
+            return event;
+        }
+        
+        synchronized SourceRateDto toRateDto() {
+            long buckets = Math.min(closedBuckets, windowBuckets);
+            Map<LogLevel, Double> rates = new EnumMap<>(LogLevel.class);
+            Map<LogLevel, Double> baselines = new EnumMap<>(LogLevel.class);
+            for (LogLevel level : LEVELS) {
+                rates.put(level, buckets > 0 ? perSecond((double) windowSums[level.ordinal()] / buckets) : 0.0);
+                baselines.put(level, perSecond(mean[level.ordinal()]));
+            }
+            SourceRateDto dto = new SourceRateDto();
+            dto.setSource(name.isEmpty() ? null : name);
+            dto.setWindowSeconds(buckets * bucket.toSeconds());
+            dto.setRatePerSecond(rates);
+            dto.setBaselinePerSecond(baselines);
+            dto.setWarmedUp(closedBuckets > warmupBuckets);
+            return dto;
+        }
+    }
+}
\ No newline at end of file
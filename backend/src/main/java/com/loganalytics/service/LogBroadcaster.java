@@ -0,0 +1,256 @@
+package com.loganalytics.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.loganalytics.dto.LogEntryDto;
+import com.loganalytics.model.LogLevel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes new entries to /topic/logs in batches. Entries are collected for up to one flush
+ * interval or until a batch is full, serialized once and sent as a single frame: a JSON array,
+ * or a column block for subscribers that asked for {@link LogWireFormat#COLUMNS}.
+ * When entries arrive faster than they can be published the lowest levels are dropped first.
+ * Subscriptions with filters get their own destination per distinct filter, see
+ * {@link LogSubscriptionRegistry}.
+ */
+@Service
+public class LogBroadcaster implements SmartLifecycle {
+    
+    private static final Logger log = LoggerFactory.getLogger(LogBroadcaster.class);
+    
+    public static final String DESTINATION = "/topic/logs";
+    
+    // Most severe level in the frame; lets slow subscribers drop low-severity frames first
+    public static final String MAX_LEVEL_HEADER = "x-max-level";
+    
+    private static final Comparator<LogEntryDto> OLDEST_FIRST =
+            Comparator.comparing(LogEntryDto::getTimestamp).thenComparing(LogEntryDto::getId);
+    
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private LogSubscriptionRegistry subscriptionRegistry;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${logs.broadcast.flush-interval:150ms}")
+    private Duration flushInterval;
+    
+    @Value("${logs.broadcast.max-batch-size:500}")
+    private int maxBatchSize;
+    
+    @Value("${logs.broadcast.buffer-capacity:10000}")
+    private int bufferCapacity;
+    
+    private IngestBuffer buffer;
+    private Thread publisher;
+    private volatile boolean running;
+    // When the oldest entry not yet taken by the publisher was published, 0 when there is none
+    private final AtomicLong pendingSince = new AtomicLong();
+    
+    private Counter frameCounter;
+    private Counter[] droppedCounters;
+    private DistributionSummary frameEntries;
+    // Indexed by LogWireFormat ordinal
+    private DistributionSummary[] frameBytes;
+    private Timer serializeTimer;
+    private Timer latencyTimer;
+    
+    public void publish(List<LogEntryDto> entries) {
+        if (!running) {
+            return;
+        }
+        pendingSince.compareAndSet(0, System.nanoTime());
+        try {
+            if (buffer.offer(entries, IngestBuffer.BackpressurePolicy.DROP_LOWEST, 0) > 0) {
+                int[] droppedByLevel = buffer.drainDroppedCounts();
+                for (int i = 0; i < droppedByLevel.length; i++) {
+                    droppedCounters[i].increment(droppedByLevel[i]);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    @Override
+    public void start() {
+        buffer = new IngestBuffer(bufferCapacity);
+        registerMetrics();
+        
+        running = true;
+        publisher = new Thread(this::runPublisher, "log-broadcaster");
+        publisher.setDaemon(true);
+        publisher.start();
+    }
+    
+    @Override
+    public void stop() {
+        running = false;
+        buffer.close();
+        try {
+            publisher.join(flushInterval.toMillis() * 2);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    private void runPublisher() {
+        List<LogEntryDto> batch = new ArrayList<>(maxBatchSize);
+        long maxWaitNanos = flushInterval.toNanos();
+        while (!buffer.isClosed()) {
+            try {
+                buffer.awaitBatch(batch, maxBatchSize, maxWaitNanos);
+            } catch (InterruptedException e) {
+                continue;
+            }
+            if (batch.isEmpty()) {
+                continue;
+            }
+            // Entries left behind for the next batch count from now, which understates their wait slightly
+            long since = pendingSince.getAndSet(buffer.size() > 0 ? System.nanoTime() : 0);
+            
+            try {
+                if (send(batch) && since != 0) {
+                    latencyTimer.record(System.nanoTime() - since, TimeUnit.NANOSECONDS);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Failed to publish {} log entries: {}", batch.size(), e.getMessage());
+            }
+            batch.clear();
+        }
+    }
+    
+    // Returns whether anything was sent
+    private boolean send(List<LogEntryDto> batch) {
+        List<LogSubscriptionRegistry.ActiveFilter> filters = subscriptionRegistry.getActiveFilters();
+        if (filters.isEmpty()) {
+            return false;
+        }
+        // The buffer hands out entries grouped by level; subscribers expect them in time order
+        batch.sort(OLDEST_FIRST);
+        
+        // Each entry is matched once per distinct filter, however many sessions share it
+        for (LogSubscriptionRegistry.ActiveFilter active : filters) {
+            LogStreamFilter filter = active.getFilter();
+            List<LogEntryDto> matching = filter.isUnfiltered() ? batch : batch.stream().filter(filter::matches).toList();
+            if (!matching.isEmpty()) {
+                send(active.getDestination(), active.getFormat(), matching);
+            }
+        }
+        return true;
+    }
+    
+    private void send(String destination, LogWireFormat format, List<LogEntryDto> entries) {
+        LogLevel maxLevel = LogLevel.TRACE;
+        for (LogEntryDto entry : entries) {
+            if (entry.getLevel().compareTo(maxLevel) < 0) {
+                maxLevel = entry.getLevel();
+            }
+        }
+        
+        long start = System.nanoTime();
+        byte[] payload = format == LogWireFormat.COLUMNS ? toColumns(entries) : toJson(entries);
+        serializeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        
+        // A byte[] payload goes through the broker as is, so the batch is serialized only once
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setContentType(format.getMediaType());
+        accessor.setNativeHeader(MAX_LEVEL_HEADER, maxLevel.name());
+        accessor.setLeaveMutable(true);
+        messagingTemplate.send(destination, MessageBuilder.createMessage(payload, accessor.getMessageHeaders()));
+        frameCounter.increment();
+        frameEntries.record(entries.size());
+        frameBytes[format.ordinal()].record(payload.length);
+    }
+    
+    private byte[] toJson(List<LogEntryDto> entries) {
+        try {
+            return objectMapper.writeValueAsBytes(entries);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize log batch", e);
+        }
+    }
+    
+    private byte[] toColumns(List<LogEntryDto> entries) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(entries.size() * 64);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            LogColumnsWriter.write(generator, entries);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+    
+    private void registerMetrics() {
+        frameCounter = Counter.builder("logs.broadcast.frames")
+                .description("Batched frames published to " + DESTINATION + " and its filtered destinations")
+                .register(meterRegistry);
+        frameEntries = DistributionSummary.builder("logs.broadcast.frame.entries")
+                .description("Entries per published frame")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        LogWireFormat[] formats = LogWireFormat.values();
+        frameBytes = new DistributionSummary[formats.length];
+        for (LogWireFormat format : formats) {
+            frameBytes[format.ordinal()] = DistributionSummary.builder("logs.broadcast.frame.size")
+                    .description("Payload size of a published frame")
+                    .baseUnit("bytes")
+                    .tag("format", format.name())
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry);
+        }
+        serializeTimer = Timer.builder("logs.broadcast.serialize")
+                .description("Time to serialize one frame")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        latencyTimer = Timer.builder("logs.broadcast.latency")
+                .description("Time from publishing the oldest entry of a batch until its frames are handed to the broker")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        LogLevel[] levels = LogLevel.values();
+        droppedCounters = new Counter[levels.length];
+        for (LogLevel level : levels) {
+            droppedCounters[level.ordinal()] = Counter.builder("logs.broadcast.dropped")
+                    .description("Entries not published because the broadcast buffer was full")
+                    .tag("level", level.name())
+                    .register(meterRegistry);
+        }
+    }
+}
\ No newline at end of file
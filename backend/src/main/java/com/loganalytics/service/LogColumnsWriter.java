@@ -0,0 +1,117 @@
+package com.loganalytics.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.loganalytics.dto.LogEntryDto;
+import com.loganalytics.model.LogLevel;
+
+import java.io.IOException;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Writes a list of entries column-wise ({@link LogWireFormat#COLUMNS}): one array per field
+ * instead of one object per entry, so field names appear once per list. Timestamps are epoch
+ * milliseconds (UTC, as everywhere timestamps become numbers), levels are ordinals into
+ * {@code levels}, and source, thread and logger are indexes into a table of the distinct values
+ * in the list, -1 standing for null. Template ids are written as they are, also -1 for null:
+ * <pre>
+ * {"count":2,"levels":["ERROR","WARN","INFO","DEBUG","TRACE"],
+ *  "id":[41,42],"timestamp":[1760000000000,1760000000125],"level":[0,2],
+ *  "source":{"values":["api"],"codes":[0,0]},"thread":{"values":[],"codes":[-1,-1]},
+ *  "logger":{"values":["a.B","a.C"],"codes":[0,1]},"templateId":[7,12],"message":["...","..."]}
+ * </pre>
+ */
+public final class LogColumnsWriter {
+    
+    private static final LogLevel[] LEVELS = LogLevel.values();
+    
+    private LogColumnsWriter() {
+    }
+    
+    public static void write(JsonGenerator generator, List<LogEntryDto> entries) throws IOException {
+        int count = entries.size();
+        generator.writeStartObject();
+        generator.writeNumberField("count", count);
+        generator.writeArrayFieldStart("levels");
+        for (LogLevel level : LEVELS) {
+            generator.writeString(level.name());
+        }
+        generator.writeEndArray();
+        
+        generator.writeArrayFieldStart("id");
+        for (LogEntryDto entry : entries) {
+            if (entry.getId() != null) {
+                generator.writeNumber(entry.getId());
+            } else {
+                generator.writeNull();
+            }
+        }
+        generator.writeEndArray();
+        
+        long[] timestamps = new long[count];
+        int[] levels = new int[count];
+        for (int i = 0; i < count; i++) {
+            LogEntryDto entry = entries.get(i);
+            timestamps[i] = entry.getTimestamp().toInstant(ZoneOffset.UTC).toEpochMilli();
+            levels[i] = entry.getLevel().ordinal();
+        }
+        generator.writeFieldName("timestamp");
+        generator.writeArray(timestamps, 0, count);
+        generator.writeFieldName("level");
+        generator.writeArray(levels, 0, count);
+        
+        writeCodes(generator, "source", entries, LogEntryDto::getSource);
+        writeCodes(generator, "thread", entries, LogEntryDto::getThread);
+        writeCodes(generator, "logger", entries, LogEntryDto::getLogger);
+        
+        int[] templateIds = new int[count];
+        for (int i = 0; i < count; i++) {
+            Integer templateId = entries.get(i).getTemplateId();
+            templateIds[i] = templateId != null ? templateId : -1;
+        }
+        generator.writeFieldName("templateId");
+        generator.writeArray(templateIds, 0, count);
+        
+        generator.writeArrayFieldStart("message");
+        for (LogEntryDto entry : entries) {
+            generator.writeString(entry.getMessage());
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+    
+    private static void writeCodes(JsonGenerator generator, String name, List<LogEntryDto> entries,
+                                   Function<LogEntryDto, String> field) throws IOException {
+        Map<String, Integer> codesByValue = new HashMap<>();
+        List<String> values = new ArrayList<>();
+        int[] codes = new int[entries.size()];
+        for (int i = 0; i < codes.length; i++) {
+            String value = field.apply(entries.get(i));
+            if (value == null) {
+                codes[i] = -1;
+                continue;
+            }
+            Integer code = codesByValue.get(value);
+            if (code == null) {
+                code = values.size();
+                codesByValue.put(value, code);
+                values.add(value);
+            }
+            codes[i] = code;
+        }
+        
+        generator.writeObjectFieldStart(name);
+        generator.writeArrayFieldStart("values");
+        for (String value : values) {
+            generator.writeString(value);
+        }
+        generator.writeEndArray();
+        generator.writeFieldName("codes");
+        generator.writeArray(codes, 0, codes.length);
+        generator.writeEndObject();
+    }
+}
\ No newline at end of file
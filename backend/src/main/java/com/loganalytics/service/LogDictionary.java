@@ -0,0 +1,142 @@
+package com.loganalytics.service;
+
+import com.loganalytics.model.DictionaryEntry;
+import com.loganalytics.model.DictionaryField;
+import com.loganalytics.model.LogEntry;
+import com.loganalytics.repository.DictionaryEntryRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * In-process copy of log_dictionary, which holds every distinct source, thread and logger name
+ * once; log_entries only stores their ids. Loaded at startup, so encoding and decoding are map
+ * and array lookups. A name seen for the first time is inserted in its own transaction by
+ * {@link #registerAll} before the entries that reference it are stored, so the id stays valid
+ * even if they are rolled back. Registering happens outside the insert: a nested transaction
+ * during its flush would wait for a second pool connection while holding the first one.
+ * Names are never removed, also not when retention deletes their last entry.
+ */
+@Service
+public class LogDictionary {
+    
+    private static final Logger log = LoggerFactory.getLogger(LogDictionary.class);
+    
+    private static final DictionaryField[] FIELDS = DictionaryField.values();
+    
+    @Autowired
+    private DictionaryEntryRepository dictionaryRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    // Indexed by DictionaryField ordinal; codes are the log_dictionary ids
+    private final StringDictionary[] dictionaries = new StringDictionary[FIELDS.length];
+    
+    @PostConstruct
+    void load() {
+        for (int i = 0; i < dictionaries.length; i++) {
+            dictionaries[i] = new StringDictionary();
+        }
+        reload();
+        log.info("Loaded log dictionary: {} sources, {} threads, {} loggers",
+                size(DictionaryField.SOURCE), size(DictionaryField.THREAD), size(DictionaryField.LOGGER));
+    }
+    
+    // Id of the name, inserting it on first use; 0 for null
+    public int encode(DictionaryField field, String name) {
+        int code = dictionaries[field.ordinal()].find(name);
+        return code >= 0 ? code : register(field, name);
+    }
+    
+    // Makes sure every source, thread and logger of the entries has an id; call before storing them
+    public void registerAll(List<LogEntry> entries) {
+        for (LogEntry entry : entries) {
+            encode(DictionaryField.SOURCE, entry.getSource());
+            encode(DictionaryField.THREAD, entry.getThread());
+            encode(DictionaryField.LOGGER, entry.getLogger());
+        }
+    }
+    
+    // Id of a name registered before, for storing an entry; never inserts
+    public int require(DictionaryField field, String name) {
+        int code = dictionaries[field.ordinal()].find(name);
+        if (code < 0) {
+            throw new IllegalStateException(field + " '" + name
+                    + "' is not in the dictionary; registerAll must run before the entry is stored");
+        }
+        return code;
+    }
+    
+    // Id of an already known name, or -1; for filters, which must not add names
+    public int find(DictionaryField field, String name) {
+        return dictionaries[field.ordinal()].find(name);
+    }
+    
+    public String decode(DictionaryField field, int code) {
+        String name = dictionaries[field.ordinal()].decode(code);
+        if (name == null && code != StringDictionary.NULL) {
+            // Added by another instance since the last load
+            reload();
+            name = dictionaries[field.ordinal()].decode(code);
+            if (name == null) {
+                throw new IllegalStateException("Unknown " + field + " id " + code);
+            }
+        }
+        return name;
+    }
+    
+    // Every name of the field, sorted
+    public List<String> values(DictionaryField field) {
+        List<String> names = dictionaries[field.ordinal()].values();
+        names.sort(null);
+        return names;
+    }
+    
+    public int size(DictionaryField field) {
+        return dictionaries[field.ordinal()].size();
+    }
+    
+    private synchronized int register(DictionaryField field, String name) {
+        int code = find(field, name);
+        if (code >= 0) {
+            return code;
+        }
+        try {
+            DictionaryEntry saved = newTransaction().execute(status ->
+                    dictionaryRepository.save(new DictionaryEntry(field, name)));
+            dictionaries[field.ordinal()].put(saved.getId(), name);
+            return saved.getId();
+        } catch (DataIntegrityViolationException e) {
+            // Inserted by another instance in the meantime
+            reload();
+            code = find(field, name);
+            if (code < 0) {
+                throw e;
+            }
+            return code;
+        }
+    }
+    
+    private synchronized void reload() {
+        List<DictionaryEntry> entries = newTransaction().execute(status -> dictionaryRepository.findAll());
+        for (DictionaryEntry entry : entries) {
+            dictionaries[entry.getField().ordinal()].put(entry.getId(), entry.getName());
+        }
+    }
+    
+    // Independent of any transaction the caller (or a flush in progress) is in
+    private TransactionTemplate newTransaction() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return transaction;
+    }
+}
\ No newline at end of file
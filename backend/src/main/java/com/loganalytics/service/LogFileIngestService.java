@@ -0,0 +1,340 @@
+package com.loganalytics.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.loganalytics.config.ThreadFactories;
+import com.loganalytics.dto.FileIngestJobDto;
+import com.loganalytics.dto.LogFileIngestRequestDto;
+import com.loganalytics.model.LogEntry;
+import com.loganalytics.model.LogFileFormat;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Imports raw log files (see {@link LogFileFormat}) below logs.file-ingest.base-dir. A file is
+ * split at record boundaries into chunks of logs.file-ingest.chunk-size; every chunk is
+ * memory-mapped and parsed on its own fork-join worker, which stores its entries in batches of
+ * logs.file-ingest.batch-size. Jobs run one after another in the background; entries are not
+ * broadcast, and retention deletes those older than the max-age of their level at its next run.
+ */
+@Service
+public class LogFileIngestService {
+    
+    private static final Logger log = LoggerFactory.getLogger(LogFileIngestService.class);
+    
+    // Finished jobs kept for GET /api/logs/files/jobs
+    private static final int MAX_JOBS = 100;
+    
+    // Bytes mapped at a time while looking for a chunk boundary
+    private static final int BOUNDARY_WINDOW = 1 << 20;
+    
+    @Autowired
+    private LogService logService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private Environment environment;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${logs.file-ingest.base-dir:./data/import}")
+    private String baseDir;
+    
+    @Value("${logs.file-ingest.chunk-size:64MB}")
+    private DataSize chunkSize;
+    
+    // 0 uses one worker per core
+    @Value("${logs.file-ingest.parallelism:0}")
+    private int parallelism;
+    
+    @Value("${logs.file-ingest.batch-size:5000}")
+    private int batchSize;
+    
+    private Path base;
+    private ForkJoinPool parsePool;
+    private ExecutorService jobRunner;
+    private Counter bytesCounter;
+    private final AtomicLong jobIds = new AtomicLong();
+    private final Map<Long, Job> jobs = new LinkedHashMap<>();
+    
+    @PostConstruct
+    void start() {
+        base = Paths.get(baseDir).toAbsolutePath().normalize();
+        int workers = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        parsePool = new ForkJoinPool(workers);
+        jobRunner = Executors.newSingleThreadExecutor(ThreadFactories.forBlockingWork("file-ingest-", environment));
+        bytesCounter = bytesCounter(meterRegistry, "backfill");
+    }
+    
+    @PreDestroy
+    void stop() {
+        jobRunner.shutdownNow();
+        parsePool.shutdownNow();
+    }
+    
+    public FileIngestJobDto submit(LogFileIngestRequestDto request) {
+        Path path = resolve(request.getPath());
+        if (!Files.isRegularFile(path) || !Files.isReadable(path)) {
+            throw new IllegalArgumentException("Not a readable file: " + request.getPath());
+        }
+        String source = request.getSource() != null && !request.getSource().isBlank()
+                ? request.getSource() : defaultSource(path);
+        Job job = new Job(jobIds.incrementAndGet(), path, request.getFormat(), source);
+        synchronized (jobs) {
+            jobs.put(job.id, job);
+            if (jobs.size() > MAX_JOBS) {
+                jobs.values().removeIf(old -> jobs.size() > MAX_JOBS && old.finishedAt != null);
+            }
+        }
+        jobRunner.execute(() -> run(job));
+        return job.toDto();
+    }
+    
+    public List<FileIngestJobDto> getJobs() {
+        synchronized (jobs) {
+            return jobs.values().stream().map(Job::toDto).toList();
+        }
+    }
+    
+    // null when there is no such job
+    public FileIngestJobDto getJob(long id) {
+        synchronized (jobs) {
+            Job job = jobs.get(id);
+            return job != null ? job.toDto() : null;
+        }
+    }
+    
+    /**
+     * The absolute, normalized path of a file named relative to the base directory; throws
+     * IllegalArgumentException for paths outside it, so the API cannot read arbitrary files.
+     */
+    public Path resolve(String path) {
+        Path resolved = base.resolve(path).normalize();
+        if (!resolved.startsWith(base)) {
+            throw new IllegalArgumentException("Path must be inside " + base + ": " + path);
+        }
+        try {
+            // Symbolic links must not lead out of it either
+            if (Files.exists(resolved) && !resolved.toRealPath().startsWith(base.toRealPath())) {
+                throw new IllegalArgumentException("Path must be inside " + base + ": " + path);
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot resolve " + path + ": " + e.getMessage());
+        }
+        return resolved;
+    }
+    
+    // The format of the file from its first line when AUTO is given
+    public LogFileFormat detectFormat(FileChannel channel, LogFileFormat format) throws IOException {
+        if (format != LogFileFormat.AUTO) {
+            return format;
+        }
+        ByteBuffer head = ByteBuffer.allocate(256);
+        channel.read(head, 0);
+        return LogFileFormat.detect(head.array(), head.position());
+    }
+    
+    public JsonFactory getJsonFactory() {
+        return objectMapper.getFactory();
+    }
+    
+    public int getBatchSize() {
+        return batchSize;
+    }
+    
+    public String defaultSource(Path path) {
+        String name = path.getFileName().toString();
+        return name.length() > LogFileParser.MAX_NAME_LENGTH ? name.substring(0, LogFileParser.MAX_NAME_LENGTH) : name;
+    }
+    
+    static Counter bytesCounter(MeterRegistry meterRegistry, String mode) {
+        return Counter.builder("logs.files.bytes")
+                .description("Bytes of raw log files parsed, by backfill jobs or tails")
+                .baseUnit("bytes")
+                .tag("mode", mode)
+                .register(meterRegistry);
+    }
+    
+    private void run(Job job) {
+        job.state = FileIngestJobDto.State.RUNNING;
+        job.startedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(job.path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            job.bytesTotal = size;
+            job.format = detectFormat(channel, job.format);
+            
+            List<long[]> chunks = split(channel, size, job.format);
+            List<Callable<Void>> tasks = new ArrayList<>(chunks.size());
+            for (long[] chunk : chunks) {
+                tasks.add(() -> {
+                    try {
+                        ingestChunk(job, channel, chunk[0], chunk[1]);
+                    } catch (IOException | RuntimeException e) {
+                        // Stops the other chunks at their next batch; stored batches remain
+                        job.state = FileIngestJobDto.State.FAILED;
+                        throw e;
+                    }
+                    return null;
+                });
+            }
+            for (Future<Void> result : parsePool.invokeAll(tasks)) {
+                result.get();
+            }
+            job.state = FileIngestJobDto.State.COMPLETED;
+            log.info("Imported {}: {} entries from {} bytes in {} chunks, {} lines skipped, {} ms", job.path,
+                    job.entries.sum(), size, chunks.size(), job.skippedLines.sum(),
+                    Duration.ofNanos(System.nanoTime() - start).toMillis());
+        } catch (ExecutionException e) {
+            fail(job, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(job, e);
+        } catch (IOException | RuntimeException e) {
+            fail(job, e);
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+        }
+    }
+    
+    private void fail(Job job, Throwable e) {
+        job.state = FileIngestJobDto.State.FAILED;
+        job.error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        log.warn("Import of {} failed after {} entries", job.path, job.entries.sum(), e);
+    }
+    
+    private void ingestChunk(Job job, FileChannel channel, long start, long end) throws IOException {
+        MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        LogFileParser parser = new LogFileParser(job.format, job.source, getJsonFactory());
+        int limit = buf.limit();
+        int pos = start == 0 ? skipByteOrderMark(buf) : 0;
+        while (pos < limit && job.state != FileIngestJobDto.State.FAILED) {
+            List<LogEntry> batch = new ArrayList<>(batchSize);
+            int next = parser.parse(buf, pos, limit, batchSize, batch, true);
+            if (!batch.isEmpty()) {
+                logService.createEntries(batch, false, null);
+                job.entries.add(batch.size());
+            }
+            job.bytesParsed.add(next - pos);
+            bytesCounter.increment(next - pos);
+            if (next == pos) {
+                break;
+            }
+            pos = next;
+        }
+        job.skippedLines.add(parser.getSkippedLines());
+    }
+    
+    // Chunk [start, end) ranges of about chunkSize bytes, each starting at the start of a record
+    private List<long[]> split(FileChannel channel, long size, LogFileFormat format) throws IOException {
+        List<long[]> chunks = new ArrayList<>();
+        long step = Math.max(chunkSize.toBytes(), BOUNDARY_WINDOW);
+        long start = 0;
+        while (start < size) {
+            long end = start + step < size ? nextRecordStart(channel, start + step, size, format) : size;
+            chunks.add(new long[] {start, end});
+            start = end;
+        }
+        return chunks;
+    }
+    
+    // Position after the first line break at or after from that is followed by a record; size if there is none
+    private long nextRecordStart(FileChannel channel, long from, long size, LogFileFormat format) throws IOException {
+        long windowStart = from;
+        while (windowStart < size) {
+            // A few bytes of overlap, so a record start right after the window can still be checked
+            int length = (int) Math.min(BOUNDARY_WINDOW + 8, size - windowStart);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, length);
+            int scanEnd = Math.min(BOUNDARY_WINDOW, length);
+            for (int i = 0; i < scanEnd; i++) {
+                if (window.get(i) == '\n' && (format != LogFileFormat.PATTERN || format.isRecordStart(window, i + 1, length))) {
+                    return windowStart + i + 1;
+                }
+            }
+            windowStart += scanEnd;
+        }
+        return size;
+    }
+    
+    private static int skipByteOrderMark(ByteBuffer buf) {
+        return buf.limit() >= 3 && buf.get(0) == (byte) 0xEF && buf.get(1) == (byte) 0xBB && buf.get(2) == (byte) 0xBF ? 3 : 0;
+    }
+    
+    private static final class Job {
+        final long id;
+        final Path path;
+        final String source;
+        volatile LogFileFormat format;
+        volatile FileIngestJobDto.State state = FileIngestJobDto.State.QUEUED;
+        volatile long bytesTotal;
+        final LongAdder bytesParsed = new LongAdder();
+        final LongAdder entries = new LongAdder();
+        final LongAdder skippedLines = new LongAdder();
+        volatile LocalDateTime startedAt;
+        volatile LocalDateTime finishedAt;
+        volatile String error;
+        
+        Job(long id, Path path, LogFileFormat format, String source) {
+            this.id = id;
+            this.path = path;
+            this.format = format;
+            this.source = source;
+        }
+        
+        FileIngestJobDto toDto() {
+            FileIngestJobDto dto = new FileIngestJobDto();
+            dto.setId(id);
+            dto.setPath(path.toString());
+            dto.setFormat(format);
+            dto.setState(state);
+            dto.setBytesTotal(bytesTotal);
+            dto.setBytesParsed(bytesParsed.sum());
+            dto.setEntries(entries.sum());
+            dto.setSkippedLines(skippedLines.sum());
+            dto.setStartedAt(startedAt);
+            dto.setFinishedAt(finishedAt);
+            dto.setError(error);
+            if (startedAt != null) {
+                LocalDateTime until = finishedAt != null ? finishedAt : LocalDateTime.now();
+                double seconds = Duration.between(startedAt, until).toMillis() / 1000.0;
+                dto.setEntriesPerSecond(seconds > 0 ? entries.sum() / seconds : 0);
+            }
+            return dto;
+        }
+    }
+}
\ No newline at end of file
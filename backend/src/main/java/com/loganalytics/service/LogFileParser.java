@@ -0,0 +1,675 @@
+package com.loganalytics.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.loganalytics.model.LogEntry;
+import com.loganalytics.model.LogFileFormat;
+import com.loganalytics.model.LogLevel;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Turns the bytes of a raw log file into {@link LogEntry} records. Works on a (typically
+ * memory-mapped) buffer: each record is copied once into a reused scratch array and parsed from
+ * there without intermediate strings; timestamps are read digit by digit and thread, logger and
+ * source names go through a small cache, so repeated names are not decoded again. One instance
+ * per thread; not thread-safe.
+ */
+public class LogFileParser {
+    
+    // Longest source, thread or logger name stored (the columns are VARCHAR(255))
+    static final int MAX_NAME_LENGTH = 255;
+    
+    private static final String[] MONTHS = {"Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"};
+    
+    private final LogFileFormat format;
+    private final String defaultSource;
+    private final JsonFactory jsonFactory;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final NameCache names = new NameCache();
+    
+    private byte[] scratch = new byte[8192];
+    // Set by parseTimestamp: the position after the timestamp
+    private int parsed;
+    private long skippedLines;
+    
+    public LogFileParser(LogFileFormat format, String defaultSource, JsonFactory jsonFactory) {
+        if (format == LogFileFormat.AUTO) {
+            throw new IllegalArgumentException("Detect the format before parsing");
+        }
+        this.format = format;
+        this.defaultSource = defaultSource;
+        this.jsonFactory = jsonFactory;
+    }
+    
+    /**
+     * Parses the records in {@code [from, to)} of {@code buf}, which must start at a record
+     * boundary, into {@code out} until {@code maxEntries} were added. Returns the position after
+     * the last record consumed, where the next call continues. Unless {@code endOfInput}, the last
+     * record is left unconsumed when it could still get continuation lines, and so is a last line
+     * without a line break.
+     */
+    public int parse(ByteBuffer buf, int from, int to, int maxEntries, List<LogEntry> out, boolean endOfInput) {
+        int added = 0;
+        int recordStart = -1;
+        int lineStart = from;
+        while (lineStart < to) {
+            int lineEnd = lineStart;
+            while (lineEnd < to && buf.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            if (lineEnd == to && !endOfInput) {
+                // Possibly a line still being written
+                break;
+            }
+            int next = lineEnd < to ? lineEnd + 1 : to;
+            boolean blank = isBlank(buf, lineStart, lineEnd);
+            
+            if (format != LogFileFormat.PATTERN) {
+                // One record per line
+                if (!blank) {
+                    if (added >= maxEntries) {
+                        return lineStart;
+                    }
+                    added += emit(buf, lineStart, lineEnd, out);
+                }
+            } else if (format.isRecordStart(buf, lineStart, lineEnd)) {
+                if (recordStart >= 0) {
+                    if (added >= maxEntries) {
+                        return recordStart;
+                    }
+                    added += emit(buf, recordStart, lineStart, out);
+                }
+                recordStart = lineStart;
+            } else if (recordStart < 0 && !blank) {
+                // Continuation of a record before from, or text that is no log record at all
+                skippedLines++;
+            }
+            lineStart = next;
+        }
+        if (recordStart >= 0) {
+            if (!endOfInput || added >= maxEntries) {
+                return recordStart;
+            }
+            emit(buf, recordStart, lineStart, out);
+        }
+        return lineStart;
+    }
+    
+    // The single record in [from, to) of buf, e.g. a syslog datagram or a framed line; null when it cannot be parsed
+    public LogEntry parseRecord(ByteBuffer buf, int from, int to) {
+        int length = to - from;
+        ensureScratch(length);
+        buf.get(from, scratch, 0, length);
+        return parseScratch(length);
+    }
+    
+    // Lines that were neither a record nor part of one, and records that could not be parsed
+    public long getSkippedLines() {
+        return skippedLines;
+    }
+    
+    private int emit(ByteBuffer buf, int start, int end, List<LogEntry> out) {
+        LogEntry entry = parseRecord(buf, start, end);
+        if (entry == null) {
+            return 0;
+        }
+        out.add(entry);
+        return 1;
+    }
+    
+    private LogEntry parseScratch(int length) {
+        int end = trimEnd(scratch, 0, length);
+        int start = 0;
+        // UTF-8 byte order mark, found at the start of some files and RFC 5424 messages
+        if (end >= 3 && scratch[0] == (byte) 0xEF && scratch[1] == (byte) 0xBB && scratch[2] == (byte) 0xBF) {
+            start = 3;
+        }
+        LogEntry entry;
+        try {
+            entry = switch (format) {
+                case JSON_LINES -> parseJson(start, end);
+                case SYSLOG -> parseSyslog(start, end);
+                default -> parsePattern(start, end);
+            };
+        } catch (IOException | RuntimeException e) {
+            entry = null;
+        }
+        if (entry == null) {
+            skippedLines++;
+            return null;
+        }
+        if (entry.getSource() == null) {
+            entry.setSource(defaultSource);
+        }
+        return entry;
+    }
+    
+    // timestamp, then [thread], (thread), LEVEL, pid, --- and logger in any order, then "-" or ":" and the message
+    private LogEntry parsePattern(int start, int end) {
+        byte[] b = scratch;
+        LocalDateTime timestamp = parseTimestamp(b, start, end);
+        if (timestamp == null) {
+            return null;
+        }
+        int lineEnd = indexOf(b, (byte) '\n', parsed, end);
+        if (lineEnd < 0) {
+            lineEnd = end;
+        }
+        LogLevel level = null;
+        String thread = null;
+        String logger = null;
+        int pos = parsed;
+        int messageStart = -1;
+        while (messageStart < 0) {
+            pos = skipSpaces(b, pos, lineEnd);
+            if (pos >= lineEnd) {
+                messageStart = lineEnd;
+                break;
+            }
+            byte first = b[pos];
+            if (first == '[' || first == '(') {
+                int close = indexOf(b, first == '[' ? (byte) ']' : (byte) ')', pos + 1, lineEnd);
+                if (close < 0) {
+                    messageStart = pos;
+                    break;
+                }
+                // Padded by %15.15thread and the like
+                thread = names.get(b, skipSpaces(b, pos + 1, close), close);
+                pos = close + 1;
+                continue;
+            }
+            int tokenEnd = tokenEnd(b, pos, lineEnd);
+            if (tokenEnd - pos == 1 && (first == '-' || first == ':')) {
+                messageStart = tokenEnd;
+                break;
+            }
+            LogLevel tokenLevel = level == null ? parseLevel(b, pos, tokenEnd) : null;
+            if (tokenLevel != null) {
+                level = tokenLevel;
+            } else if (isDigits(b, pos, tokenEnd) || isDashes(b, pos, tokenEnd)) {
+                // Process id, or Spring Boot's --- separator
+            } else if (logger == null && isLogger(b, pos, tokenEnd, lineEnd)) {
+                boolean colon = b[tokenEnd - 1] == ':';
+                logger = names.get(b, pos, colon ? tokenEnd - 1 : tokenEnd);
+                if (colon) {
+                    messageStart = tokenEnd;
+                    break;
+                }
+            } else {
+                // None of the known fields: the message starts without a separator
+                messageStart = pos;
+                break;
+            }
+            pos = tokenEnd;
+        }
+        if (level == null) {
+            return null;
+        }
+        int from = skipSpaces(b, messageStart, end);
+        // Continuation lines (stack traces) stay part of the message, without carriage returns
+        String message = new String(b, from, stripCarriageReturns(b, from, end) - from, StandardCharsets.UTF_8);
+        return new LogEntry(timestamp, level, message, null, thread, logger);
+    }
+    
+    private LogEntry parseJson(int start, int end) throws IOException {
+        LocalDateTime timestamp = null;
+        LogLevel level = null;
+        String message = null;
+        String source = null;
+        String thread = null;
+        String logger = null;
+        try (JsonParser parser = jsonFactory.createParser(scratch, start, end - start)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                token = parser.nextToken();
+                if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                    continue;
+                }
+                switch (field) {
+                    case "timestamp", "@timestamp", "time", "instant" -> {
+                        timestamp = jsonTimestamp(parser, token);
+                        if (timestamp == null) {
+                            return null;
+                        }
+                    }
+                    case "level", "severity", "log.level" -> level = parseLevel(parser.getText());
+                    case "message", "msg" -> message = parser.getText();
+                    case "source", "service", "service.name", "app" -> source = truncate(parser.getText());
+                    case "thread", "thread_name", "process.thread.name" -> thread = truncate(parser.getText());
+                    case "logger", "logger_name", "log.logger", "loggerName" -> logger = truncate(parser.getText());
+                    default -> {
+                    }
+                }
+            }
+            if (token != JsonToken.END_OBJECT) {
+                return null;
+            }
+        }
+        if (level == null || message == null) {
+            return null;
+        }
+        // Like entries posted without a timestamp
+        return new LogEntry(timestamp != null ? timestamp : LocalDateTime.now(), level, message, source, thread, logger);
+    }
+    
+    private LocalDateTime jsonTimestamp(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NUMBER_INT) {
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(parser.getLongValue()), zone);
+        }
+        if (token != JsonToken.VALUE_STRING) {
+            return null;
+        }
+        // Timestamps are ASCII, so the characters can be parsed as bytes
+        char[] chars = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        int length = Math.min(parser.getTextLength(), 64);
+        byte[] text = new byte[length];
+        for (int i = 0; i < length; i++) {
+            text[i] = (byte) chars[offset + i];
+        }
+        return parseTimestamp(text, 0, length);
+    }
+    
+    // RFC 5424: <PRI>1 TIMESTAMP HOST APP PROCID MSGID [SD] MSG, RFC 3164: <PRI>Mmm dd hh:mm:ss HOST TAG[PID]: MSG.
+    // The process id stays in the message rather than becoming the thread: every restart brings a new
+    // one, and each would be a permanent entry of the field dictionary
+    private LogEntry parseSyslog(int start, int end) {
+        byte[] b = scratch;
+        int close = indexOf(b, (byte) '>', start + 1, Math.min(end, start + 5));
+        if (b[start] != '<' || close < 0 || !isDigits(b, start + 1, close)) {
+            return null;
+        }
+        int severity = parseInt(b, start + 1, close) % 8;
+        LogLevel level = severity <= 3 ? LogLevel.ERROR : severity == 4 ? LogLevel.WARN
+                : severity <= 6 ? LogLevel.INFO : LogLevel.DEBUG;
+        int pos = close + 1;
+        
+        if (pos + 1 < end && isDigit(b[pos]) && b[pos + 1] == ' ') {
+            pos += 2;
+            int tsEnd = tokenEnd(b, pos, end);
+            LocalDateTime timestamp = tsEnd - pos == 1 && b[pos] == '-' ? LocalDateTime.now() : parseTimestamp(b, pos, tsEnd);
+            if (timestamp == null) {
+                return null;
+            }
+            int hostStart = tsEnd + 1;
+            int hostEnd = tokenEnd(b, hostStart, end);
+            int appStart = hostEnd + 1;
+            int appEnd = tokenEnd(b, appStart, end);
+            int procStart = appEnd + 1;
+            int procEnd = tokenEnd(b, procStart, end);
+            int msgIdEnd = tokenEnd(b, procEnd + 1, end);
+            pos = skipStructuredData(b, msgIdEnd + 1, end);
+            if (pos < 0) {
+                return null;
+            }
+            pos = skipSpaces(b, pos, end);
+            if (pos + 3 <= end && b[pos] == (byte) 0xEF && b[pos + 1] == (byte) 0xBB && b[pos + 2] == (byte) 0xBF) {
+                pos += 3;
+            }
+            boolean nilProcId = procEnd <= procStart || (procEnd - procStart == 1 && b[procStart] == '-');
+            return new LogEntry(timestamp, level, message(b, nilProcId ? -1 : procStart, procEnd, pos, end),
+                    nilOrName(b, appStart, appEnd), null, nilOrName(b, hostStart, hostEnd));
+        }
+        
+        LocalDateTime timestamp = parseBsdTimestamp(b, pos, end);
+        if (timestamp == null) {
+            return null;
+        }
+        int hostStart = skipSpaces(b, pos + 15, end);
+        int hostEnd = tokenEnd(b, hostStart, end);
+        int tagStart = hostEnd + 1;
+        int tagEnd = tagStart;
+        while (tagEnd < end && b[tagEnd] != '[' && b[tagEnd] != ':' && b[tagEnd] != ' ') {
+            tagEnd++;
+        }
+        int pidStart = -1;
+        int pidEnd = -1;
+        pos = tagEnd;
+        if (pos < end && b[pos] == '[') {
+            int bracket = indexOf(b, (byte) ']', pos + 1, end);
+            if (bracket > 0) {
+                pidStart = pos + 1;
+                pidEnd = bracket;
+                pos = bracket + 1;
+            }
+        }
+        if (pos < end && b[pos] == ':') {
+            pos++;
+        }
+        pos = skipSpaces(b, pos, end);
+        String source = tagEnd > tagStart ? names.get(b, tagStart, tagEnd) : null;
+        String host = hostEnd > hostStart ? names.get(b, hostStart, hostEnd) : null;
+        return new LogEntry(timestamp, level, message(b, pidStart, pidEnd, pos, end), source, null, host);
+    }
+    
+    // The message, led by "[pid] " when there is a process id (pidStart >= 0)
+    private static String message(byte[] b, int pidStart, int pidEnd, int from, int to) {
+        String message = new String(b, from, to - from, StandardCharsets.UTF_8);
+        if (pidStart < 0) {
+            return message;
+        }
+        return "[" + new String(b, pidStart, pidEnd - pidStart, StandardCharsets.UTF_8) + "] " + message;
+    }
+    
+    // Position after the structured data elements ("-" or [id k="v"]...), -1 when malformed
+    private static int skipStructuredData(byte[] b, int pos, int end) {
+        if (pos < end && b[pos] == '-') {
+            return pos + 1;
+        }
+        while (pos < end && b[pos] == '[') {
+            pos++;
+            boolean quoted = false;
+            while (pos < end && (quoted || b[pos] != ']')) {
+                if (b[pos] == '\\' && quoted) {
+                    pos++;
+                } else if (b[pos] == '"') {
+                    quoted = !quoted;
+                }
+                pos++;
+            }
+            if (pos >= end) {
+                return -1;
+            }
+            pos++;
+        }
+        return pos;
+    }
+    
+    /**
+     * yyyy-MM-dd, then 'T' or ' ', HH:mm:ss, an optional fraction after '.' or ',' and an optional
+     * Z or ±hh[:]mm offset; with an offset the time is converted to the local zone, like all
+     * stored timestamps. Sets {@link #parsed}; null when the bytes are no such timestamp.
+     */
+    private LocalDateTime parseTimestamp(byte[] b, int pos, int end) {
+        if (pos + 19 > end || b[pos + 4] != '-' || b[pos + 7] != '-' || (b[pos + 10] != 'T' && b[pos + 10] != ' ')
+                || b[pos + 13] != ':' || b[pos + 16] != ':') {
+            return null;
+        }
+        int year = digits(b, pos, 4);
+        int month = digits(b, pos + 5, 2);
+        int day = digits(b, pos + 8, 2);
+        int hour = digits(b, pos + 11, 2);
+        int minute = digits(b, pos + 14, 2);
+        int second = digits(b, pos + 17, 2);
+        if ((year | month | day | hour | minute | second) < 0) {
+            return null;
+        }
+        int p = pos + 19;
+        int nanos = 0;
+        if (p < end && (b[p] == '.' || b[p] == ',')) {
+            p++;
+            int scale = 100_000_000;
+            while (p < end && isDigit(b[p])) {
+                nanos += (b[p] - '0') * scale;
+                scale /= 10;
+                p++;
+            }
+        }
+        LocalDateTime timestamp;
+        try {
+            timestamp = LocalDateTime.of(year, month, day, hour, minute, second, nanos);
+        } catch (RuntimeException e) {
+            return null;
+        }
+        int offsetSeconds = Integer.MIN_VALUE;
+        if (p < end && b[p] == 'Z') {
+            offsetSeconds = 0;
+            p++;
+        } else if (p + 3 <= end && (b[p] == '+' || b[p] == '-') && isDigit(b[p + 1]) && isDigit(b[p + 2])) {
+            int sign = b[p] == '-' ? -1 : 1;
+            int offsetHours = digits(b, p + 1, 2);
+            p += 3;
+            int offsetMinutes = 0;
+            if (p + 3 <= end && b[p] == ':' && isDigit(b[p + 1])) {
+                offsetMinutes = digits(b, p + 1, 2);
+                p += 3;
+            } else if (p + 2 <= end && isDigit(b[p]) && isDigit(b[p + 1])) {
+                offsetMinutes = digits(b, p, 2);
+                p += 2;
+            }
+            offsetSeconds = sign * (offsetHours * 3600 + offsetMinutes * 60);
+        }
+        if (offsetSeconds != Integer.MIN_VALUE) {
+            timestamp = LocalDateTime.ofInstant(timestamp.toInstant(ZoneOffset.ofTotalSeconds(offsetSeconds)), zone);
+        }
+        parsed = p;
+        return timestamp;
+    }
+    
+    // Mmm dd hh:mm:ss (day space-padded) in the current year, or the previous one if that would be in the future
+    private LocalDateTime parseBsdTimestamp(byte[] b, int pos, int end) {
+        if (pos + 15 > end || b[pos + 3] != ' ' || b[pos + 9] != ':' || b[pos + 12] != ':') {
+            return null;
+        }
+        int month = -1;
+        for (int i = 0; i < MONTHS.length; i++) {
+            String name = MONTHS[i];
+            if (b[pos] == name.charAt(0) && b[pos + 1] == name.charAt(1) && b[pos + 2] == name.charAt(2)) {
+                month = i + 1;
+                break;
+            }
+        }
+        int day = b[pos + 4] == ' ' ? digits(b, pos + 5, 1) : digits(b, pos + 4, 2);
+        int hour = digits(b, pos + 7, 2);
+        int minute = digits(b, pos + 10, 2);
+        int second = digits(b, pos + 13, 2);
+        if ((month | day | hour | minute | second) < 0) {
+            return null;
+        }
+        LocalDateTime now = LocalDateTime.now(zone);
+        try {
+            LocalDateTime timestamp = LocalDateTime.of(now.getYear(), month, day, hour, minute, second);
+            return timestamp.isAfter(now.plusDays(1)) ? timestamp.minusYears(1) : timestamp;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+    
+    private LogLevel parseLevel(byte[] b, int from, int to) {
+        int length = to - from;
+        if (length < 4 || length > 7) {
+            return null;
+        }
+        switch (Character.toUpperCase(b[from])) {
+            case 'E':
+                return matches(b, from, to, "ERROR") ? LogLevel.ERROR : null;
+            case 'W':
+                return matches(b, from, to, "WARN") || matches(b, from, to, "WARNING") ? LogLevel.WARN : null;
+            case 'I':
+                return matches(b, from, to, "INFO") ? LogLevel.INFO : null;
+            case 'D':
+                return matches(b, from, to, "DEBUG") ? LogLevel.DEBUG : null;
+            case 'T':
+                return matches(b, from, to, "TRACE") ? LogLevel.TRACE : null;
+            case 'F':
+                return matches(b, from, to, "FATAL") ? LogLevel.ERROR : null;
+            case 'S':
+                return matches(b, from, to, "SEVERE") ? LogLevel.ERROR : null;
+            default:
+                return null;
+        }
+    }
+    
+    private LogLevel parseLevel(String text) {
+        byte[] b = text.getBytes(StandardCharsets.US_ASCII);
+        return parseLevel(b, 0, b.length);
+    }
+    
+    private static boolean matches(byte[] b, int from, int to, String name) {
+        if (to - from != name.length()) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (Character.toUpperCase(b[from + i]) != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * A word is taken for the logger when it looks like a class name or a "-" or ":" separator
+     * follows it; otherwise, as with patterns without %logger, it is the first word of the message.
+     */
+    private static boolean isLogger(byte[] b, int from, int to, int lineEnd) {
+        if (b[to - 1] == ':' || indexOf(b, (byte) '.', from, to) > from) {
+            return true;
+        }
+        int next = skipSpaces(b, to, lineEnd);
+        return next + 1 == lineEnd && (b[next] == '-' || b[next] == ':')
+                || next + 1 < lineEnd && (b[next] == '-' || b[next] == ':') && (b[next + 1] == ' ' || b[next + 1] == '\t');
+    }
+    
+    private String nilOrName(byte[] b, int from, int to) {
+        return to <= from || (to - from == 1 && b[from] == '-') ? null : names.get(b, from, to);
+    }
+    
+    private void ensureScratch(int length) {
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+    }
+    
+    private static String truncate(String name) {
+        return name != null && name.length() > MAX_NAME_LENGTH ? name.substring(0, MAX_NAME_LENGTH) : name;
+    }
+    
+    private static int digits(byte[] b, int pos, int count) {
+        int value = 0;
+        for (int i = pos; i < pos + count; i++) {
+            if (!isDigit(b[i])) {
+                return -1;
+            }
+            value = value * 10 + (b[i] - '0');
+        }
+        return value;
+    }
+    
+    private static int parseInt(byte[] b, int from, int to) {
+        return digits(b, from, to - from);
+    }
+    
+    private static boolean isDigit(byte c) {
+        return c >= '0' && c <= '9';
+    }
+    
+    private static boolean isDigits(byte[] b, int from, int to) {
+        if (from >= to) {
+            return false;
+        }
+        for (int i = from; i < to; i++) {
+            if (!isDigit(b[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static boolean isDashes(byte[] b, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (b[i] != '-') {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static boolean isBlank(ByteBuffer buf, int from, int to) {
+        for (int i = from; i < to; i++) {
+            byte c = buf.get(i);
+            if (c != ' ' && c != '\t' && c != '\r') {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static int indexOf(byte[] b, byte c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (b[i] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    private static int skipSpaces(byte[] b, int pos, int end) {
+        while (pos < end && (b[pos] == ' ' || b[pos] == '\t')) {
+            pos++;
+        }
+        return pos;
+    }
+    
+    private static int tokenEnd(byte[] b, int pos, int end) {
+        while (pos < end && b[pos] != ' ' && b[pos] != '\t') {
+            pos++;
+        }
+        return pos;
+    }
+    
+    private static int trimEnd(byte[] b, int from, int end) {
+        while (end > from && (b[end - 1] == '\n' || b[end - 1] == '\r' || b[end - 1] == ' ' || b[end - 1] == '\t')) {
+            end--;
+        }
+        return end;
+    }
+    
+    // Removes \r before line breaks in place; returns the new end
+    private static int stripCarriageReturns(byte[] b, int from, int end) {
+        int out = from;
+        for (int i = from; i < end; i++) {
+            if (b[i] != '\r') {
+                b[out++] = b[i];
+            }
+        }
+        return out;
+    }
+    
+    /**
+     * Decoded names by their bytes: a direct-mapped table, where a colliding name replaces the
+     * previous one. Files have few distinct threads, loggers and hosts, so almost every lookup
+     * finds its string without decoding or allocating.
+     */
+    private static final class NameCache {
+        
+        private static final int SIZE = 1024;
+        
+        private final byte[][] keys = new byte[SIZE][];
+        private final String[] values = new String[SIZE];
+        
+        String get(byte[] b, int from, int to) {
+            to = Math.min(to, from + MAX_NAME_LENGTH);
+            if (to <= from) {
+                return null;
+            }
+            int hash = 0x811c9dc5;
+            for (int i = from; i < to; i++) {
+                hash = (hash ^ b[i]) * 0x01000193;
+            }
+            int slot = (hash ^ (hash >>> 16)) & (SIZE - 1);
+            byte[] key = keys[slot];
+            if (key != null && Arrays.equals(key, 0, key.length, b, from, to)) {
+                return values[slot];
+            }
+            String value = new String(b, from, to - from, StandardCharsets.UTF_8);
+            keys[slot] = Arrays.copyOfRange(b, from, to);
+            values[slot] = value;
+            return value;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,234 @@
+package com.loganalytics.service;
+
+import com.loganalytics.dto.FileTailDto;
+import com.loganalytics.dto.LogFileIngestRequestDto;
+import com.loganalytics.model.LogEntry;
+import com.loganalytics.model.LogFileCheckpoint;
+import com.loganalytics.model.LogFileFormat;
+import com.loganalytics.repository.LogFileCheckpointRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Follows growing log files. Every poll stores the complete lines appended since the last one,
+ * and each batch commits together with the new offset in log_file_checkpoints, so after a
+ * restart tailing resumes exactly after the last stored entry. A file that shrank or was
+ * replaced by another one (rotation) is read again from the start; lines appended to the old
+ * file after the last poll are not read.
+ */
+@Service
+public class LogFileTailService {
+    
+    private static final Logger log = LoggerFactory.getLogger(LogFileTailService.class);
+    
+    @Autowired
+    private LogFileCheckpointRepository checkpointRepository;
+    
+    @Autowired
+    private LogFileIngestService fileIngestService;
+    
+    @Autowired
+    private LogService logService;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    // Most bytes mapped and parsed per file and poll, so a large backlog is caught up in steps
+    @Value("${logs.file-ingest.tail.max-read-size:64MB}")
+    private DataSize maxReadSize;
+    
+    private final Map<Long, Tail> tails = new ConcurrentHashMap<>();
+    private Counter bytesCounter;
+    
+    @PostConstruct
+    void resume() {
+        bytesCounter = LogFileIngestService.bytesCounter(meterRegistry, "tail");
+        for (LogFileCheckpoint checkpoint : checkpointRepository.findAll()) {
+            tails.put(checkpoint.getId(), new Tail(checkpoint));
+        }
+        if (!tails.isEmpty()) {
+            log.info("Resuming {} file tails", tails.size());
+        }
+    }
+    
+    /**
+     * Starts tailing a file from its beginning. With format AUTO the file must already have a
+     * first line to detect the format from.
+     */
+    public FileTailDto start(LogFileIngestRequestDto request) {
+        Path path = fileIngestService.resolve(request.getPath());
+        if (checkpointRepository.findByPath(path.toString()).isPresent()) {
+            throw new IllegalStateException("Already tailing " + path);
+        }
+        LogFileFormat format = request.getFormat();
+        if (format == LogFileFormat.AUTO) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                if (channel.size() == 0) {
+                    throw new IllegalArgumentException("Cannot detect the format of an empty file; give the format");
+                }
+                format = fileIngestService.detectFormat(channel, format);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Cannot read " + request.getPath() + ": " + e.getMessage());
+            }
+        }
+        String source = request.getSource() != null && !request.getSource().isBlank()
+                ? request.getSource() : fileIngestService.defaultSource(path);
+        LogFileCheckpoint checkpoint = checkpointRepository.save(new LogFileCheckpoint(path.toString(), format, source));
+        Tail tail = new Tail(checkpoint);
+        tails.put(checkpoint.getId(), tail);
+        log.info("Tailing {} as {}", path, format);
+        return tail.toDto();
+    }
+    
+    public List<FileTailDto> getTails() {
+        return tails.values().stream()
+                .sorted(Comparator.comparingLong(tail -> tail.id))
+                .map(Tail::toDto)
+                .toList();
+    }
+    
+    // Stops tailing and forgets the offset; false when there is no such tail
+    public boolean stop(long id) {
+        Tail tail = tails.remove(id);
+        if (tail == null) {
+            return false;
+        }
+        checkpointRepository.deleteById(id);
+        return true;
+    }
+    
+    @Scheduled(fixedDelayString = "${logs.file-ingest.tail.poll-interval:PT1S}")
+    public void poll() {
+        for (Tail tail : tails.values()) {
+            try {
+                poll(tail);
+                tail.error = null;
+            } catch (IOException | RuntimeException e) {
+                if (!String.valueOf(e.getMessage()).equals(tail.error)) {
+                    log.warn("Tailing {} failed", tail.path, e);
+                }
+                tail.error = String.valueOf(e.getMessage());
+            }
+        }
+    }
+    
+    private void poll(Tail tail) throws IOException {
+        Path path = Paths.get(tail.path);
+        if (!Files.isRegularFile(path)) {
+            throw new IOException("File not found");
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Object key = Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+            String fileKey = key != null ? key.toString() : null;
+            long size = channel.size();
+            boolean replaced = tail.fileKey != null && fileKey != null && !tail.fileKey.equals(fileKey);
+            if (replaced || size < tail.offset) {
+                log.info("{} was rotated, reading it from the start", tail.path);
+                tail.offset = 0;
+                tail.parser = null;
+            }
+            tail.fileKey = fileKey;
+            // Unchanged since the last poll: the last record is complete even without a following one
+            boolean idle = size == tail.size;
+            tail.size = size;
+            if (size <= tail.offset) {
+                return;
+            }
+            
+            long length = Math.min(size - tail.offset, maxReadSize.toBytes());
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, tail.offset, length);
+            // Complete lines only; the writer may be in the middle of the last one
+            int end = (int) length;
+            while (end > 0 && buf.get(end - 1) != '\n') {
+                end--;
+            }
+            if (tail.parser == null) {
+                tail.parser = new LogFileParser(tail.format, tail.source, fileIngestService.getJsonFactory());
+            }
+            // The last complete record is also over when the partial line after it starts the next one
+            boolean endOfInput = end == length ? idle : tail.format.isRecordStart(buf, end, (int) length);
+            int pos = 0;
+            while (pos < end) {
+                List<LogEntry> batch = new ArrayList<>(fileIngestService.getBatchSize());
+                int next = tail.parser.parse(buf, pos, end, fileIngestService.getBatchSize(), batch, endOfInput);
+                if (next == pos) {
+                    break;
+                }
+                long offset = tail.offset + next - pos;
+                if (!batch.isEmpty()) {
+                    LocalDateTime now = LocalDateTime.now();
+                    logService.createEntries(batch, true,
+                            () -> checkpointRepository.updateOffset(tail.id, fileKey, offset, now));
+                    tail.entries += batch.size();
+                    tail.updatedAt = now;
+                }
+                // Without entries (skipped lines only) the offset is saved with the next batch
+                tail.offset = offset;
+                bytesCounter.increment(next - pos);
+                pos = next;
+            }
+        }
+    }
+    
+    private static final class Tail {
+        final long id;
+        final String path;
+        final LogFileFormat format;
+        final String source;
+        volatile String fileKey;
+        volatile long offset;
+        volatile long size = -1;
+        volatile long entries;
+        volatile LocalDateTime updatedAt;
+        volatile String error;
+        // Kept across polls for its name cache; only used by the polling thread
+        LogFileParser parser;
+        
+        Tail(LogFileCheckpoint checkpoint) {
+            this.id = checkpoint.getId();
+            this.path = checkpoint.getPath();
+            this.format = checkpoint.getFormat();
+            this.source = checkpoint.getSource();
+            this.fileKey = checkpoint.getFileKey();
+            this.offset = checkpoint.getFileOffset();
+            this.updatedAt = checkpoint.getUpdatedAt();
+        }
+        
+        FileTailDto toDto() {
+            FileTailDto dto = new FileTailDto();
+            dto.setId(id);
+            dto.setPath(path);
+            dto.setFormat(format);
+            dto.setSource(source);
+            dto.setOffset(offset);
+            dto.setSize(Math.max(size, 0));
+            dto.setEntries(entries);
+            dto.setUpdatedAt(updatedAt);
+            dto.setError(error);
+            return dto;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,521 @@
+package com.loganalytics.service;
+
+import com.loganalytics.dto.LogEntryDto;
+import com.loganalytics.model.LogEntry;
+import com.loganalytics.model.LogLevel;
+import com.loganalytics.repository.LogEntryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Column-wise in-memory copy of the entries of the last {@code logs.hot-tier.window}, loaded at
+ * startup and kept up to date on ingest. Each entry takes a long id, a long timestamp, a byte
+ * level and int dictionary codes for source, thread and logger; only the message stays a String.
+ *
+ * Entries are appended in arrival order to fixed-size chunks that remember their time range, so
+ * queries skip chunks outside the window and scan the rest. A request is answered here only
+ * when its window starts inside the covered range; callers fall back to the database on null.
+ */
+@Service
+public class LogHotTier implements LogIngestListener {
+    
+    private static final Logger log = LoggerFactory.getLogger(LogHotTier.class);
+    
+    private static final LogLevel[] LEVELS = LogLevel.values();
+    private static final int CHUNK_SIZE = 16384;
+    private static final int LOAD_PAGE_SIZE = 5000;
+    private static final int ANY = -2;
+    private static final long NANOS_PER_MINUTE = 60_000_000_000L;
+    private static final Duration GRACE = Duration.ofMinutes(5);
+    
+    @Autowired
+    private LogEntryRepository logRepository;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${logs.hot-tier.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${logs.hot-tier.window:24h}")
+    private Duration window;
+    
+    @Value("${logs.hot-tier.max-entries:2000000}")
+    private int maxEntries;
+    
+    private final StringDictionary sources = new StringDictionary();
+    private final StringDictionary threads = new StringDictionary();
+    private final StringDictionary loggers = new StringDictionary();
+    
+    // Replaced, never modified, when a chunk is added or evicted; appends go to the last chunk
+    private volatile Chunk[] chunks = new Chunk[0];
+    private volatile int entryCount;
+    // Timestamps up to here may belong to evicted entries
+    private volatile long evictedThrough = Long.MIN_VALUE;
+    // Start of the window loaded at startup; nothing is covered until the load completed
+    private volatile long loadedFrom = Long.MAX_VALUE;
+    // Per level, entries before this were deleted by retention and must not be returned
+    private final AtomicLongArray retentionCutoffs = new AtomicLongArray(LEVELS.length);
+    
+    private Counter hitCounter;
+    private Counter missCounter;
+    
+    public record Selection(long total, List<LogEntryDto> rows) {}
+    
+    // References (chunk << 32 | position) to the matches in order, resolved against the chunks they were taken from
+    private record Matches(Chunk[] chunks, long total, long[] ordered) {}
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    @PostConstruct
+    void load() {
+        Gauge.builder("logs.hottier.entries", this, tier -> tier.entryCount)
+                .description("Entries held in the in-memory hot tier")
+                .register(meterRegistry);
+        hitCounter = Counter.builder("logs.hottier.requests").tag("outcome", "hit").register(meterRegistry);
+        missCounter = Counter.builder("logs.hottier.requests").tag("outcome", "miss").register(meterRegistry);
+        if (!enabled) {
+            return;
+        }
+        for (int i = 0; i < LEVELS.length; i++) {
+            retentionCutoffs.set(i, Long.MIN_VALUE);
+        }
+        
+        // Oldest first in keyset pages, the order live entries will arrive in
+        LocalDateTime from = horizon();
+        LocalDateTime cursorTime = null;
+        Long cursorId = null;
+        long loaded = 0;
+        while (true) {
+            List<LogEntry> page = logRepository.findKeysetPage(null, null, from, null, null,
+                    cursorTime, cursorId, true, LOAD_PAGE_SIZE);
+            append(page);
+            loaded += page.size();
+            if (page.size() < LOAD_PAGE_SIZE) {
+                break;
+            }
+            LogEntry last = page.get(page.size() - 1);
+            cursorTime = last.getTimestamp();
+            cursorId = last.getId();
+        }
+        loadedFrom = encode(from);
+        log.info("Hot tier loaded {} entries of the last {}", loaded, window);
+    }
+    
+    @Override
+    public void onLogsIngested(List<LogEntry> entries) {
+        if (enabled) {
+            append(entries);
+        }
+    }
+    
+    // Whether every stored entry with a timestamp at or after start is held here
+    public boolean covers(LocalDateTime start) {
+        return enabled && start != null && encode(start) >= coveredFrom();
+    }
+    
+    /**
+     * Matching entries newest first, or oldest first when {@code ascending}, optionally strictly
+     * past a (timestamp, id) cursor like {@code findKeysetPage}. Returns the number of matches and
+     * the rows from {@code offset} on, or null when the window is not covered.
+     */
+    public Selection find(LogLevel level, String source, LocalDateTime startTime, LocalDateTime endTime,
+                          LocalDateTime cursorTime, Long cursorId, boolean ascending, int offset, int limit) {
+        if (!covers(startTime)) {
+            missCounter.increment();
+            return null;
+        }
+        hitCounter.increment();
+        int sourceCode = source != null ? sources.find(source) : ANY;
+        if (sourceCode < 0 && sourceCode != ANY) {
+            return new Selection(0, List.of());
+        }
+        return scan(level != null ? level.ordinal() : ANY, sourceCode, encode(startTime),
+                endTime != null ? encode(endTime) : Long.MAX_VALUE,
+                cursorTime, cursorId != null ? cursorId : 0, ascending, offset, limit);
+    }
+    
+    /**
+     * Hands the first {@code limit} matches, newest first, to {@code sink} one at a time without
+     * collecting them. Returns the number written, or -1 when the window is not covered.
+     */
+    public int stream(LogLevel level, String source, LocalDateTime startTime, LocalDateTime endTime,
+                      int limit, Consumer<LogEntryDto> sink) {
+        if (!covers(startTime)) {
+            missCounter.increment();
+            return -1;
+        }
+        hitCounter.increment();
+        int sourceCode = source != null ? sources.find(source) : ANY;
+        if (sourceCode < 0 && sourceCode != ANY) {
+            return 0;
+        }
+        Matches matches = match(level != null ? level.ordinal() : ANY, sourceCode, encode(startTime),
+                endTime != null ? encode(endTime) : Long.MAX_VALUE, null, 0, false, limit);
+        for (long ref : matches.ordered()) {
+            sink.accept(toDto(matches.chunks()[(int) (ref >>> 32)], (int) ref));
+        }
+        return matches.ordered().length;
+    }
+    
+    // The newest entries, or null when fewer than limit are covered and older ones may be in the database
+    public List<LogEntryDto> newest(int limit) {
+        if (!enabled) {
+            return null;
+        }
+        long from = coveredFrom();
+        Selection selection = scan(ANY, ANY, from, Long.MAX_VALUE, null, 0, false, 0, limit);
+        if (from == Long.MAX_VALUE || selection.total() < limit) {
+            missCounter.increment();
+            return null;
+        }
+        hitCounter.increment();
+        return selection.rows();
+    }
+    
+    /**
+     * Entry counts per bucket and level, indexed {@code bucket * levels + ordinal}, for buckets of
+     * {@code bucketMinutes} starting at {@code startMinute} (minutes since the epoch, UTC like the
+     * rollups). Entries removed by retention are still counted, as they are in the rollups.
+     * Returns null when the range is not covered.
+     */
+    public long[] countByBucket(long startMinute, long bucketMinutes, int bucketCount, String source) {
+        long from = startMinute * NANOS_PER_MINUTE;
+        if (!enabled || from < coveredFrom()) {
+            missCounter.increment();
+            return null;
+        }
+        hitCounter.increment();
+        long[] counts = new long[bucketCount * LEVELS.length];
+        int sourceCode = source != null ? sources.find(source) : ANY;
+        if (sourceCode < 0 && sourceCode != ANY) {
+            return counts;
+        }
+        long bucketNanos = bucketMinutes * NANOS_PER_MINUTE;
+        long to = from + bucketCount * bucketNanos;
+        for (Chunk chunk : chunks) {
+            int size = chunk.size;
+            if (size == 0 || chunk.maxTimestamp < from || chunk.minTimestamp >= to) {
+                continue;
+            }
+            for (int i = 0; i < size; i++) {
+                long timestamp = chunk.timestamps[i];
+                if (timestamp < from || timestamp >= to || (sourceCode != ANY && chunk.sources[i] != sourceCode)) {
+                    continue;
+                }
+                counts[(int) ((timestamp - from) / bucketNanos) * LEVELS.length + chunk.levels[i]]++;
+            }
+        }
+        return counts;
+    }
+    
+    // Called by retention: entries of the level (any level when null) before the cutoff are gone from the database
+    public void deleteOlderThan(LogLevel level, LocalDateTime cutoff) {
+        long cutoffNanos = encode(cutoff);
+        for (int i = 0; i < LEVELS.length; i++) {
+            if (level == null || level.ordinal() == i) {
+                retentionCutoffs.accumulateAndGet(i, cutoffNanos, Math::max);
+            }
+        }
+    }
+    
+    // Drops chunks that hold nothing inside the window any more
+    @Scheduled(fixedDelayString = "${logs.hot-tier.evict-interval:PT1M}")
+    public synchronized void evictExpired() {
+        long windowStart = encode(horizon());
+        List<Chunk> kept = new ArrayList<>(chunks.length);
+        for (Chunk chunk : chunks) {
+            if (chunk.size > 0 && chunk.maxTimestamp < windowStart && chunk != lastChunk()) {
+                evict(chunk);
+            } else {
+                kept.add(chunk);
+            }
+        }
+        if (kept.size() < chunks.length) {
+            chunks = kept.toArray(new Chunk[0]);
+        }
+    }
+    
+    // A little more than the window, so requests for the same window made a moment earlier are still covered
+    private LocalDateTime horizon() {
+        return LocalDateTime.now().minus(window).minus(GRACE);
+    }
+    
+    private long coveredFrom() {
+        long windowStart = encode(horizon());
+        long afterEvicted = evictedThrough == Long.MIN_VALUE ? Long.MIN_VALUE : evictedThrough + 1;
+        return Math.max(loadedFrom, Math.max(windowStart, afterEvicted));
+    }
+    
+    private synchronized void append(List<LogEntry> entries) {
+        // Older entries would lie before the covered range anyway
+        long floor = Math.max(evictedThrough, encode(horizon()) - 1);
+        Chunk chunk = lastChunk();
+        int count = entryCount;
+        for (LogEntry entry : entries) {
+            long timestamp = encode(entry.getTimestamp());
+            if (timestamp <= floor) {
+                continue;
+            }
+            if (chunk == null || chunk.size == CHUNK_SIZE) {
+                chunk = new Chunk();
+                Chunk[] grown = Arrays.copyOf(chunks, chunks.length + 1);
+                grown[grown.length - 1] = chunk;
+                chunks = grown;
+            }
+            chunk.add(entry.getId(), timestamp, (byte) entry.getLevel().ordinal(),
+                    sources.encode(entry.getSource()), threads.encode(entry.getThread()),
+                    loggers.encode(entry.getLogger()), entry.getTemplateId() != null ? entry.getTemplateId() : 0,
+                    entry.getMessage());
+            count++;
+        }
+        entryCount = count;
+        
+        // Over capacity the oldest chunks go first; coverage then starts after their newest entry
+        while (entryCount > maxEntries && chunks.length > 1) {
+            evict(chunks[0]);
+            chunks = Arrays.copyOfRange(chunks, 1, chunks.length);
+        }
+    }
+    
+    private void evict(Chunk chunk) {
+        evictedThrough = Math.max(evictedThrough, chunk.maxTimestamp);
+        entryCount -= chunk.size;
+    }
+    
+    private Chunk lastChunk() {
+        Chunk[] current = chunks;
+        return current.length > 0 ? current[current.length - 1] : null;
+    }
+    
+    private Selection scan(int level, int source, long from, long to, LocalDateTime cursorTime, long cursorId,
+                           boolean ascending, int offset, int limit) {
+        Matches matches = match(level, source, from, to, cursorTime, cursorId, ascending,
+                (int) Math.min((long) offset + limit, Integer.MAX_VALUE));
+        long[] ordered = matches.ordered();
+        List<LogEntryDto> rows = new ArrayList<>(Math.max(0, ordered.length - offset));
+        for (int r = offset; r < ordered.length; r++) {
+            rows.add(toDto(matches.chunks()[(int) (ordered[r] >>> 32)], (int) ordered[r]));
+        }
+        return new Selection(matches.total(), rows);
+    }
+    
+    // The first k matches in order, as references; only the references are collected, not the entries
+    private Matches match(int level, int source, long from, long to, LocalDateTime cursorTime, long cursorId,
+                          boolean ascending, int k) {
+        Chunk[] snapshot = chunks;
+        long cursor = cursorTime != null ? encode(cursorTime) : 0;
+        long[] cutoffs = new long[LEVELS.length];
+        for (int i = 0; i < cutoffs.length; i++) {
+            cutoffs[i] = retentionCutoffs.get(i);
+        }
+        
+        TopK top = new TopK(snapshot, ascending, k);
+        long total = 0;
+        for (int c = 0; c < snapshot.length; c++) {
+            Chunk chunk = snapshot[c];
+            int size = chunk.size;
+            if (size == 0 || chunk.maxTimestamp < from || chunk.minTimestamp > to) {
+                continue;
+            }
+            for (int i = 0; i < size; i++) {
+                long timestamp = chunk.timestamps[i];
+                if (timestamp < from || timestamp > to) {
+                    continue;
+                }
+                int entryLevel = chunk.levels[i];
+                if ((level != ANY && entryLevel != level) || timestamp < cutoffs[entryLevel]
+                        || (source != ANY && chunk.sources[i] != source)) {
+                    continue;
+                }
+                if (cursorTime != null) {
+                    long id = chunk.ids[i];
+                    boolean past = ascending
+                            ? timestamp > cursor || (timestamp == cursor && id > cursorId)
+                            : timestamp < cursor || (timestamp == cursor && id < cursorId);
+                    if (!past) {
+                        continue;
+                    }
+                }
+                total++;
+                top.offer(((long) c << 32) | i);
+            }
+        }
+        
+        return new Matches(snapshot, total, top.drainInOrder());
+    }
+    
+    private LogEntryDto toDto(Chunk chunk, int i) {
+        LogEntryDto dto = new LogEntryDto();
+        dto.setId(chunk.ids[i]);
+        dto.setTimestamp(decode(chunk.timestamps[i]));
+        dto.setLevel(LEVELS[chunk.levels[i]]);
+        dto.setMessage(chunk.messages[i]);
+        dto.setSource(sources.decode(chunk.sources[i]));
+        dto.setThread(threads.decode(chunk.threads[i]));
+        dto.setLogger(loggers.decode(chunk.loggers[i]));
+        dto.setTemplateId(chunk.templates[i] != 0 ? chunk.templates[i] : null);
+        return dto;
+    }
+    
+    // Nanoseconds since the epoch (UTC, like the rollups), rounded to the microseconds the database keeps
+    static long encode(LocalDateTime timestamp) {
+        long nanos = timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + timestamp.getNano();
+        return Math.floorDiv(nanos + 500, 1000) * 1000;
+    }
+    
+    static LocalDateTime decode(long nanos) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L),
+                (int) Math.floorMod(nanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+    
+    // One writer at a time (the tier's lock); readers see entries up to the volatile size
+    private static final class Chunk {
+        
+        final long[] ids = new long[CHUNK_SIZE];
+        final long[] timestamps = new long[CHUNK_SIZE];
+        final byte[] levels = new byte[CHUNK_SIZE];
+        final int[] sources = new int[CHUNK_SIZE];
+        final int[] threads = new int[CHUNK_SIZE];
+        final int[] loggers = new int[CHUNK_SIZE];
+        // log_templates ids are positive; 0 stands for none
+        final int[] templates = new int[CHUNK_SIZE];
+        final String[] messages = new String[CHUNK_SIZE];
+        volatile long minTimestamp = Long.MAX_VALUE;
+        volatile long maxTimestamp = Long.MIN_VALUE;
+        volatile int size;
+        
+        void add(long id, long timestamp, byte level, int source, int thread, int logger, int template, String message) {
+            int i = size;
+            ids[i] = id;
+            timestamps[i] = timestamp;
+            levels[i] = level;
+            sources[i] = source;
+            threads[i] = thread;
+            loggers[i] = logger;
+            templates[i] = template;
+            messages[i] = message;
+            if (timestamp < minTimestamp) {
+                minTimestamp = timestamp;
+            }
+            if (timestamp > maxTimestamp) {
+                maxTimestamp = timestamp;
+            }
+            size = i + 1;
+        }
+    }
+    
+    /**
+     * The k first entries in (timestamp, id) order, descending unless ascending. A binary heap of
+     * (chunk << 32 | position) references with the last of the kept entries at the root.
+     */
+    private static final class TopK {
+        
+        private final Chunk[] chunks;
+        private final boolean ascending;
+        private final int k;
+        private long[] heap = new long[16];
+        private int size;
+        
+        TopK(Chunk[] chunks, boolean ascending, int k) {
+            this.chunks = chunks;
+            this.ascending = ascending;
+            this.k = k;
+        }
+        
+        void offer(long ref) {
+            if (k == 0) {
+                return;
+            }
+            if (size < k) {
+                if (size == heap.length) {
+                    heap = Arrays.copyOf(heap, (int) Math.min((long) heap.length * 2, k));
+                }
+                heap[size] = ref;
+                siftUp(size++);
+            } else if (before(ref, heap[0])) {
+                heap[0] = ref;
+                siftDown(0);
+            }
+        }
+        
+        // Kept references, first in order first
+        long[] drainInOrder() {
+            long[] ordered = new long[size];
+            for (int i = size - 1; i >= 0; i--) {
+                ordered[i] = heap[0];
+                heap[0] = heap[--size];
+                siftDown(0);
+            }
+            return ordered;
+        }
+        
+        // Whether a comes before b in the requested order
+        private boolean before(long a, long b) {
+            Chunk chunkA = chunks[(int) (a >>> 32)];
+            Chunk chunkB = chunks[(int) (b >>> 32)];
+            int i = (int) a;
+            int j = (int) b;
+            int compare = Long.compare(chunkA.timestamps[i], chunkB.timestamps[j]);
+            if (compare == 0) {
+                compare = Long.compare(chunkA.ids[i], chunkB.ids[j]);
+            }
+            return ascending ? compare < 0 : compare > 0;
+        }
+        
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (!before(heap[parent], heap[i])) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+        
+        private void siftDown(int i) {
+            while (true) {
+                int last = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < size && before(heap[last], heap[left])) {
+                    last = left;
+                }
+                if (right < size && before(heap[last], heap[right])) {
+                    last = right;
+                }
+                if (last == i) {
+                    return;
+                }
+                swap(i, last);
+                i = last;
+            }
+        }
+        
+        private void swap(int i, int j) {
+            long tmp = heap[i];
+            heap[i] = heap[j];
+            heap[j] = tmp;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.loganalytics.service;
+
+import com.loganalytics.model.LogEntry;
+
+import java.util.List;
+
+// Callback for components that maintain derived state from newly stored log entries
+public interface LogIngestListener {
+    
+    // Called after the entries were persisted; entries carry their generated ids
+    void onLogsIngested(List<LogEntry> entries);
+}
@@ -0,0 +1,692 @@
+package com.loganalytics.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.loganalytics.model.LogEntry;
+import com.loganalytics.model.LogFileFormat;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Receives log lines over the network: syslog (RFC 5424 or 3164) over TCP and UDP, and JSON
+ * lines over TCP. A single selector thread reads every socket into pooled direct buffers,
+ * frames lines (or RFC 6587 octet counts) and parses them with {@link LogFileParser}; a writer
+ * thread stores the entries in batches through {@link LogService#createEntries}. A TCP
+ * connection with more than its share of logs.listener.queue-capacity waiting stops being read
+ * until half of its share is stored, so TCP flow control holds back that sender only. When the
+ * whole queue is full, reading stops on every connection until half of it is stored; UDP
+ * datagrams arriving meanwhile are dropped. Disabled unless logs.listener.enabled is set.
+ */
+@Service
+public class LogNetworkListener implements SmartLifecycle {
+    
+    private static final Logger log = LoggerFactory.getLogger(LogNetworkListener.class);
+    
+    // Datagrams read per selector round, so a flood on UDP cannot starve the TCP connections
+    private static final int MAX_DATAGRAMS_PER_ROUND = 1024;
+    
+    // Largest RFC 6587 MSG-LEN taken for an octet count; a larger number starts a plain line
+    private static final long MAX_OCTET_COUNT = 16 * 1024 * 1024;
+    
+    enum Protocol {
+        SYSLOG_TCP("syslog-tcp", LogFileFormat.SYSLOG),
+        SYSLOG_UDP("syslog-udp", LogFileFormat.SYSLOG),
+        JSON_TCP("json-tcp", LogFileFormat.JSON_LINES);
+        
+        final String tag;
+        final LogFileFormat format;
+        
+        Protocol(String tag, LogFileFormat format) {
+            this.tag = tag;
+            this.format = format;
+        }
+    }
+    
+    enum DropReason {
+        // No record of the protocol's format
+        UNPARSEABLE,
+        // Longer than logs.listener.max-line-length
+        TOO_LONG,
+        // UDP while the queue was full
+        QUEUE_FULL
+    }
+    
+    @Autowired
+    private LogService logService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${logs.listener.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${logs.listener.bind-address:0.0.0.0}")
+    private String bindAddress;
+    
+    // 0 leaves a listener off
+    @Value("${logs.listener.syslog-tcp-port:5514}")
+    private int syslogTcpPort;
+    
+    @Value("${logs.listener.syslog-udp-port:5514}")
+    private int syslogUdpPort;
+    
+    @Value("${logs.listener.json-tcp-port:5170}")
+    private int jsonTcpPort;
+    
+    @Value("${logs.listener.max-connections:1000}")
+    private int maxConnections;
+    
+    // Also the size of each pooled read buffer
+    @Value("${logs.listener.max-line-length:64KB}")
+    private DataSize maxLineLength;
+    
+    @Value("${logs.listener.queue-capacity:200000}")
+    private int queueCapacity;
+    
+    @Value("${logs.listener.batch-size:5000}")
+    private int batchSize;
+    
+    @Value("${logs.listener.flush-interval:100ms}")
+    private Duration flushInterval;
+    
+    private Selector selector;
+    private Thread selectorThread;
+    private Thread writerThread;
+    private volatile boolean running;
+    private volatile boolean stopping;
+    
+    private BufferPool bufferPool;
+    private final Set<Connection> connections = new HashSet<>();
+    private final ConcurrentLinkedQueue<Received> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    // Written by the selector thread only
+    private volatile boolean paused;
+    private final Set<Connection> pausedConnections = new HashSet<>();
+    private volatile int pausedConnectionCount;
+    
+    private final Map<Protocol, Counter> receivedCounters = new EnumMap<>(Protocol.class);
+    private final Map<Protocol, Counter> parsedCounters = new EnumMap<>(Protocol.class);
+    private final Map<Protocol, Counter[]> droppedCounters = new EnumMap<>(Protocol.class);
+    private Counter storeFailedCounter;
+    private Counter pausesCounter;
+    private Counter connectionPausesCounter;
+    
+    // A parsed entry and the TCP connection it came from, null for UDP
+    private record Received(LogEntry entry, Connection connection) {}
+    
+    @Override
+    public void start() {
+        running = true;
+        if (!enabled) {
+            return;
+        }
+        try {
+            selector = Selector.open();
+            if (syslogTcpPort > 0) {
+                bindTcp(syslogTcpPort, Protocol.SYSLOG_TCP);
+            }
+            if (jsonTcpPort > 0) {
+                bindTcp(jsonTcpPort, Protocol.JSON_TCP);
+            }
+            if (syslogUdpPort > 0) {
+                DatagramChannel channel = DatagramChannel.open();
+                channel.setOption(StandardSocketOptions.SO_RCVBUF, 4 * 1024 * 1024);
+                channel.bind(new InetSocketAddress(bindAddress, syslogUdpPort));
+                channel.configureBlocking(false);
+                channel.register(selector, SelectionKey.OP_READ, new Datagrams(channel, parser(Protocol.SYSLOG_UDP, null)));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot open log listener: " + e.getMessage(), e);
+        }
+        bufferPool = new BufferPool((int) maxLineLength.toBytes(), maxConnections);
+        registerMetrics();
+        
+        selectorThread = new Thread(this::runSelector, "log-listener");
+        selectorThread.start();
+        writerThread = new Thread(this::runWriter, "log-listener-writer");
+        writerThread.start();
+        log.info("Log listener started on {} (syslog tcp={}, udp={}, json tcp={})",
+                bindAddress, syslogTcpPort, syslogUdpPort, jsonTcpPort);
+    }
+    
+    @Override
+    public void stop() {
+        if (enabled && selectorThread != null) {
+            // Stop reading, then let the writer store what was already parsed
+            stopping = true;
+            selector.wakeup();
+            try {
+                selectorThread.join();
+                writerThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            log.info("Log listener stopped, {} entries left unstored", queued.get());
+        }
+        running = false;
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    // Like the async ingest: stop after the web server, before the services the writer needs
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+    
+    private void bindTcp(int port, Protocol protocol) throws IOException {
+        ServerSocketChannel server = ServerSocketChannel.open();
+        server.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        server.bind(new InetSocketAddress(bindAddress, port), 1024);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT, protocol);
+    }
+    
+    private LogFileParser parser(Protocol protocol, String defaultSource) {
+        return new LogFileParser(protocol.format, defaultSource, objectMapper.getFactory());
+    }
+    
+    private void runSelector() {
+        try {
+            while (!stopping) {
+                selector.select(100);
+                for (SelectionKey key : selector.selectedKeys()) {
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    try {
+                        if (key.isAcceptable()) {
+                            accept((ServerSocketChannel) key.channel(), (Protocol) key.attachment());
+                        } else if (key.attachment() instanceof Connection connection) {
+                            read(connection);
+                        } else if (key.attachment() instanceof Datagrams datagrams) {
+                            receive(datagrams);
+                        }
+                    } catch (IOException e) {
+                        if (key.attachment() instanceof Connection connection) {
+                            close(connection);
+                        } else {
+                            log.warn("Log listener I/O error: {}", e.getMessage());
+                        }
+                    } catch (RuntimeException e) {
+                        // A failure on one connection must not stop the selector for all of them
+                        log.warn("Log listener failed to read from {}", key.channel(), e);
+                        if (key.attachment() instanceof Connection connection) {
+                            close(connection);
+                        }
+                    }
+                }
+                selector.selectedKeys().clear();
+                updateBackpressure();
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            log.error("Log listener stopped unexpectedly", e);
+        } finally {
+            for (Connection connection : new ArrayList<>(connections)) {
+                close(connection);
+            }
+            for (SelectionKey key : selector.keys()) {
+                closeQuietly(key);
+            }
+            try {
+                selector.close();
+            } catch (IOException ignored) {
+                // shutting down
+            }
+        }
+    }
+    
+    private void accept(ServerSocketChannel server, Protocol protocol) throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            if (connections.size() >= maxConnections) {
+                channel.close();
+                continue;
+            }
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            SocketAddress remote = channel.getRemoteAddress();
+            String host = remote instanceof InetSocketAddress inet ? inet.getAddress().getHostAddress() : String.valueOf(remote);
+            Connection connection = new Connection(channel, protocol, bufferPool.acquire(), parser(protocol, host));
+            connection.key = channel.register(selector, paused ? 0 : SelectionKey.OP_READ, connection);
+            connections.add(connection);
+        }
+    }
+    
+    private void read(Connection connection) throws IOException {
+        ByteBuffer buf = connection.buffer;
+        int read = connection.channel.read(buf);
+        if (read < 0) {
+            // The last line may come without a line break
+            buf.flip();
+            frame(connection, true, Integer.MAX_VALUE);
+            close(connection);
+            return;
+        }
+        process(connection);
+    }
+    
+    // Frames what the buffer holds, pausing the connection once it reaches its share of the queue
+    private void process(Connection connection) {
+        ByteBuffer buf = connection.buffer;
+        buf.flip();
+        int share = share();
+        frame(connection, false, share);
+        buf.compact();
+        if (connection.pending.get() >= share) {
+            // The rest stays buffered, a full buffer included, until the connection resumes
+            if (!connection.paused) {
+                pause(connection);
+            }
+            return;
+        }
+        if (!buf.hasRemaining()) {
+            // A full buffer without one complete line: drop up to the next line break
+            receivedCounters.get(connection.protocol).increment();
+            drop(connection.protocol, DropReason.TOO_LONG);
+            buf.clear();
+            connection.discarding = true;
+        }
+    }
+    
+    // Takes the complete lines or octet-counted frames off the front of the buffer (in read mode),
+    // stopping once share entries of the connection wait to be stored
+    private void frame(Connection connection, boolean endOfStream, int share) {
+        ByteBuffer buf = connection.buffer;
+        int pos = buf.position();
+        int limit = buf.limit();
+        while (pos < limit && connection.pending.get() < share) {
+            if (connection.skip > 0) {
+                int skipped = (int) Math.min(connection.skip, limit - pos);
+                connection.skip -= skipped;
+                pos += skipped;
+                continue;
+            }
+            if (connection.discarding) {
+                int newline = indexOf(buf, (byte) '\n', pos, limit);
+                if (newline < 0) {
+                    pos = limit;
+                    break;
+                }
+                connection.discarding = false;
+                pos = newline + 1;
+                continue;
+            }
+            if (connection.protocol == Protocol.SYSLOG_TCP && buf.get(pos) >= '1' && buf.get(pos) <= '9') {
+                // RFC 6587 octet counting: MSG-LEN SP SYSLOG-MSG
+                int space = indexOf(buf, (byte) ' ', pos, Math.min(limit, pos + 11));
+                int digitsEnd = space >= 0 ? space : Math.min(limit, pos + 11);
+                long length = octetCount(buf, pos, digitsEnd);
+                if (space < 0 && length >= 0 && limit - pos < 11 && !endOfStream) {
+                    // The count may not be complete yet
+                    break;
+                }
+                if (space >= 0 && length >= 0 && length <= MAX_OCTET_COUNT) {
+                    // After a compact the frame starts the buffer, count included; one that cannot fit is skipped
+                    if ((space + 1 - pos) + length > buf.capacity()) {
+                        receivedCounters.get(connection.protocol).increment();
+                        drop(connection.protocol, DropReason.TOO_LONG);
+                        connection.skip = length;
+                        pos = space + 1;
+                        continue;
+                    }
+                    if (space + 1 + length > limit) {
+                        break;
+                    }
+                    record(connection, buf, space + 1, (int) (space + 1 + length));
+                    pos = (int) (space + 1 + length);
+                    continue;
+                }
+                // Not a count (e.g. a line starting with a date): the frame is a line
+            }
+            int newline = indexOf(buf, (byte) '\n', pos, limit);
+            if (newline < 0) {
+                if (endOfStream) {
+                    record(connection, buf, pos, limit);
+                    pos = limit;
+                }
+                break;
+            }
+            record(connection, buf, pos, newline);
+            pos = newline + 1;
+        }
+        buf.position(pos);
+    }
+    
+    // The decimal number in the bytes, or -1 when one of them is not a digit
+    private static long octetCount(ByteBuffer buf, int from, int to) {
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            byte b = buf.get(i);
+            if (b < '0' || b > '9') {
+                return -1;
+            }
+            value = value * 10 + (b - '0');
+        }
+        return value;
+    }
+    
+    private void record(Connection connection, ByteBuffer buf, int from, int to) {
+        while (to > from && (buf.get(to - 1) == '\r' || buf.get(to - 1) == '\n')) {
+            to--;
+        }
+        if (to == from) {
+            // Empty keep-alive lines
+            return;
+        }
+        receivedCounters.get(connection.protocol).increment();
+        enqueue(connection.parser.parseRecord(buf, from, to), connection.protocol, connection);
+    }
+    
+    private void receive(Datagrams datagrams) throws IOException {
+        ByteBuffer buf = datagrams.buffer;
+        for (int i = 0; i < MAX_DATAGRAMS_PER_ROUND; i++) {
+            buf.clear();
+            SocketAddress sender = datagrams.channel.receive(buf);
+            if (sender == null) {
+                return;
+            }
+            buf.flip();
+            int to = buf.limit();
+            while (to > 0 && (buf.get(to - 1) == '\n' || buf.get(to - 1) == '\r' || buf.get(to - 1) == 0)) {
+                to--;
+            }
+            if (to == 0) {
+                continue;
+            }
+            receivedCounters.get(Protocol.SYSLOG_UDP).increment();
+            if (queued.get() >= queueCapacity) {
+                drop(Protocol.SYSLOG_UDP, DropReason.QUEUE_FULL);
+                continue;
+            }
+            LogEntry entry = datagrams.parser.parseRecord(buf, 0, to);
+            if (entry != null && entry.getSource() == null && sender instanceof InetSocketAddress inet) {
+                entry.setSource(inet.getAddress().getHostAddress());
+            }
+            enqueue(entry, Protocol.SYSLOG_UDP, null);
+        }
+    }
+    
+    private void enqueue(LogEntry entry, Protocol protocol, Connection connection) {
+        if (entry == null) {
+            drop(protocol, DropReason.UNPARSEABLE);
+            return;
+        }
+        parsedCounters.get(protocol).increment();
+        queue.add(new Received(entry, connection));
+        queued.incrementAndGet();
+        if (connection != null) {
+            connection.pending.incrementAndGet();
+        }
+    }
+    
+    private void drop(Protocol protocol, DropReason reason) {
+        droppedCounters.get(protocol)[reason.ordinal()].increment();
+    }
+    
+    // A connection's part of the queue; one sender alone may fill all of it
+    private int share() {
+        return Math.max(1, queueCapacity / Math.max(1, connections.size()));
+    }
+    
+    // Stops reading from a connection over its share until half of the share is stored
+    private void pause(Connection connection) {
+        connection.paused = true;
+        pausedConnections.add(connection);
+        pausedConnectionCount = pausedConnections.size();
+        connectionPausesCounter.increment();
+        updateReadInterest(connection);
+    }
+    
+    // Resumes connections back under half their share; stops reading from all of them while the whole queue is full
+    private void updateBackpressure() {
+        int waiting = queued.get();
+        if (!paused && waiting >= queueCapacity) {
+            paused = true;
+            pausesCounter.increment();
+            connections.forEach(this::updateReadInterest);
+        } else if (paused && waiting <= queueCapacity / 2) {
+            paused = false;
+            connections.forEach(this::updateReadInterest);
+        }
+        
+        if (!pausedConnections.isEmpty()) {
+            int resumeAt = share() / 2;
+            List<Connection> resumed = new ArrayList<>();
+            Iterator<Connection> iterator = pausedConnections.iterator();
+            while (iterator.hasNext()) {
+                Connection connection = iterator.next();
+                if (connection.pending.get() <= resumeAt) {
+                    connection.paused = false;
+                    iterator.remove();
+                    resumed.add(connection);
+                }
+            }
+            pausedConnectionCount = pausedConnections.size();
+            // Outside the iteration: processing may pause or close the connection again
+            for (Connection connection : resumed) {
+                updateReadInterest(connection);
+                resume(connection);
+            }
+        }
+    }
+    
+    // Frames what arrived before the pause; the sender may have nothing more to send that would trigger a read
+    private void resume(Connection connection) {
+        try {
+            process(connection);
+        } catch (RuntimeException e) {
+            log.warn("Log listener failed to read from {}", connection.channel, e);
+            close(connection);
+        }
+    }
+    
+    private void updateReadInterest(Connection connection) {
+        if (connection.key.isValid()) {
+            connection.key.interestOps(paused || connection.paused ? 0 : SelectionKey.OP_READ);
+        }
+    }
+    
+    private void close(Connection connection) {
+        if (connections.remove(connection)) {
+            if (pausedConnections.remove(connection)) {
+                pausedConnectionCount = pausedConnections.size();
+            }
+            closeQuietly(connection.key);
+            bufferPool.release(connection.buffer);
+        }
+    }
+    
+    private static void closeQuietly(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException ignored) {
+            // already gone
+        }
+    }
+    
+    private void runWriter() {
+        long waitNanos = flushInterval.toNanos();
+        List<Received> received = new ArrayList<>(batchSize);
+        List<LogEntry> batch = new ArrayList<>(batchSize);
+        while (true) {
+            Received next;
+            while (batch.size() < batchSize && (next = queue.poll()) != null) {
+                received.add(next);
+                batch.add(next.entry());
+            }
+            if (batch.isEmpty()) {
+                if (stopping && !selectorThread.isAlive()) {
+                    return;
+                }
+                LockSupport.parkNanos(waitNanos);
+                continue;
+            }
+            try {
+                logService.createEntries(batch, true, null);
+            } catch (RuntimeException e) {
+                log.warn("Storing {} received entries failed: {}", batch.size(), e.getMessage());
+                storeFailedCounter.increment(batch.size());
+            }
+            for (Received stored : received) {
+                if (stored.connection() != null) {
+                    stored.connection().pending.decrementAndGet();
+                }
+            }
+            int waiting = queued.addAndGet(-batch.size());
+            received.clear();
+            batch = new ArrayList<>(batchSize);
+            if ((paused && waiting <= queueCapacity / 2) || pausedConnectionCount > 0) {
+                selector.wakeup();
+            }
+        }
+    }
+    
+    private static int indexOf(ByteBuffer buf, byte c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buf.get(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    private void registerMetrics() {
+        for (Protocol protocol : Protocol.values()) {
+            receivedCounters.put(protocol, Counter.builder("logs.listener.received")
+                    .description("Lines or datagrams received by the log listener")
+                    .tag("protocol", protocol.tag)
+                    .register(meterRegistry));
+            parsedCounters.put(protocol, Counter.builder("logs.listener.parsed")
+                    .description("Received lines parsed into entries and queued for storing")
+                    .tag("protocol", protocol.tag)
+                    .register(meterRegistry));
+            Counter[] dropped = new Counter[DropReason.values().length];
+            for (DropReason reason : DropReason.values()) {
+                dropped[reason.ordinal()] = Counter.builder("logs.listener.dropped")
+                        .description("Received lines that were not stored")
+                        .tag("protocol", protocol.tag)
+                        .tag("reason", reason.name().toLowerCase())
+                        .register(meterRegistry);
+            }
+            droppedCounters.put(protocol, dropped);
+        }
+        // Batches mix protocols
+        storeFailedCounter = Counter.builder("logs.listener.dropped")
+                .tag("protocol", "all")
+                .tag("reason", "store_failed")
+                .register(meterRegistry);
+        pausesCounter = Counter.builder("logs.listener.pauses")
+                .description("Times reading from TCP connections stopped because the queue was full")
+                .register(meterRegistry);
+        connectionPausesCounter = Counter.builder("logs.listener.connection.pauses")
+                .description("Times reading from one TCP connection stopped because it had more than its share of the queue")
+                .register(meterRegistry);
+        Gauge.builder("logs.listener.queue.depth", queued, AtomicInteger::get)
+                .description("Parsed entries waiting to be stored")
+                .register(meterRegistry);
+        Gauge.builder("logs.listener.connections", connections, Set::size)
+                .description("Open TCP connections of the log listener")
+                .register(meterRegistry);
+    }
+    
+    private static final class Connection {
+        final SocketChannel channel;
+        final Protocol protocol;
+        final ByteBuffer buffer;
+        // One per connection, for the name cache and the sender's address as default source
+        final LogFileParser parser;
+        SelectionKey key;
+        // Entries parsed from this connection and not stored yet; decremented by the writer
+        final AtomicInteger pending = new AtomicInteger();
+        boolean paused;
+        // Dropping the rest of an overlong line, or of an overlong octet-counted frame
+        boolean discarding;
+        long skip;
+        
+        Connection(SocketChannel channel, Protocol protocol, ByteBuffer buffer, LogFileParser parser) {
+            this.channel = channel;
+            this.protocol = protocol;
+            this.buffer = buffer;
+            this.parser = parser;
+        }
+    }
+    
+    private static final class Datagrams {
+        final DatagramChannel channel;
+        final LogFileParser parser;
+        // Largest UDP payload
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(65535);
+        
+        Datagrams(DatagramChannel channel, LogFileParser parser) {
+            this.channel = channel;
+            this.parser = parser;
+        }
+    }
+    
+    /**
+     * Direct read buffers of one size, reused across connections: allocating and freeing
+     * direct memory is far slower than a heap array, and a connection's buffer is only needed
+     * while it is open. Used by the selector thread only.
+     */
+    private static final class BufferPool {
+        private final int bufferSize;
+        private final int maxPooled;
+        private final ArrayDeque<ByteBuffer> free = new ArrayDeque<>();
+        
+        BufferPool(int bufferSize, int maxPooled) {
+            this.bufferSize = bufferSize;
+            this.maxPooled = maxPooled;
+        }
+        
+        ByteBuffer acquire() {
+            ByteBuffer buffer = free.poll();
+            return buffer != null ? buffer : ByteBuffer.allocateDirect(bufferSize);
+        }
+        
+        void release(ByteBuffer buffer) {
+            buffer.clear();
+            if (free.size() < maxPooled) {
+                free.push(buffer);
+            }
+        }
+    }
+}
\ No newline at end of file
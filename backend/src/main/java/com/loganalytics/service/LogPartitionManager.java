@@ -0,0 +1,87 @@
+package com.loganalytics.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates the daily partitions of log_entries ahead of time and drops expired ones.
+ * Only active on PostgreSQL, where the table is declared PARTITION BY RANGE (timestamp).
+ */
+@Component
+@ConditionalOnProperty(name = "logs.partitioning.enabled", havingValue = "true")
+public class LogPartitionManager {
+    
+    private static final Logger log = LoggerFactory.getLogger(LogPartitionManager.class);
+    
+    private static final String PREFIX = "log_entries_p";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.BASIC_ISO_DATE;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Value("${logs.partitioning.days-ahead:3}")
+    private int daysAhead;
+    
+    @PostConstruct
+    void init() {
+        createUpcomingPartitions();
+    }
+    
+    @Scheduled(cron = "${logs.partitioning.cron:0 5 0 * * *}")
+    public void createUpcomingPartitions() {
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i <= daysAhead; i++) {
+            createPartition(today.plusDays(i));
+        }
+    }
+    
+    /**
+     * Drops every daily partition that ends on or before {@code cutoff}. Dropping a partition
+     * removes its rows without scanning them. Returns the names of the dropped partitions.
+     */
+    public List<String> dropPartitionsBefore(LocalDate cutoff) {
+        List<String> dropped = new ArrayList<>();
+        for (String name : listDailyPartitions()) {
+            LocalDate day = LocalDate.parse(name.substring(PREFIX.length()), SUFFIX);
+            if (!day.plusDays(1).isAfter(cutoff)) {
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + name);
+                dropped.add(name);
+            }
+        }
+        if (!dropped.isEmpty()) {
+            log.info("Dropped log partitions {}", dropped);
+        }
+        return dropped;
+    }
+    
+    public List<String> listDailyPartitions() {
+        return jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                "WHERE i.inhparent = 'log_entries'::regclass AND c.relname ~ '^log_entries_p[0-9]{8}$' " +
+                "ORDER BY c.relname", String.class);
+    }
+    
+    private void createPartition(LocalDate day) {
+        String name = PREFIX + day.format(SUFFIX);
+        try {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + name + " PARTITION OF log_entries " +
+                    "FOR VALUES FROM ('" + day + "') TO ('" + day.plusDays(1) + "')");
+        } catch (DataAccessException e) {
+            // Overlaps the legacy partition or rows for that day already sit in the default partition
+            log.warn("Could not create log partition {}: {}", name, e.getMostSpecificCause().getMessage());
+        }
+    }
+}
\ No newline at end of file
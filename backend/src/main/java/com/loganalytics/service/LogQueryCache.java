@@ -0,0 +1,269 @@
+package com.loganalytics.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.loganalytics.dto.LogEntryDto;
+import com.loganalytics.model.LogEntry;
+import com.loganalytics.model.LogLevel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Caches /api/logs/timeseries counts and the newest entries between ingests.
+ *
+ * Counts are cached per bucket, not per request: a window whose older buckets are cached only
+ * computes the missing ones, and an ingest only drops the buckets its entries fall into (for
+ * every bucket size, with and without the source filter). The newest entries are only dropped
+ * when an ingested entry would appear among them. Concurrent requests missing the same keys wait
+ * for one computation instead of each running it. Entries also expire after the ttl, which bounds
+ * how stale they get when another instance writes to the same database.
+ */
+@Service
+public class LogQueryCache {
+    
+    private static final int LEVELS = LogLevel.values().length;
+    private static final TimeBucket[] BUCKETS = TimeBucket.values();
+    
+    @Value("${logs.cache.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${logs.cache.max-entries:100000}")
+    private long maxEntries;
+    
+    @Value("${logs.cache.ttl:PT10M}")
+    private Duration ttl;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    // Source null counts every source; entries without a source are counted under ""
+    public record BucketKey(TimeBucket bucket, String source, long startMinute) {}
+    
+    // Counts by level for bucketCount consecutive buckets from startMinute, indexed bucket * levels + ordinal
+    @FunctionalInterface
+    public interface BucketLoader {
+        long[] load(long startMinute, int bucketCount);
+    }
+    
+    private record MinuteSource(long minute, String source) {}
+    
+    private AsyncCache<BucketKey, long[]> buckets;
+    
+    // Keyed by limit
+    private AsyncCache<Integer, List<LogEntryDto>> newest;
+    
+    private Counter[] bucketRequests;
+    private Counter[] newestRequests;
+    
+    @PostConstruct
+    void init() {
+        buckets = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .buildAsync();
+        newest = Caffeine.newBuilder()
+                .maximumSize(16)
+                .expireAfterWrite(ttl)
+                .buildAsync();
+        bucketRequests = registerMetrics("timeseries", buckets);
+        newestRequests = registerMetrics("recent", newest);
+    }
+    
+    /**
+     * Counts for bucketCount consecutive buckets from startMinute, in the layout of
+     * {@link BucketLoader}. Buckets neither cached nor being loaded by another request are loaded
+     * with a single loader call spanning the first to the last of them.
+     */
+    public long[] bucketCounts(TimeBucket bucket, String source, long startMinute, int bucketCount, BucketLoader loader) {
+        if (!enabled) {
+            return loader.load(startMinute, bucketCount);
+        }
+        long bucketMinutes = bucket.getMinutes();
+        ConcurrentMap<BucketKey, CompletableFuture<long[]>> map = buckets.asMap();
+        List<CompletableFuture<long[]>> futures = new ArrayList<>(bucketCount);
+        // Futures this request has to complete, by bucket index
+        List<CompletableFuture<long[]>> owned = new ArrayList<>(Collections.nCopies(bucketCount, null));
+        int first = -1;
+        int last = -1;
+        for (int i = 0; i < bucketCount; i++) {
+            BucketKey key = new BucketKey(bucket, source, startMinute + i * bucketMinutes);
+            CompletableFuture<long[]> future = map.get(key);
+            if (future == null) {
+                CompletableFuture<long[]> created = new CompletableFuture<>();
+                future = map.putIfAbsent(key, created);
+                if (future == null) {
+                    future = created;
+                    owned.set(i, created);
+                    first = first < 0 ? i : first;
+                    last = i;
+                }
+            }
+            record(bucketRequests, owned.get(i) != null, future);
+            futures.add(future);
+        }
+        
+        if (first >= 0) {
+            try {
+                long[] loaded = loader.load(startMinute + first * bucketMinutes, last - first + 1);
+                for (int i = first; i <= last; i++) {
+                    if (owned.get(i) != null) {
+                        owned.get(i).complete(Arrays.copyOfRange(loaded, (i - first) * LEVELS, (i - first + 1) * LEVELS));
+                    }
+                }
+            } catch (RuntimeException e) {
+                // Failed futures are removed from the cache, so the next request loads them again
+                for (int i = first; i <= last; i++) {
+                    if (owned.get(i) != null) {
+                        owned.get(i).completeExceptionally(e);
+                    }
+                }
+                throw e;
+            }
+        }
+        
+        long[] counts = new long[bucketCount * LEVELS];
+        for (int i = 0; i < bucketCount; i++) {
+            System.arraycopy(join(futures.get(i)), 0, counts, i * LEVELS, LEVELS);
+        }
+        return counts;
+    }
+    
+    // The newest entries, newest first; the returned list is shared and must not be modified
+    public List<LogEntryDto> newest(int limit, Supplier<List<LogEntryDto>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        CompletableFuture<List<LogEntryDto>> created = new CompletableFuture<>();
+        CompletableFuture<List<LogEntryDto>> future = newest.asMap().putIfAbsent(limit, created);
+        record(newestRequests, future == null, future);
+        if (future != null) {
+            return join(future);
+        }
+        try {
+            List<LogEntryDto> entries = Collections.unmodifiableList(loader.get());
+            created.complete(entries);
+            return entries;
+        } catch (RuntimeException e) {
+            created.completeExceptionally(e);
+            throw e;
+        }
+    }
+    
+    /**
+     * Drops everything the stored entries change: the buckets they fall into and the newest
+     * entries lists they would appear in. Called after the entries are visible to the loaders.
+     */
+    public void invalidate(List<LogEntry> entries) {
+        if (!enabled || entries.isEmpty()) {
+            return;
+        }
+        Set<MinuteSource> touched = new HashSet<>();
+        LocalDateTime latest = null;
+        for (LogEntry entry : entries) {
+            touched.add(new MinuteSource(LogRollupService.epochMinute(entry.getTimestamp()),
+                    entry.getSource() != null ? entry.getSource() : ""));
+            if (latest == null || entry.getTimestamp().isAfter(latest)) {
+                latest = entry.getTimestamp();
+            }
+        }
+        
+        Set<BucketKey> keys = new HashSet<>();
+        for (MinuteSource minuteSource : touched) {
+            for (TimeBucket bucket : BUCKETS) {
+                long start = Math.floorDiv(minuteSource.minute(), bucket.getMinutes()) * bucket.getMinutes();
+                keys.add(new BucketKey(bucket, null, start));
+                keys.add(new BucketKey(bucket, minuteSource.source(), start));
+            }
+        }
+        buckets.synchronous().invalidateAll(keys);
+        
+        for (Map.Entry<Integer, CompletableFuture<List<LogEntryDto>>> cached : newest.asMap().entrySet()) {
+            CompletableFuture<List<LogEntryDto>> future = cached.getValue();
+            // A load in progress may or may not have seen the entries
+            List<LogEntryDto> list = future.isDone() && !future.isCompletedExceptionally() ? future.join() : null;
+            if (list == null || list.size() < cached.getKey()
+                    || !latest.isBefore(list.get(list.size() - 1).getTimestamp())) {
+                newest.asMap().remove(cached.getKey(), future);
+            }
+        }
+    }
+    
+    // Drops the cached newest entries, for when entries are deleted
+    public void invalidateRecent() {
+        newest.synchronous().invalidateAll();
+    }
+    
+    private Counter[] registerMetrics(String cache, AsyncCache<?, ?> asyncCache) {
+        // Indexed hit, miss, coalesced; coalesced requests waited for another request's load
+        Counter[] counters = new Counter[3];
+        String[] results = {"hit", "miss", "coalesced"};
+        for (int i = 0; i < results.length; i++) {
+            counters[i] = Counter.builder("logs.cache.requests")
+                    .description("Query cache lookups; timeseries counts one per bucket")
+                    .tag("cache", cache)
+                    .tag("result", results[i])
+                    .register(meterRegistry);
+        }
+        Gauge.builder("logs.cache.ratio", counters, c -> ratio(c, c[0]))
+                .description("Share of query cache lookups with this result since startup")
+                .tag("cache", cache)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        Gauge.builder("logs.cache.ratio", counters, c -> ratio(c, c[1]))
+                .description("Share of query cache lookups with this result since startup")
+                .tag("cache", cache)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("logs.cache.size", asyncCache, c -> c.synchronous().estimatedSize())
+                .description("Entries in the query cache")
+                .tag("cache", cache)
+                .register(meterRegistry);
+        return counters;
+    }
+    
+    private static double ratio(Counter[] counters, Counter counter) {
+        double total = counters[0].count() + counters[1].count() + counters[2].count();
+        return total == 0 ? 0 : counter.count() / total;
+    }
+    
+    private static void record(Counter[] counters, boolean miss, CompletableFuture<?> future) {
+        if (miss) {
+            counters[1].increment();
+        } else if (future.isDone()) {
+            counters[0].increment();
+        } else {
+            counters[2].increment();
+        }
+    }
+    
+    // Rethrows a failed load the way the loading request saw it
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,143 @@
+package com.loganalytics.service;
+
+import com.loganalytics.model.LogLevel;
+import com.loganalytics.repository.LogEntryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Deletes log entries once they are older than the retention configured for their level.
+ * Counts are already kept in the rollups, which are flushed first, so /stats and /timeseries
+ * do not change when raw entries go away.
+ */
+@Service
+public class LogRetentionService {
+    
+    private static final Logger log = LoggerFactory.getLogger(LogRetentionService.class);
+    
+    private static final LogLevel[] LEVELS = LogLevel.values();
+    
+    @Autowired
+    private LogEntryRepository logRepository;
+    
+    @Autowired
+    private LogRollupService rollupService;
+    
+    @Autowired
+    private LogSearchIndex searchIndex;
+    
+    @Autowired
+    private LogHotTier hotTier;
+    
+    @Autowired
+    private LogQueryCache queryCache;
+    
+    @Autowired(required = false)
+    private LogPartitionManager partitionManager;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private Environment environment;
+    
+    @Value("${logs.retention.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${logs.retention.max-age.default:7d}")
+    private Duration defaultMaxAge;
+    
+    @Value("${logs.retention.chunk-size:5000}")
+    private int chunkSize;
+    
+    @Value("${logs.retention.max-chunks-per-run:200}")
+    private int maxChunksPerRun;
+    
+    private final Duration[] maxAges = new Duration[LEVELS.length];
+    private final Counter[] deletedCounters = new Counter[LEVELS.length];
+    
+    @PostConstruct
+    void init() {
+        for (LogLevel level : LEVELS) {
+            maxAges[level.ordinal()] = environment.getProperty(
+                    "logs.retention.max-age." + level.name().toLowerCase(), Duration.class, defaultMaxAge);
+            deletedCounters[level.ordinal()] = Counter.builder("logs.retention.deleted")
+                    .description("Log entries deleted by the retention job")
+                    .tag("level", level.name())
+                    .register(meterRegistry);
+        }
+        if (enabled) {
+            log.info("Log retention: {}", Arrays.toString(maxAges));
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${logs.retention.interval:PT10M}",
+               initialDelayString = "${logs.retention.initial-delay:PT1M}")
+    public void purge() {
+        if (!enabled) {
+            return;
+        }
+        
+        // Persist pending rollup counts before the raw entries they were derived from are gone
+        rollupService.flush();
+        
+        LocalDateTime now = LocalDateTime.now();
+        if (partitionManager != null) {
+            // A day past the longest retention holds nothing worth keeping, so drop it whole
+            Duration longest = Arrays.stream(maxAges).max(Duration::compareTo).orElse(defaultMaxAge);
+            partitionManager.dropPartitionsBefore(now.minus(longest).toLocalDate());
+        }
+        
+        int chunksLeft = maxChunksPerRun;
+        for (LogLevel level : LEVELS) {
+            LocalDateTime cutoff = now.minus(maxAges[level.ordinal()]);
+            long deleted = 0;
+            int count = chunkSize;
+            while (count == chunkSize && chunksLeft > 0) {
+                // One short transaction per chunk so locks are never held for long
+                count = new TransactionTemplate(transactionManager).execute(status ->
+                        logRepository.deleteChunkOlderThan(level.name(), cutoff, chunkSize));
+                deleted += count;
+                chunksLeft--;
+            }
+            
+            if (deleted > 0) {
+                deletedCounters[level.ordinal()].increment(deleted);
+                log.info("Deleted {} {} entries older than {}", deleted, level, cutoff);
+            }
+            deleteFromIndex(level, cutoff);
+            hotTier.deleteOlderThan(level, cutoff);
+        }
+        // Deleted entries may still be among the cached newest ones; bucket counts do not change
+        queryCache.invalidateRecent();
+        if (chunksLeft == 0) {
+            log.info("Retention stopped after {} chunks, the remaining entries are deleted on the next run", maxChunksPerRun);
+        }
+    }
+    
+    private void deleteFromIndex(LogLevel level, LocalDateTime cutoff) {
+        try {
+            searchIndex.deleteOlderThan(level, cutoff);
+        } catch (IOException e) {
+            log.warn("Could not delete expired entries from the search index: {}", e.getMessage());
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,332 @@
+package com.loganalytics.service;
+
+import com.loganalytics.dto.TimeSeriesDataDto;
+import com.loganalytics.model.DictionaryField;
+import com.loganalytics.model.LogEntry;
+import com.loganalytics.model.LogLevel;
+import com.loganalytics.model.LogRollup;
+import com.loganalytics.model.RollupGranularity;
+import com.loganalytics.repository.LogEntryRepository;
+import com.loganalytics.repository.LogRollupRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Maintains per-minute and per-hour counts by level and source in the log_rollups table.
+ * Ingested entries are aggregated in memory and merged into the table on a short interval;
+ * /api/logs/timeseries reads the table plus whatever has not been flushed yet.
+ */
+@Service
+public class LogRollupService implements LogIngestListener {
+    
+    private static final Logger log = LoggerFactory.getLogger(LogRollupService.class);
+    
+    private static final LogLevel[] LEVELS = LogLevel.values();
+    
+    @Autowired
+    private LogRollupRepository rollupRepository;
+    
+    @Autowired
+    private LogEntryRepository logRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private LogHotTier hotTier;
+    
+    @Autowired
+    private LogDictionary dictionary;
+    
+    @Autowired
+    private LogQueryCache queryCache;
+    
+    @Value("${logs.rollup.minute-retention:7d}")
+    private Duration minuteRetention;
+    
+    @Value("${logs.rollup.max-buckets:5000}")
+    private int maxBuckets;
+    
+    private record RollupKey(RollupGranularity granularity, long bucketMinute, LogLevel level, String source) {}
+    
+    private volatile ConcurrentHashMap<RollupKey, LongAdder> pending = new ConcurrentHashMap<>();
+    
+    // Ingest threads share the read side; swapping the pending map takes the write side
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    
+    // Readers share the read side; a flush holds the write side until its rows are committed
+    private final ReentrantReadWriteLock flushLock = new ReentrantReadWriteLock();
+    
+    @PostConstruct
+    void backfillIfEmpty() {
+        if (rollupRepository.count() > 0 || logRepository.count() == 0) {
+            return;
+        }
+        
+        // First start on an existing table: build the rollups once from the raw rows
+        List<LogRollup> rollups = new ArrayList<>();
+        for (Object[] row : logRepository.countByHourLevelAndSourceSince(LocalDateTime.of(1970, 1, 1, 0, 0))) {
+            rollups.add(new LogRollup(RollupGranularity.HOUR, toLocalDateTime(row[0]), (LogLevel) row[1], sourceName(row[2]), (Long) row[3]));
+        }
+        LocalDateTime minuteStart = LocalDateTime.now().minus(minuteRetention);
+        for (Object[] row : logRepository.countByMinuteLevelAndSourceSince(minuteStart)) {
+            rollups.add(new LogRollup(RollupGranularity.MINUTE, toLocalDateTime(row[0]), (LogLevel) row[1], sourceName(row[2]), (Long) row[3]));
+        }
+        rollupRepository.saveAll(rollups);
+        log.info("Backfilled {} rollup rows from log_entries", rollups.size());
+    }
+    
+    @Override
+    public void onLogsIngested(List<LogEntry> entries) {
+        swapLock.readLock().lock();
+        try {
+            ConcurrentHashMap<RollupKey, LongAdder> target = pending;
+            for (LogEntry entry : entries) {
+                long minute = epochMinute(entry.getTimestamp());
+                String source = entry.getSource() != null ? entry.getSource() : "";
+                target.computeIfAbsent(new RollupKey(RollupGranularity.MINUTE, minute, entry.getLevel(), source),
+                        k -> new LongAdder()).increment();
+                target.computeIfAbsent(new RollupKey(RollupGranularity.HOUR, Math.floorDiv(minute, 60L) * 60L, entry.getLevel(), source),
+                        k -> new LongAdder()).increment();
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${logs.rollup.flush-interval:PT1S}")
+    public void flush() {
+        flushLock.writeLock().lock();
+        try {
+            ConcurrentHashMap<RollupKey, LongAdder> toFlush;
+            swapLock.writeLock().lock();
+            try {
+                toFlush = pending;
+                if (toFlush.isEmpty()) {
+                    return;
+                }
+                pending = new ConcurrentHashMap<>();
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+            
+            try {
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    for (Map.Entry<RollupKey, LongAdder> entry : toFlush.entrySet()) {
+                        RollupKey key = entry.getKey();
+                        long delta = entry.getValue().sum();
+                        LocalDateTime bucketStart = toLocalDateTime(key.bucketMinute());
+                        if (rollupRepository.increment(key.granularity(), bucketStart, key.level(), key.source(), delta) == 0) {
+                            rollupRepository.save(new LogRollup(key.granularity(), bucketStart, key.level(), key.source(), delta));
+                        }
+                    }
+                });
+            } catch (RuntimeException e) {
+                // Put the counts back so the next flush retries them
+                log.warn("Rollup flush of {} buckets failed: {}", toFlush.size(), e.getMessage());
+                swapLock.readLock().lock();
+                try {
+                    toFlush.forEach((key, count) -> pending.computeIfAbsent(key, k -> new LongAdder()).add(count.sum()));
+                } finally {
+                    swapLock.readLock().unlock();
+                }
+            }
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+    }
+    
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+    
+    // Minute rollups only serve short windows; hour rollups are kept
+    @Scheduled(cron = "${logs.rollup.prune-cron:0 7 * * * *}")
+    public void pruneMinuteRollups() {
+        LocalDateTime before = LocalDateTime.now().minus(minuteRetention);
+        int deleted = new TransactionTemplate(transactionManager).execute(status ->
+                rollupRepository.deleteOlderThan(RollupGranularity.MINUTE, before));
+        if (deleted > 0) {
+            log.info("Pruned {} minute rollup rows older than {}", deleted, before);
+        }
+    }
+    
+    /**
+     * Returns one entry per bucket for the trailing window, oldest first, including empty buckets.
+     * The last bucket is the one containing the current time.
+     */
+    public List<TimeSeriesDataDto> getTimeSeries(int hours, TimeBucket bucket, String source) {
+        long bucketMinutes = bucket.getMinutes();
+        long nowMinute = epochMinute(LocalDateTime.now());
+        long endMinute = Math.floorDiv(nowMinute, bucketMinutes) * bucketMinutes + bucketMinutes;
+        int bucketCount = (int) Math.max(1, (hours * 60L + bucketMinutes - 1) / bucketMinutes);
+        if (bucketCount > maxBuckets) {
+            throw new IllegalArgumentException("Requested " + bucketCount + " buckets, the maximum is " + maxBuckets);
+        }
+        long startMinute = endMinute - bucketCount * bucketMinutes;
+        
+        RollupGranularity granularity = bucket.getGranularity();
+        if (granularity == RollupGranularity.MINUTE && startMinute < nowMinute - minuteRetention.toMinutes()) {
+            throw new IllegalArgumentException("Bucket size " + bucket.getLabel()
+                    + " is only available for the last " + minuteRetention.toHours() + " hours");
+        }
+        
+        long[] counts = queryCache.bucketCounts(bucket, source, startMinute, bucketCount,
+                (from, count) -> countBuckets(bucket, source, from, count));
+        
+        List<TimeSeriesDataDto> result = new ArrayList<>(bucketCount);
+        for (int i = 0; i < bucketCount; i++) {
+            int offset = i * LEVELS.length;
+            long error = counts[offset + LogLevel.ERROR.ordinal()];
+            long warn = counts[offset + LogLevel.WARN.ordinal()];
+            long info = counts[offset + LogLevel.INFO.ordinal()];
+            long debug = counts[offset + LogLevel.DEBUG.ordinal()];
+            long trace = counts[offset + LogLevel.TRACE.ordinal()];
+            result.add(new TimeSeriesDataDto(toLocalDateTime(startMinute + i * bucketMinutes),
+                    error, warn, info, debug, trace, error + warn + info + debug + trace));
+        }
+        return result;
+    }
+    
+    /**
+     * Returns entry counts per level (indexed by ordinal) for all hour buckets starting at or after
+     * {@code start}, including counts not flushed yet. Hour rollups are never pruned, so this stays
+     * correct after raw entries have been deleted.
+     */
+    public long[] countByLevelSince(LocalDateTime start) {
+        long startMinute = epochMinute(start);
+        long[] counts = new long[LEVELS.length];
+        flushLock.readLock().lock();
+        try {
+            for (Object[] row : rollupRepository.sumByLevelSince(RollupGranularity.HOUR, start)) {
+                counts[((LogLevel) row[0]).ordinal()] += ((Number) row[1]).longValue();
+            }
+            for (Map.Entry<RollupKey, LongAdder> entry : pending.entrySet()) {
+                RollupKey key = entry.getKey();
+                if (key.granularity() == RollupGranularity.HOUR && key.bucketMinute() >= startMinute) {
+                    counts[key.level().ordinal()] += entry.getValue().sum();
+                }
+            }
+        } finally {
+            flushLock.readLock().unlock();
+        }
+        return counts;
+    }
+    
+    /**
+     * Returns entry counts per level (indexed by ordinal) for the hour buckets from the one
+     * containing {@code start} through the current one, read through the query cache, so
+     * repeated long windows only recount the hours that changed.
+     */
+    public long[] countByLevelInHours(LocalDateTime start) {
+        long startMinute = Math.floorDiv(epochMinute(start), 60L) * 60L;
+        long currentHour = Math.floorDiv(epochMinute(LocalDateTime.now()), 60L) * 60L;
+        int bucketCount = (int) Math.max(1, (currentHour - startMinute) / 60L + 1);
+        if (bucketCount > maxBuckets) {
+            return countByLevelSince(toLocalDateTime(startMinute));
+        }
+        long[] buckets = queryCache.bucketCounts(TimeBucket.ONE_HOUR, null, startMinute, bucketCount,
+                (from, count) -> countBuckets(TimeBucket.ONE_HOUR, null, from, count));
+        long[] counts = new long[LEVELS.length];
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i % LEVELS.length] += buckets[i];
+        }
+        return counts;
+    }
+    
+    // Counts by level for bucketCount buckets from startMinute, indexed bucket * levels + ordinal
+    private long[] countBuckets(TimeBucket bucket, String source, long startMinute, int bucketCount) {
+        long bucketMinutes = bucket.getMinutes();
+        long endMinute = startMinute + bucketCount * bucketMinutes;
+        RollupGranularity granularity = bucket.getGranularity();
+        
+        // Windows inside the hot tier are counted from memory, the rest from the rollups
+        long[] counts = hotTier.countByBucket(startMinute, bucketMinutes, bucketCount, source);
+        if (counts == null) {
+            counts = new long[bucketCount * LEVELS.length];
+            flushLock.readLock().lock();
+            try {
+                LocalDateTime start = toLocalDateTime(startMinute);
+                LocalDateTime end = toLocalDateTime(endMinute);
+                List<Object[]> rows = source == null
+                        ? rollupRepository.sumByBucketAndLevel(granularity, start, end)
+                        : rollupRepository.sumByBucketAndLevelForSource(granularity, start, end, source);
+                for (Object[] row : rows) {
+                    int index = (int) ((epochMinute(toLocalDateTime(row[0])) - startMinute) / bucketMinutes);
+                    counts[index * LEVELS.length + ((LogLevel) row[1]).ordinal()] += ((Number) row[2]).longValue();
+                }
+                
+                // Counts not flushed yet
+                for (Map.Entry<RollupKey, LongAdder> entry : pending.entrySet()) {
+                    RollupKey key = entry.getKey();
+                    if (key.granularity() != granularity || key.bucketMinute() < startMinute || key.bucketMinute() >= endMinute) {
+                        continue;
+                    }
+                    if (source != null && !source.equals(key.source())) {
+                        continue;
+                    }
+                    int index = (int) ((key.bucketMinute() - startMinute) / bucketMinutes);
+                    counts[index * LEVELS.length + key.level().ordinal()] += entry.getValue().sum();
+                }
+            } finally {
+                flushLock.readLock().unlock();
+            }
+        }
+        
+        return counts;
+    }
+    
+    // Per-minute counts by level from the minute rollups, as (bucket start, level, count) rows
+    public List<Object[]> countByMinuteAndLevelSince(LocalDateTime start) {
+        return rollupRepository.sumByBucketAndLevel(RollupGranularity.MINUTE, start, LocalDateTime.now().plusDays(1));
+    }
+    
+    // Timestamps are zone-less; UTC is only used to turn them into minute numbers and back
+    // Rollups count entries without a source under the empty string
+    private String sourceName(Object sourceId) {
+        return sourceId != null ? dictionary.decode(DictionaryField.SOURCE, (Integer) sourceId) : "";
+    }
+    
+    static long epochMinute(LocalDateTime timestamp) {
+        return Math.floorDiv(timestamp.toEpochSecond(ZoneOffset.UTC), 60L);
+    }
+    
+    static LocalDateTime toLocalDateTime(long epochMinute) {
+        return LocalDateTime.ofEpochSecond(epochMinute * 60L, 0, ZoneOffset.UTC);
+    }
+    
+    // DATE_TRUNC results come back as different temporal types depending on the database
+    static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof LocalDateTime localDateTime) {
+            return localDateTime;
+        }
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        if (value instanceof OffsetDateTime offsetDateTime) {
+            return offsetDateTime.toLocalDateTime();
+        }
+        throw new IllegalArgumentException("Unexpected bucket type: " + value);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,392 @@
+package com.loganalytics.service;
+
+import com.loganalytics.model.LogEntry;
+import com.loganalytics.model.LogLevel;
+import com.loganalytics.repository.LogEntryRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PhraseQuery;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopFieldDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Embedded Lucene index over LogEntry.message, kept up to date on ingest. Replaces the
+ * LIKE '%...%' scans of search and filter with posting list lookups; hits are sorted by
+ * (timestamp, id) descending from doc values so only the requested page of ids is loaded.
+ *
+ * Query syntax: plain words must all occur, "quoted phrases" must occur in order and a
+ * trailing * makes a word a prefix match (e.g. conn*).
+ */
+@Service
+public class LogSearchIndex implements LogIngestListener {
+    
+    private static final Logger log = LoggerFactory.getLogger(LogSearchIndex.class);
+    
+    private static final String ID = "id";
+    private static final String TIMESTAMP = "ts";
+    private static final String LEVEL = "level";
+    private static final String SOURCE = "source";
+    private static final String MESSAGE = "message";
+    private static final String MAX_ID = "maxId";
+    
+    private static final Pattern QUERY_PART = Pattern.compile("\"([^\"]*)\"|(\\S+)");
+    
+    private static final Sort NEWEST_FIRST = new Sort(
+            new SortField(TIMESTAMP, SortField.Type.LONG, true),
+            new SortField(ID, SortField.Type.LONG, true));
+    
+    private static final Sort OLDEST_FIRST = new Sort(
+            new SortField(TIMESTAMP, SortField.Type.LONG),
+            new SortField(ID, SortField.Type.LONG));
+    
+    @Autowired
+    private LogEntryRepository logRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Value("${logs.search.index.enabled:true}")
+    private boolean enabled;
+    
+    // Empty keeps the index in memory, which matches the in-memory H2 default
+    @Value("${logs.search.index.path:}")
+    private String indexPath;
+    
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private Directory directory;
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+    private volatile long maxIndexedId;
+    
+    public record SearchHits(long totalHits, List<Long> ids) {}
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    @PostConstruct
+    void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        directory = indexPath.isBlank() ? new ByteBuffersDirectory() : FSDirectory.open(Path.of(indexPath));
+        writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        searcherManager = new SearcherManager(writer, null);
+        
+        String committedMaxId = writer.getLiveCommitData() == null ? null : commitData().get(MAX_ID);
+        maxIndexedId = committedMaxId != null ? Long.parseLong(committedMaxId) : 0L;
+        catchUp();
+    }
+    
+    @PreDestroy
+    void close() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        commit();
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+    
+    @Override
+    public void onLogsIngested(List<LogEntry> entries) {
+        if (!enabled) {
+            return;
+        }
+        List<Document> documents = new ArrayList<>(entries.size());
+        long batchMaxId = 0;
+        for (LogEntry entry : entries) {
+            documents.add(toDocument(entry));
+            batchMaxId = Math.max(batchMaxId, entry.getId());
+        }
+        try {
+            writer.addDocuments(documents);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to index log entries", e);
+        }
+        synchronized (this) {
+            maxIndexedId = Math.max(maxIndexedId, batchMaxId);
+        }
+    }
+    
+    // Removes documents of the given level (any level when null) with a timestamp before the cutoff
+    public void deleteOlderThan(LogLevel level, LocalDateTime cutoff) throws IOException {
+        if (!enabled) {
+            return;
+        }
+        BooleanQuery.Builder builder = new BooleanQuery.Builder()
+                .add(LongPoint.newRangeQuery(TIMESTAMP, Long.MIN_VALUE, epochMillis(cutoff) - 1), BooleanClause.Occur.FILTER);
+        if (level != null) {
+            builder.add(new TermQuery(new Term(LEVEL, level.name())), BooleanClause.Occur.FILTER);
+        }
+        writer.deleteDocuments(builder.build());
+    }
+    
+    // Makes recently added documents visible to searches
+    @Scheduled(fixedDelayString = "${logs.search.index.refresh-interval:PT1S}")
+    public void refresh() throws IOException {
+        if (enabled) {
+            searcherManager.maybeRefresh();
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${logs.search.index.commit-interval:PT30S}")
+    public void commit() throws IOException {
+        if (!enabled || !writer.hasUncommittedChanges()) {
+            return;
+        }
+        writer.setLiveCommitData(Map.of(MAX_ID, Long.toString(maxIndexedId)).entrySet());
+        writer.commit();
+    }
+    
+    /**
+     * Returns the total number of matches and the ids of one page of them, newest first.
+     * Returns null when the text contains nothing indexable, e.g. only punctuation.
+     */
+    public SearchHits search(String text, LogLevel level, String source,
+                             LocalDateTime startTime, LocalDateTime endTime,
+                             int offset, int limit) throws IOException {
+        Query query = buildQuery(text, level, source, startTime, endTime);
+        if (query == null) {
+            return null;
+        }
+        
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            int total = searcher.count(query);
+            if (offset >= total || limit <= 0) {
+                return new SearchHits(total, List.of());
+            }
+            
+            TopFieldDocs topDocs = searcher.search(query, Math.min(offset + limit, total), NEWEST_FIRST);
+            List<Long> ids = new ArrayList<>(limit);
+            ScoreDoc[] hits = topDocs.scoreDocs;
+            for (int i = offset; i < hits.length; i++) {
+                ids.add(idOf(searcher, hits[i].doc));
+            }
+            return new SearchHits(total, ids);
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+    
+    /**
+     * Keyset variant of search: returns up to {@code limit} ids that sort after the cursor
+     * entry, newest first, or oldest first when {@code ascending} is set. Returns null when
+     * the text contains nothing indexable.
+     */
+    public List<Long> searchAfter(String text, LogLevel level, String source,
+                                  LocalDateTime startTime, LocalDateTime endTime,
+                                  LocalDateTime cursorTime, Long cursorId,
+                                  boolean ascending, int limit) throws IOException {
+        Query query = buildQuery(text, level, source, startTime, endTime);
+        if (query == null) {
+            return null;
+        }
+        
+        Sort sort = ascending ? OLDEST_FIRST : NEWEST_FIRST;
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            TopDocs topDocs;
+            if (cursorTime != null) {
+                // Only the cursor entry itself has equal sort values; the highest doc number excludes it
+                FieldDoc after = new FieldDoc(searcher.getIndexReader().maxDoc() - 1, Float.NaN,
+                        new Object[] {epochMillis(cursorTime), cursorId});
+                topDocs = searcher.searchAfter(after, query, limit, sort);
+            } else {
+                topDocs = searcher.search(query, limit, sort);
+            }
+            
+            List<Long> ids = new ArrayList<>(topDocs.scoreDocs.length);
+            for (ScoreDoc hit : topDocs.scoreDocs) {
+                ids.add(idOf(searcher, hit.doc));
+            }
+            return ids;
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+    
+    Query buildQuery(String text, LogLevel level, String source,
+                     LocalDateTime startTime, LocalDateTime endTime) throws IOException {
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        boolean hasText = false;
+        
+        Matcher matcher = QUERY_PART.matcher(text == null ? "" : text);
+        while (matcher.find()) {
+            Query part = matcher.group(1) != null ? phraseQuery(matcher.group(1)) : wordQuery(matcher.group(2));
+            if (part != null) {
+                builder.add(part, BooleanClause.Occur.MUST);
+                hasText = true;
+            }
+        }
+        if (!hasText) {
+            return null;
+        }
+        
+        if (level != null) {
+            builder.add(new TermQuery(new Term(LEVEL, level.name())), BooleanClause.Occur.FILTER);
+        }
+        if (source != null) {
+            builder.add(new TermQuery(new Term(SOURCE, source)), BooleanClause.Occur.FILTER);
+        }
+        if (startTime != null || endTime != null) {
+            long from = startTime != null ? epochMillis(startTime) : Long.MIN_VALUE;
+            long to = endTime != null ? epochMillis(endTime) : Long.MAX_VALUE;
+            builder.add(LongPoint.newRangeQuery(TIMESTAMP, from, to), BooleanClause.Occur.FILTER);
+        }
+        return builder.build();
+    }
+    
+    private Query wordQuery(String word) throws IOException {
+        if (word.length() > 1 && word.endsWith("*")) {
+            List<String> terms = analyze(word.substring(0, word.length() - 1));
+            if (terms.size() == 1) {
+                return new PrefixQuery(new Term(MESSAGE, terms.get(0)));
+            }
+        }
+        // Words the analyzer splits up (e.g. REQ-42) must match as a phrase
+        return phraseQuery(word);
+    }
+    
+    private Query phraseQuery(String phrase) throws IOException {
+        List<String> terms = analyze(phrase);
+        if (terms.isEmpty()) {
+            return null;
+        }
+        if (terms.size() == 1) {
+            return new TermQuery(new Term(MESSAGE, terms.get(0)));
+        }
+        return new PhraseQuery(MESSAGE, terms.toArray(new String[0]));
+    }
+    
+    private List<String> analyze(String text) throws IOException {
+        List<String> terms = new ArrayList<>();
+        try (TokenStream stream = analyzer.tokenStream(MESSAGE, text)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                terms.add(term.toString());
+            }
+            stream.end();
+        }
+        return terms;
+    }
+    
+    // Index rows written while the index was not running, e.g. after a restart with an on-disk index
+    private void catchUp() throws IOException {
+        long indexed = new TransactionTemplate(transactionManager).execute(status -> {
+            long count = 0;
+            List<LogEntry> batch = new ArrayList<>(1000);
+            try (Stream<LogEntry> rows = logRepository.streamByIdGreaterThan(maxIndexedId)) {
+                for (LogEntry entry : (Iterable<LogEntry>) rows::iterator) {
+                    batch.add(entry);
+                    if (batch.size() == 1000) {
+                        count += batch.size();
+                        onLogsIngested(batch);
+                        batch.clear();
+                        entityManager.clear();
+                    }
+                }
+            }
+            count += batch.size();
+            onLogsIngested(batch);
+            return count;
+        });
+        if (indexed > 0) {
+            commit();
+            searcherManager.maybeRefresh();
+            log.info("Indexed {} log entries missing from the search index", indexed);
+        }
+    }
+    
+    private Document toDocument(LogEntry entry) {
+        Document document = new Document();
+        long timestamp = epochMillis(entry.getTimestamp());
+        document.add(new LongPoint(ID, entry.getId()));
+        document.add(new NumericDocValuesField(ID, entry.getId()));
+        document.add(new LongPoint(TIMESTAMP, timestamp));
+        document.add(new NumericDocValuesField(TIMESTAMP, timestamp));
+        document.add(new StringField(LEVEL, entry.getLevel().name(), Field.Store.NO));
+        if (entry.getSource() != null) {
+            document.add(new StringField(SOURCE, entry.getSource(), Field.Store.NO));
+        }
+        document.add(new TextField(MESSAGE, entry.getMessage(), Field.Store.NO));
+        return document;
+    }
+    
+    private static long idOf(IndexSearcher searcher, int doc) throws IOException {
+        var leaves = searcher.getIndexReader().leaves();
+        var leaf = leaves.get(ReaderUtil.subIndex(doc, leaves));
+        NumericDocValues ids = leaf.reader().getNumericDocValues(ID);
+        ids.advanceExact(doc - leaf.docBase);
+        return ids.longValue();
+    }
+    
+    private Map<String, String> commitData() {
+        Map<String, String> data = new HashMap<>();
+        writer.getLiveCommitData().forEach(entry -> data.put(entry.getKey(), entry.getValue()));
+        return data;
+    }
+    
+    private static long epochMillis(LocalDateTime timestamp) {
+        return timestamp.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
\ No newline at end of file
@@ -1,130 +1,559 @@
 package com.loganalytics.service;
 
+import com.loganalytics.dto.CursorPageDto;
 import com.loganalytics.dto.LogEntryDto;
+import com.loganalytics.dto.LogFieldValuesDto;
 import com.loganalytics.dto.LogStatsDto;
+import com.loganalytics.dto.LogSummaryDto;
 import com.loganalytics.dto.TimeSeriesDataDto;
+import com.loganalytics.model.DictionaryField;
 import com.loganalytics.model.LogEntry;
 import com.loganalytics.model.LogLevel;
 import com.loganalytics.repository.LogEntryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class LogService {
     
+    private static final Logger log = LoggerFactory.getLogger(LogService.class);
+    
     @Autowired
     private LogEntryRepository logRepository;
     
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private LogBroadcaster broadcaster;
+    
+    @Autowired
+    private Validator validator;
+    
+    @Autowired
+    private LogStatsCounter statsCounter;
+    
+    @Autowired
+    private LogSketchService sketchService;
+    
+    @Autowired
+    private LogRollupService rollupService;
+    
+    @Autowired
+    private LogSearchIndex searchIndex;
+    
+    @Autowired
+    private LogHotTier hotTier;
+    
+    @Autowired
+    private LogDictionary dictionary;
+    
+    @Autowired
+    private LogQueryCache queryCache;
+    
+    @Autowired
+    private LogTemplateService templateService;
+    
+    @Autowired(required = false)
+    private List<LogIngestListener> ingestListeners = List.of();
+    
+    @Value("${logs.ingest.batch.max-size:10000}")
+    private int maxBatchSize;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Value("${logs.stream.fetch-size:1000}")
+    private int streamChunkSize;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private Timer createTimer;
+    private Timer createBatchTimer;
+    private Counter[] ingestedCounters;
+    private Timer toDtoTimer;
+    private Timer toEntityTimer;
+    private DistributionSummary recentRows;
+    private DistributionSummary pageRows;
+    private DistributionSummary filterRows;
+    private DistributionSummary cursorRows;
+    private DistributionSummary streamRows;
+    
+    @PostConstruct
+    void registerMetrics() {
+        createTimer = createTimer("single");
+        createBatchTimer = createTimer("batch");
+        LogLevel[] levels = LogLevel.values();
+        ingestedCounters = new Counter[levels.length];
+        for (LogLevel level : levels) {
+            ingestedCounters[level.ordinal()] = Counter.builder("logs.ingested")
+                    .description("Log entries stored")
+                    .tag("level", level.name())
+                    .register(meterRegistry);
+        }
+        toDtoTimer = mappingTimer("to_dto");
+        toEntityTimer = mappingTimer("to_entity");
+        recentRows = rowsSummary("recent");
+        pageRows = rowsSummary("page");
+        filterRows = rowsSummary("filter");
+        cursorRows = rowsSummary("cursor");
+        streamRows = rowsSummary("stream");
+    }
     
     public List<LogEntryDto> getAllLogs() {
-        return logRepository.findTop100ByOrderByTimestampDesc()
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        List<LogEntryDto> logs = queryCache.newest(100, () -> {
+            List<LogEntryDto> newest = hotTier.newest(100);
+            return newest != null ? newest : logRepository.findNewest(PageRequest.of(0, 100));
+        });
+        recentRows.record(logs.size());
+        return logs;
     }
     
     public Page<LogEntryDto> getLogsWithPagination(int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
-        return logRepository.findAllByOrderByTimestampDesc(pageable)
-                .map(this::convertToDto);
+        Page<LogEntryDto> logs = logRepository.findNewestPage(pageable);
+        pageRows.record(logs.getNumberOfElements());
+        return logs;
     }
     
-    public List<LogEntryDto> getLogsByLevel(LogLevel level) {
-        return logRepository.findByLevelOrderByTimestampDesc(level)
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    // Newest entries of one message template; an index range scan however many entries there are
+    public List<LogEntryDto> getLogsByTemplate(int templateId, int page, int size) {
+        List<LogEntryDto> logs = logRepository.findByTemplate(templateId, PageRequest.of(page, size));
+        pageRows.record(logs.size());
+        return logs;
     }
     
-    public List<LogEntryDto> searchLogs(String query) {
-        return logRepository.searchByMessage(query)
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    /**
+     * Writes matching entries, newest first, to {@code sink} one at a time without collecting them.
+     * Returns the number of entries written, which is at most {@code limit}.
+     */
+    public int streamLogs(LogLevel level, String source, LocalDateTime startTime, LocalDateTime endTime,
+                          String query, int limit, Consumer<LogEntryDto> sink) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        int streamed = transaction.execute(status -> {
+            if (query != null && searchIndex.isEnabled()) {
+                Integer written = streamFromIndex(level, source, startTime, endTime, query, limit, sink);
+                if (written != null) {
+                    return written;
+                }
+            }
+            if (query == null) {
+                int written = hotTier.stream(level, source, startTime, endTime, limit, sink);
+                if (written >= 0) {
+                    return written;
+                }
+            }
+            
+            int rows = 0;
+            try (Stream<LogEntryDto> entries = logRepository.streamFiltered(level, source, startTime, endTime, query, limit)) {
+                Iterator<LogEntryDto> iterator = entries.iterator();
+                while (iterator.hasNext()) {
+                    sink.accept(iterator.next());
+                    rows++;
+                }
+            }
+            return rows;
+        });
+        streamRows.record(streamed);
+        return streamed;
     }
     
     public LogStatsDto getLogStats() {
-        long totalLogs = logRepository.count();
-        long errorCount = logRepository.countByLevel(LogLevel.ERROR);
-        long warnCount = logRepository.countByLevel(LogLevel.WARN);
-        long infoCount = logRepository.countByLevel(LogLevel.INFO);
-        long debugCount = logRepository.countByLevel(LogLevel.DEBUG);
-        long traceCount = logRepository.countByLevel(LogLevel.TRACE);
-        
-        return new LogStatsDto(totalLogs, errorCount, warnCount, infoCount, debugCount, traceCount);
+        return statsCounter.getStats();
     }
     
-    public List<TimeSeriesDataDto> getTimeSeriesData(int hours) {
-        LocalDateTime startTime = LocalDateTime.now().minus(hours, ChronoUnit.HOURS);
-        List<Object[]> rawData = logRepository.getTimeSeriesData(startTime);
-        
-        // Create a map to group data by hour
-        Map<LocalDateTime, Map<LogLevel, Long>> groupedData = new HashMap<>();
-        
-        for (Object[] row : rawData) {
-            LocalDateTime hour = (LocalDateTime) row[0];
-            LogLevel level = (LogLevel) row[1];
-            Long count = (Long) row[2];
-            
-            groupedData.computeIfAbsent(hour, k -> new HashMap<>()).put(level, count);
-        }
-        
-        // Convert to DTO format
-        List<TimeSeriesDataDto> result = new ArrayList<>();
-        for (Map.Entry<LocalDateTime, Map<LogLevel, Long>> entry : groupedData.entrySet()) {
-            LocalDateTime timestamp = entry.getKey();
-            Map<LogLevel, Long> levelCounts = entry.getValue();
-            
-            long error = levelCounts.getOrDefault(LogLevel.ERROR, 0L);
-            long warn = levelCounts.getOrDefault(LogLevel.WARN, 0L);
-            long info = levelCounts.getOrDefault(LogLevel.INFO, 0L);
-            long debug = levelCounts.getOrDefault(LogLevel.DEBUG, 0L);
-            long trace = levelCounts.getOrDefault(LogLevel.TRACE, 0L);
-            long total = error + warn + info + debug + trace;
-            
-            result.add(new TimeSeriesDataDto(timestamp, error, warn, info, debug, trace, total));
+    // Distinct counts and heavy hitters of the last hours from the ingest sketches; level null for all
+    public LogSummaryDto getLogSummary(int hours, LogLevel level, int limit) {
+        return sketchService.getSummary(Duration.ofHours(hours), level, limit);
+    }
+    
+    public LogStatsDto getLogStats(int hours) {
+        Duration window = Duration.ofHours(hours);
+        if (statsCounter.coversWindow(window)) {
+            return statsCounter.getStats(window);
         }
         
-        // Sort by timestamp
-        result.sort(Comparator.comparing(TimeSeriesDataDto::getTimestamp));
-        return result;
+        // Windows longer than the in-memory ring are answered from the hour rollups, at hour granularity
+        long[] counts = rollupService.countByLevelInHours(
+                LocalDateTime.now().minus(window).truncatedTo(ChronoUnit.HOURS));
+        long total = Arrays.stream(counts).sum();
+        return new LogStatsDto(total,
+                counts[LogLevel.ERROR.ordinal()],
+                counts[LogLevel.WARN.ordinal()],
+                counts[LogLevel.INFO.ordinal()],
+                counts[LogLevel.DEBUG.ordinal()],
+                counts[LogLevel.TRACE.ordinal()]);
+    }
+    
+    public List<TimeSeriesDataDto> getTimeSeriesData(int hours) {
+        return getTimeSeriesData(hours, TimeBucket.ONE_HOUR, null);
+    }
+    
+    public List<TimeSeriesDataDto> getTimeSeriesData(int hours, TimeBucket bucket, String source) {
+        return rollupService.getTimeSeries(hours, bucket, source);
+    }
+    
+    // The distinct sources, threads and loggers ever ingested, from the in-memory dictionary
+    public LogFieldValuesDto getFieldValues() {
+        return new LogFieldValuesDto(dictionary.values(DictionaryField.SOURCE),
+                dictionary.values(DictionaryField.THREAD),
+                dictionary.values(DictionaryField.LOGGER));
     }
     
     public LogEntryDto createLog(LogEntryDto logDto) {
+        long start = System.nanoTime();
         LogEntry logEntry = convertToEntity(logDto);
+        toEntityTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         if (logEntry.getTimestamp() == null) {
             logEntry.setTimestamp(LocalDateTime.now());
         }
+        templateService.assignTemplates(List.of(logEntry));
+        dictionary.registerAll(List.of(logEntry));
         
         LogEntry savedLog = logRepository.save(logEntry);
-        LogEntryDto result = convertToDto(savedLog);
+        notifyIngestListeners(List.of(savedLog));
+        LogEntryDto result = toDtos(List.of(savedLog)).get(0);
         
         // Send real-time update via WebSocket
-        messagingTemplate.convertAndSend("/topic/logs", result);
+        publish(List.of(result));
         
+        createTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        ingestedCounters[savedLog.getLevel().ordinal()].increment();
         return result;
     }
     
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+    
+    // Validate every entry of a batch up front so a batch is either stored completely or not at all
+    public List<String> validateBatch(List<LogEntryDto> logDtos) {
+        List<String> errors = new ArrayList<>();
+        if (logDtos == null || logDtos.isEmpty()) {
+            errors.add("batch must contain at least one entry");
+            return errors;
+        }
+        if (logDtos.size() > maxBatchSize) {
+            errors.add("batch size " + logDtos.size() + " exceeds the maximum of " + maxBatchSize);
+            return errors;
+        }
+        
+        for (int i = 0; i < logDtos.size(); i++) {
+            LogEntryDto logDto = logDtos.get(i);
+            if (logDto == null) {
+                errors.add("[" + i + "]: entry must not be null");
+                continue;
+            }
+            for (ConstraintViolation<LogEntryDto> violation : validator.validate(logDto)) {
+                errors.add("[" + i + "]." + violation.getPropertyPath() + ": " + violation.getMessage());
+            }
+        }
+        return errors;
+    }
+    
+    public int createLogs(List<LogEntryDto> logDtos) {
+        long start = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        List<LogEntry> logEntries = new ArrayList<>(logDtos.size());
+        for (LogEntryDto logDto : logDtos) {
+            LogEntry logEntry = convertToEntity(logDto);
+            if (logEntry.getTimestamp() == null) {
+                logEntry.setTimestamp(now);
+            }
+            logEntries.add(logEntry);
+        }
+        toEntityTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        
+        templateService.assignTemplates(logEntries);
+        dictionary.registerAll(logEntries);
+        logRepository.insertAll(logEntries);
+        afterInsert(logEntries, true);
+        
+        createBatchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return logEntries.size();
+    }
+    
+    /**
+     * Stores entities built by the caller, for the file ingest. {@code alsoInTransaction} runs in
+     * the transaction of the insert, so state such as a file offset commits with the entries or
+     * not at all. Entries are broadcast only when {@code live}; a backfill would flood
+     * /topic/logs with history.
+     */
+    public int createEntries(List<LogEntry> logEntries, boolean live, Runnable alsoInTransaction) {
+        long start = System.nanoTime();
+        templateService.assignTemplates(logEntries);
+        dictionary.registerAll(logEntries);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            logRepository.insertAll(logEntries);
+            if (alsoInTransaction != null) {
+                alsoInTransaction.run();
+            }
+        });
+        afterInsert(logEntries, live);
+        
+        createBatchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return logEntries.size();
+    }
+    
+    private void afterInsert(List<LogEntry> logEntries, boolean broadcast) {
+        notifyIngestListeners(logEntries);
+        if (broadcast) {
+            publish(toDtos(logEntries));
+        }
+        
+        int[] byLevel = new int[ingestedCounters.length];
+        for (LogEntry savedLog : logEntries) {
+            byLevel[savedLog.getLevel().ordinal()]++;
+        }
+        for (int i = 0; i < byLevel.length; i++) {
+            if (byLevel[i] > 0) {
+                ingestedCounters[i].increment(byLevel[i]);
+            }
+        }
+    }
+    
     public Page<LogEntryDto> getLogsWithFilters(LogLevel level, String source, 
                                                LocalDateTime startTime, LocalDateTime endTime, 
                                                String query, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
-        return logRepository.findWithFilters(level, source, startTime, endTime, query, pageable)
-                .map(this::convertToDto);
+        if (query != null) {
+            LogSearchIndex.SearchHits hits = searchIndex(query, level, source, startTime, endTime,
+                    (int) pageable.getOffset(), size);
+            if (hits != null) {
+                Page<LogEntryDto> logs = new PageImpl<>(loadInOrder(hits.ids()), pageable, hits.totalHits());
+                filterRows.record(logs.getNumberOfElements());
+                return logs;
+            }
+        } else {
+            LogHotTier.Selection selection = hotTier.find(level, source, startTime, endTime,
+                    null, null, false, (int) pageable.getOffset(), size);
+            if (selection != null) {
+                Page<LogEntryDto> logs = new PageImpl<>(selection.rows(), pageable, selection.total());
+                filterRows.record(logs.getNumberOfElements());
+                return logs;
+            }
+        }
+        Page<LogEntryDto> logs = logRepository.findWithFilters(level, sourceId(source), startTime, endTime, query, pageable);
+        filterRows.record(logs.getNumberOfElements());
+        return logs;
+    }
+    
+    public CursorPageDto<LogEntryDto> getLogsWithCursor(LogLevel level, String source,
+                                                        LocalDateTime startTime, LocalDateTime endTime,
+                                                        String query, String after, String before, int size) {
+        if (after != null && before != null) {
+            throw new IllegalArgumentException("Use either after or before, not both");
+        }
+        LogCursor cursor = after != null ? LogCursor.decode(after) : before != null ? LogCursor.decode(before) : null;
+        boolean backward = before != null;
+        LocalDateTime cursorTime = cursor != null ? cursor.timestamp() : null;
+        Long cursorId = cursor != null ? cursor.id() : null;
+        
+        // Fetch one extra row to learn whether another page exists without counting
+        List<LogEntryDto> rows = null;
+        if (query != null && searchIndex.isEnabled()) {
+            try {
+                List<Long> ids = searchIndex.searchAfter(query, level, source, startTime, endTime,
+                        cursorTime, cursorId, backward, size + 1);
+                if (ids != null) {
+                    rows = loadInOrder(ids);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Search index lookup failed", e);
+            }
+        } else if (query == null) {
+            LogHotTier.Selection selection = hotTier.find(level, source, startTime, endTime,
+                    cursorTime, cursorId, backward, 0, size + 1);
+            if (selection != null) {
+                rows = selection.rows();
+            }
+        }
+        if (rows == null) {
+            rows = logRepository.findKeysetPageAsDtos(level, source, startTime, endTime, query,
+                    cursorTime, cursorId, backward, size + 1);
+        }
+        
+        boolean hasMore = rows.size() > size;
+        if (hasMore) {
+            rows = rows.subList(0, size);
+        }
+        if (backward) {
+            rows = new ArrayList<>(rows);
+            Collections.reverse(rows);
+        }
+        
+        boolean hasNext = backward || hasMore;
+        boolean hasPrevious = backward ? hasMore : cursor != null;
+        String nextCursor = hasNext && !rows.isEmpty() ? cursorOf(rows.get(rows.size() - 1)) : null;
+        String prevCursor = hasPrevious && !rows.isEmpty() ? cursorOf(rows.get(0)) : null;
+        cursorRows.record(rows.size());
+        return new CursorPageDto<>(rows, size, nextCursor, prevCursor);
+    }
+    
+    // Pages through the index with searchAfter so only one chunk of entries is loaded at a time
+    private Integer streamFromIndex(LogLevel level, String source, LocalDateTime startTime, LocalDateTime endTime,
+                                    String query, int limit, Consumer<LogEntryDto> sink) {
+        int written = 0;
+        LogEntryDto last = null;
+        try {
+            while (written < limit) {
+                int chunk = Math.min(streamChunkSize, limit - written);
+                List<Long> ids = searchIndex.searchAfter(query, level, source, startTime, endTime,
+                        last != null ? last.getTimestamp() : null, last != null ? last.getId() : null,
+                        false, chunk);
+                if (ids == null) {
+                    return last == null ? null : written;
+                }
+                List<LogEntryDto> rows = loadInOrder(ids);
+                entityManager.clear();
+                for (LogEntryDto row : rows) {
+                    sink.accept(row);
+                }
+                written += rows.size();
+                if (ids.size() < chunk || rows.isEmpty()) {
+                    return written;
+                }
+                last = rows.get(rows.size() - 1);
+            }
+            return written;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Search index lookup failed", e);
+        }
+    }
+    
+    // Sources are filtered by dictionary id; an unknown source is -1, which matches nothing
+    private Integer sourceId(String source) {
+        return source != null ? dictionary.find(DictionaryField.SOURCE, source) : null;
+    }
+    
+    private static String cursorOf(LogEntryDto dto) {
+        return new LogCursor(dto.getTimestamp(), dto.getId()).encode();
+    }
+    
+    // Returns null when the index is disabled or cannot answer the query, so callers fall back to LIKE
+    private LogSearchIndex.SearchHits searchIndex(String query, LogLevel level, String source,
+                                                  LocalDateTime startTime, LocalDateTime endTime,
+                                                  int offset, int limit) {
+        if (!searchIndex.isEnabled()) {
+            return null;
+        }
+        try {
+            return searchIndex.search(query, level, source, startTime, endTime, offset, limit);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Search index lookup failed", e);
+        }
+    }
+    
+    // Loads entries by id and returns them in the order of the given ids
+    private List<LogEntryDto> loadInOrder(List<Long> ids) {
+        Map<Long, LogEntryDto> byId = new HashMap<>(ids.size() * 2);
+        for (LogEntryDto entry : logRepository.findDtosByIdIn(ids)) {
+            byId.put(entry.getId(), entry);
+        }
+        List<LogEntryDto> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            LogEntryDto entry = byId.get(id);
+            // Skip entries deleted after they were indexed
+            if (entry != null) {
+                ordered.add(entry);
+            }
+        }
+        return ordered;
+    }
+    
+    // Converts stored entries for the broadcast and the create response, timing the conversion as a whole
+    private List<LogEntryDto> toDtos(List<LogEntry> entities) {
+        long start = System.nanoTime();
+        List<LogEntryDto> dtos = new ArrayList<>(entities.size());
+        for (LogEntry entity : entities) {
+            dtos.add(convertToDto(entity));
+        }
+        toDtoTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return dtos;
+    }
+    
+    private Timer createTimer(String mode) {
+        return Timer.builder("logs.ingest.create")
+                .description("Time to store entries through createLog (single) or createLogs (batch), including indexing and broadcast hand-off")
+                .tag("mode", mode)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+    
+    private Timer mappingTimer(String direction) {
+        return Timer.builder("logs.mapping")
+                .description("Time to convert the entries of one request between entities and DTOs")
+                .tag("direction", direction)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+    
+    private DistributionSummary rowsSummary(String query) {
+        return DistributionSummary.builder("logs.query.rows")
+                .description("Entries returned per request")
+                .tag("query", query)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+    
+    // The entries are committed by now, so failures from here on are logged instead of thrown:
+    // a caller seeing an exception would retry and store the entries a second time
+    private void notifyIngestListeners(List<LogEntry> savedLogs) {
+        for (LogIngestListener listener : ingestListeners) {
+            try {
+                listener.onLogsIngested(savedLogs);
+            } catch (RuntimeException e) {
+                log.error("{} failed on {} stored entries", listener.getClass().getSimpleName(), savedLogs.size(), e);
+            }
+        }
+        // After the listeners, so reloads see the hot tier and pending rollups with these entries
+        try {
+            queryCache.invalidate(savedLogs);
+        } catch (RuntimeException e) {
+            log.error("Invalidating the query cache failed for {} stored entries", savedLogs.size(), e);
+        }
+    }
+    
+    private void publish(List<LogEntryDto> savedLogs) {
+        try {
+            broadcaster.publish(savedLogs);
+        } catch (RuntimeException e) {
+            log.error("Broadcasting {} stored entries failed", savedLogs.size(), e);
+        }
     }
     
-    private LogEntryDto convertToDto(LogEntry entity) {
+    // Package-private for LogMappingBenchmark
+    LogEntryDto convertToDto(LogEntry entity) {
         LogEntryDto dto = new LogEntryDto();
         dto.setId(entity.getId());
         dto.setTimestamp(entity.getTimestamp());
@@ -133,12 +562,13 @@ public class LogService {
         dto.setSource(entity.getSource());
         dto.setThread(entity.getThread());
         dto.setLogger(entity.getLogger());
+        dto.setTemplateId(entity.getTemplateId());
         return dto;
     }
     
-    private LogEntry convertToEntity(LogEntryDto dto) {
+    // Ids always come from the sequence; a client supplied id would turn the insert into an update of that row
+    LogEntry convertToEntity(LogEntryDto dto) {
         LogEntry entity = new LogEntry();
-        entity.setId(dto.getId());
         entity.setTimestamp(dto.getTimestamp());
         entity.setLevel(dto.getLevel());
         entity.setMessage(dto.getMessage());
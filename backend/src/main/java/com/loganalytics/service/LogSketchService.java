@@ -0,0 +1,256 @@
+package com.loganalytics.service;
+
+import com.loganalytics.dto.LogSummaryDto;
+import com.loganalytics.dto.TopValueDto;
+import com.loganalytics.model.DictionaryField;
+import com.loganalytics.model.LogEntry;
+import com.loganalytics.model.LogLevel;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sketches of recent entries behind /api/logs/stats/summary: per time bucket and level, a
+ * HyperLogLog of the distinct sources, threads and loggers, and Space-Saving summaries of the
+ * most frequent sources and message templates. They are updated on ingest in constant time per
+ * entry and merged over the requested buckets when asked, so answers neither scan log_entries
+ * nor depend on how many entries there are. Buckets live in a ring covering logs.sketch.window,
+ * like the per-minute counts of LogStatsCounter; sketches of a level are allocated with its
+ * first entry in the bucket. Nothing is persisted, so the summaries start empty after a restart.
+ */
+@Service
+public class LogSketchService implements LogIngestListener {
+    
+    private static final LogLevel[] LEVELS = LogLevel.values();
+    
+    private static final DictionaryField[] FIELDS = DictionaryField.values();
+    
+    @Autowired
+    private LogTemplateService templateService;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${logs.sketch.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${logs.sketch.bucket:10m}")
+    private Duration bucket;
+    
+    @Value("${logs.sketch.window:24h}")
+    private Duration window;
+    
+    @Value("${logs.sketch.precision:11}")
+    private int precision;
+    
+    @Value("${logs.sketch.top-capacity:64}")
+    private int topCapacity;
+    
+    private long bucketMinutes;
+    // Ring of buckets: slot i holds bucket number bucketOfSlot[i] (epoch minute / bucketMinutes)
+    private long[] bucketOfSlot;
+    private Bucket[] slots;
+    private Timer queryTimer;
+    
+    @PostConstruct
+    void init() {
+        bucketMinutes = Math.max(1, bucket.toMinutes());
+        // Extra slots for entries dated ahead within the clock skew allowance of LogStatsCounter
+        int count = (int) ((window.toMinutes() + bucketMinutes - 1) / bucketMinutes) + 1
+                + (int) ((LogStatsCounter.MAX_CLOCK_SKEW_MINUTES + bucketMinutes - 1) / bucketMinutes);
+        bucketOfSlot = new long[count];
+        Arrays.fill(bucketOfSlot, Long.MIN_VALUE);
+        slots = new Bucket[count];
+        queryTimer = Timer.builder("logs.sketch.query")
+                .description("Time to merge the sketches of a window into a summary")
+                .register(meterRegistry);
+    }
+    
+    @Override
+    public void onLogsIngested(List<LogEntry> entries) {
+        if (!enabled) {
+            return;
+        }
+        long latest = Math.floorDiv(LogRollupService.epochMinute(LocalDateTime.now()) + LogStatsCounter.MAX_CLOCK_SKEW_MINUTES,
+                bucketMinutes);
+        Bucket target = null;
+        long targetNumber = Long.MIN_VALUE;
+        for (LogEntry entry : entries) {
+            long number = Math.floorDiv(LogRollupService.epochMinute(entry.getTimestamp()), bucketMinutes);
+            if (number != targetNumber) {
+                target = bucketFor(number, latest);
+                targetNumber = number;
+            }
+            if (target == null) {
+                // Older than the ring covers, or dated too far ahead
+                continue;
+            }
+            int level = entry.getLevel().ordinal();
+            // Per bucket, so a summary merging other buckets does not hold up ingest
+            synchronized (target) {
+                target.entries[level]++;
+                add(target, level, DictionaryField.SOURCE, entry.getSource());
+                add(target, level, DictionaryField.THREAD, entry.getThread());
+                add(target, level, DictionaryField.LOGGER, entry.getLogger());
+                if (entry.getSource() != null) {
+                    target.sources(level).add(entry.getSource(), 1);
+                }
+                if (entry.getTemplateId() != null) {
+                    target.templates(level).add(entry.getTemplateId(), 1);
+                }
+            }
+        }
+    }
+    
+    public boolean coversWindow(Duration requested) {
+        return requested.compareTo(window) <= 0;
+    }
+    
+    /**
+     * Summary of the buckets overlapping the trailing window, for one level or all of them
+     * (null). The distinct counts are estimates with a relative standard error of
+     * {@link LogSummaryDto#getDistinctError()}; top values carry their Space-Saving error.
+     */
+    public LogSummaryDto getSummary(Duration requested, LogLevel level, int limit) {
+        if (!coversWindow(requested)) {
+            throw new IllegalArgumentException("Summaries cover at most the last " + window.toHours() + " hours");
+        }
+        long start = System.nanoTime();
+        long lastBucket = Math.floorDiv(LogRollupService.epochMinute(LocalDateTime.now()), bucketMinutes);
+        long firstBucket = lastBucket - Math.max(1, (requested.toMinutes() + bucketMinutes - 1) / bucketMinutes) + 1;
+        
+        long entries = 0;
+        HyperLogLog[] distinct = new HyperLogLog[FIELDS.length];
+        for (int f = 0; f < FIELDS.length; f++) {
+            distinct[f] = new HyperLogLog(precision);
+        }
+        SpaceSaving<String> sources = new SpaceSaving<>(topCapacity);
+        SpaceSaving<Integer> templates = new SpaceSaving<>(topCapacity);
+        // The ring lock only for picking the buckets; each is merged under its own lock, so ingest
+        // waits at most for the merge of the one bucket it writes to
+        List<Bucket> selected = new ArrayList<>();
+        synchronized (this) {
+            for (long b = firstBucket; b <= lastBucket; b++) {
+                int slot = (int) Math.floorMod(b, (long) slots.length);
+                if (bucketOfSlot[slot] == b) {
+                    selected.add(slots[slot]);
+                }
+            }
+        }
+        for (Bucket source : selected) {
+            synchronized (source) {
+                for (int l = 0; l < LEVELS.length; l++) {
+                    if (level != null && level.ordinal() != l) {
+                        continue;
+                    }
+                    entries += source.entries[l];
+                    for (int f = 0; f < FIELDS.length; f++) {
+                        HyperLogLog sketch = source.distinct[l * FIELDS.length + f];
+                        if (sketch != null) {
+                            distinct[f].merge(sketch);
+                        }
+                    }
+                    if (source.sources[l] != null) {
+                        sources.merge(source.sources[l]);
+                    }
+                    if (source.templates[l] != null) {
+                        templates.merge(source.templates[l]);
+                    }
+                }
+            }
+        }
+        
+        LogSummaryDto summary = new LogSummaryDto();
+        summary.setFrom(LogRollupService.toLocalDateTime(firstBucket * bucketMinutes));
+        summary.setTo(LogRollupService.toLocalDateTime((lastBucket + 1) * bucketMinutes));
+        summary.setLevel(level);
+        summary.setEntries(entries);
+        summary.setDistinctSources(distinct[DictionaryField.SOURCE.ordinal()].estimate());
+        summary.setDistinctThreads(distinct[DictionaryField.THREAD.ordinal()].estimate());
+        summary.setDistinctLoggers(distinct[DictionaryField.LOGGER.ordinal()].estimate());
+        summary.setDistinctError(distinct[0].standardError());
+        
+        List<TopValueDto> topSources = new ArrayList<>();
+        for (SpaceSaving.Item<String> item : sources.top(limit)) {
+            topSources.add(new TopValueDto(item.value(), null, item.count(), item.error()));
+        }
+        summary.setTopSources(topSources);
+        queryTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        
+        // Template texts are read from log_templates, outside of the timed merge
+        List<SpaceSaving.Item<Integer>> topTemplates = templates.top(limit);
+        Map<Integer, String> texts = topTemplates.isEmpty() ? Map.of()
+                : templateService.getTemplateTexts(topTemplates.stream().map(SpaceSaving.Item::value).toList());
+        List<TopValueDto> topMessages = new ArrayList<>();
+        for (SpaceSaving.Item<Integer> item : topTemplates) {
+            topMessages.add(new TopValueDto(texts.get(item.value()), item.value(), item.count(), item.error()));
+        }
+        summary.setTopMessages(topMessages);
+        return summary;
+    }
+    
+    private void add(Bucket target, int level, DictionaryField field, String value) {
+        if (value == null) {
+            return;
+        }
+        int index = level * FIELDS.length + field.ordinal();
+        HyperLogLog sketch = target.distinct[index];
+        if (sketch == null) {
+            sketch = new HyperLogLog(precision);
+            target.distinct[index] = sketch;
+        }
+        sketch.add(HyperLogLog.hash(value));
+    }
+    
+    // The bucket's sketches, starting over when its slot held an older bucket; null when it is older than the
+    // ring or after latest, as it would take the slot of a bucket still in the window
+    private synchronized Bucket bucketFor(long number, long latest) {
+        if (number > latest) {
+            return null;
+        }
+        int slot = (int) Math.floorMod(number, (long) slots.length);
+        if (bucketOfSlot[slot] != number) {
+            if (bucketOfSlot[slot] > number) {
+                return null;
+            }
+            bucketOfSlot[slot] = number;
+            slots[slot] = new Bucket();
+        }
+        return slots[slot];
+    }
+    
+    private final class Bucket {
+        final long[] entries = new long[LEVELS.length];
+        // Indexed level * fields + field
+        final HyperLogLog[] distinct = new HyperLogLog[LEVELS.length * FIELDS.length];
+        @SuppressWarnings("unchecked")
+        final SpaceSaving<String>[] sources = new SpaceSaving[LEVELS.length];
+        @SuppressWarnings("unchecked")
+        final SpaceSaving<Integer>[] templates = new SpaceSaving[LEVELS.length];
+        
+        SpaceSaving<String> sources(int level) {
+            if (sources[level] == null) {
+                sources[level] = new SpaceSaving<>(topCapacity);
+            }
+            return sources[level];
+        }
+        
+        SpaceSaving<Integer> templates(int level) {
+            if (templates[level] == null) {
+                templates[level] = new SpaceSaving<>(topCapacity);
+            }
+            return templates[level];
+        }
+    }
+}
\ No newline at end of file
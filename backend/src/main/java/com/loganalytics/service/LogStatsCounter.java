@@ -0,0 +1,207 @@
+package com.loganalytics.service;
+
+import com.loganalytics.dto.LogStatsDto;
+import com.loganalytics.model.LogEntry;
+import com.loganalytics.model.LogLevel;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory per-level counters behind /api/logs/stats. All-time totals and the ring of
+ * per-minute counts for recent windows are seeded from the rollups at startup, so they
+ * survive retention deleting the raw entries.
+ */
+@Component
+public class LogStatsCounter implements LogIngestListener {
+    
+    private static final Logger log = LoggerFactory.getLogger(LogStatsCounter.class);
+    
+    private static final LogLevel[] LEVELS = LogLevel.values();
+    
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+    
+    // Minutes an entry may be dated ahead of this clock and still count in the ring; the ring has
+    // this many extra slots so such entries never take the slot of a minute still in the window
+    static final int MAX_CLOCK_SKEW_MINUTES = 5;
+    
+    @Autowired
+    private LogRollupService rollupService;
+    
+    @Value("${logs.stats.window.max:24h}")
+    private Duration maxWindow;
+    
+    @Value("${logs.stats.reconcile.enabled:false}")
+    private boolean reconcileEnabled;
+    
+    private final LongAdder[] totals = new LongAdder[LEVELS.length];
+    
+    // Ring of per-minute counts: slot i covers epoch minute minuteOfSlot[i]
+    private long[] minuteOfSlot;
+    private long[] slotCounts;
+    private int slots;
+    
+    public LogStatsCounter() {
+        for (int i = 0; i < totals.length; i++) {
+            totals[i] = new LongAdder();
+        }
+    }
+    
+    @PostConstruct
+    void seed() {
+        slots = (int) maxWindow.toMinutes() + 1 + MAX_CLOCK_SKEW_MINUTES;
+        minuteOfSlot = new long[slots];
+        slotCounts = new long[slots * LEVELS.length];
+        Arrays.fill(minuteOfSlot, Long.MIN_VALUE);
+        
+        long[] seeded = rollupService.countByLevelSince(EPOCH);
+        for (int i = 0; i < LEVELS.length; i++) {
+            totals[i].add(seeded[i]);
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime windowStart = now.truncatedTo(ChronoUnit.MINUTES).minusMinutes(maxWindow.toMinutes());
+        long latest = epochMinute(now) + MAX_CLOCK_SKEW_MINUTES;
+        synchronized (this) {
+            for (Object[] row : rollupService.countByMinuteAndLevelSince(windowStart)) {
+                addToSlot(epochMinute(LogRollupService.toLocalDateTime(row[0])), (LogLevel) row[1], ((Number) row[2]).longValue(), latest);
+            }
+        }
+        log.info("Seeded log stats counters: {} entries", total());
+    }
+    
+    @Override
+    public void onLogsIngested(List<LogEntry> entries) {
+        long[] counts = new long[LEVELS.length];
+        for (LogEntry entry : entries) {
+            counts[entry.getLevel().ordinal()]++;
+        }
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                totals[i].add(counts[i]);
+            }
+        }
+        
+        long latest = epochMinute(LocalDateTime.now()) + MAX_CLOCK_SKEW_MINUTES;
+        synchronized (this) {
+            for (LogEntry entry : entries) {
+                addToSlot(epochMinute(entry.getTimestamp()), entry.getLevel(), 1, latest);
+            }
+        }
+    }
+    
+    public LogStatsDto getStats() {
+        return toDto(snapshotTotals());
+    }
+    
+    public boolean coversWindow(Duration window) {
+        return window.compareTo(maxWindow) <= 0;
+    }
+    
+    // Counts for entries whose timestamp falls in the given trailing window, at minute granularity
+    public LogStatsDto getStats(Duration window) {
+        long now = epochMinute(LocalDateTime.now());
+        long from = now - Math.max(window.toMinutes(), 1) + 1;
+        long[] counts = new long[LEVELS.length];
+        synchronized (this) {
+            for (int slot = 0; slot < slots; slot++) {
+                long minute = minuteOfSlot[slot];
+                if (minute >= from && minute <= now) {
+                    for (int i = 0; i < LEVELS.length; i++) {
+                        counts[i] += slotCounts[slot * LEVELS.length + i];
+                    }
+                }
+            }
+        }
+        return toDto(counts);
+    }
+    
+    // Corrects drift against the hour rollups while tolerating entries ingested during the query
+    @Scheduled(fixedDelayString = "${logs.stats.reconcile.interval:PT5M}",
+               initialDelayString = "${logs.stats.reconcile.interval:PT5M}")
+    public void reconcile() {
+        if (!reconcileEnabled) {
+            return;
+        }
+        
+        long[] before = snapshotTotals();
+        long[] database = rollupService.countByLevelSince(EPOCH);
+        long[] after = snapshotTotals();
+        
+        for (int i = 0; i < LEVELS.length; i++) {
+            // The query may or may not have seen the entries counted between the two snapshots
+            long difference = database[i] - before[i];
+            long concurrent = after[i] - before[i];
+            long correction = difference < 0 ? difference : Math.max(0, difference - concurrent);
+            if (correction != 0) {
+                totals[i].add(correction);
+                log.warn("Corrected {} counter by {}", LEVELS[i], correction);
+            }
+        }
+    }
+    
+    private void addToSlot(long minute, LogLevel level, long count, long latest) {
+        if (minute > latest) {
+            // Dated further ahead than clock skew explains; taking a slot would evict a minute
+            // still in the window, so only the totals track it
+            return;
+        }
+        int slot = (int) Math.floorMod(minute, (long) slots);
+        if (minuteOfSlot[slot] != minute) {
+            if (minuteOfSlot[slot] > minute) {
+                // Older than the ring covers; only the totals track it
+                return;
+            }
+            minuteOfSlot[slot] = minute;
+            for (int i = 0; i < LEVELS.length; i++) {
+                slotCounts[slot * LEVELS.length + i] = 0;
+            }
+        }
+        slotCounts[slot * LEVELS.length + level.ordinal()] += count;
+    }
+    
+    private long[] snapshotTotals() {
+        long[] counts = new long[LEVELS.length];
+        for (int i = 0; i < LEVELS.length; i++) {
+            counts[i] = totals[i].sum();
+        }
+        return counts;
+    }
+    
+    private long total() {
+        long total = 0;
+        for (LongAdder adder : totals) {
+            total += adder.sum();
+        }
+        return total;
+    }
+    
+    private static LogStatsDto toDto(long[] counts) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        return new LogStatsDto(total,
+                counts[LogLevel.ERROR.ordinal()],
+                counts[LogLevel.WARN.ordinal()],
+                counts[LogLevel.INFO.ordinal()],
+                counts[LogLevel.DEBUG.ordinal()],
+                counts[LogLevel.TRACE.ordinal()]);
+    }
+    
+    private static long epochMinute(LocalDateTime timestamp) {
+        return Math.floorDiv(timestamp.toEpochSecond(ZoneOffset.UTC), 60L);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,112 @@
+package com.loganalytics.service;
+
+import com.loganalytics.dto.LogEntryDto;
+import com.loganalytics.model.LogLevel;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Compiled filter of a live log subscription: a set of levels, an exact source, a message
+ * substring and a message regex, all optional. Filters with the same settings have the same
+ * {@link #getKey() key}, so subscribers that ask for the same thing share one instance.
+ */
+public final class LogStreamFilter {
+    
+    public static final int MAX_PATTERN_LENGTH = 256;
+    
+    private final Set<LogLevel> levels;
+    private final String source;
+    private final String contains;
+    private final Pattern regex;
+    private final String key;
+    
+    private LogStreamFilter(Set<LogLevel> levels, String source, String contains, Pattern regex) {
+        this.levels = levels;
+        this.source = source;
+        this.contains = contains;
+        this.regex = regex;
+        this.key = buildKey();
+    }
+    
+    /**
+     * Parses the subscribe header values; null or blank values mean "no restriction".
+     * Throws IllegalArgumentException for unknown levels or an invalid regex.
+     */
+    public static LogStreamFilter parse(String levels, String source, String contains, String regex) {
+        Set<LogLevel> levelSet = EnumSet.allOf(LogLevel.class);
+        if (levels != null && !levels.isBlank()) {
+            levelSet = EnumSet.noneOf(LogLevel.class);
+            for (String level : levels.split(",")) {
+                try {
+                    levelSet.add(LogLevel.valueOf(level.trim().toUpperCase(Locale.ROOT)));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("unknown level '" + level.trim() + "'");
+                }
+            }
+        }
+        
+        Pattern pattern = null;
+        if (regex != null && !regex.isEmpty()) {
+            if (regex.length() > MAX_PATTERN_LENGTH) {
+                throw new IllegalArgumentException("regex must not be longer than " + MAX_PATTERN_LENGTH + " characters");
+            }
+            try {
+                pattern = Pattern.compile(regex);
+            } catch (PatternSyntaxException e) {
+                throw new IllegalArgumentException("invalid regex: " + e.getDescription());
+            }
+        }
+        return new LogStreamFilter(levelSet, blankToNull(source), contains == null || contains.isEmpty() ? null : contains, pattern);
+    }
+    
+    public boolean matches(LogEntryDto entry) {
+        if (!levels.contains(entry.getLevel())) {
+            return false;
+        }
+        if (source != null && !source.equals(entry.getSource())) {
+            return false;
+        }
+        String message = entry.getMessage();
+        if (contains != null && (message == null || !message.contains(contains))) {
+            return false;
+        }
+        return regex == null || (message != null && regex.matcher(message).find());
+    }
+    
+    // True when every entry matches, i.e. the plain /topic/logs subscription
+    public boolean isUnfiltered() {
+        return levels.size() == LogLevel.values().length && source == null && contains == null && regex == null;
+    }
+    
+    public String getKey() {
+        return key;
+    }
+    
+    private String buildKey() {
+        StringJoiner levelNames = new StringJoiner(",");
+        levels.forEach(level -> levelNames.add(level.name()));
+        // Lengths keep the key unambiguous whatever characters the values contain
+        return "levels=" + levelNames
+                + "|source=" + lengthPrefixed(source)
+                + "|contains=" + lengthPrefixed(contains)
+                + "|regex=" + lengthPrefixed(regex == null ? null : regex.pattern());
+    }
+    
+    private static String lengthPrefixed(String value) {
+        return value == null ? "-" : value.length() + ":" + value;
+    }
+    
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+    
+    @Override
+    public String toString() {
+        return key;
+    }
+}
\ No newline at end of file
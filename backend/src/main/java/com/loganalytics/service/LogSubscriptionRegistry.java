@@ -0,0 +1,112 @@
+package com.loganalytics.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tracks the live log subscriptions by filter and format. Every distinct filter and format gets
+ * its own broker destination; subscriptions asking for the same are pointed at the same one, so
+ * the broadcaster matches and serializes each batch once per destination rather than once per
+ * session.
+ */
+@Component
+public class LogSubscriptionRegistry {
+    
+    /** A filter with at least one subscriber, the format they read and the destination its entries are sent to. */
+    public static final class ActiveFilter {
+        
+        private final LogStreamFilter filter;
+        private final LogWireFormat format;
+        private final String destination;
+        private int subscribers;
+        
+        private ActiveFilter(LogStreamFilter filter, LogWireFormat format, String destination) {
+            this.filter = filter;
+            this.format = format;
+            this.destination = destination;
+        }
+        
+        public LogStreamFilter getFilter() {
+            return filter;
+        }
+        
+        public LogWireFormat getFormat() {
+            return format;
+        }
+        
+        public String getDestination() {
+            return destination;
+        }
+    }
+    
+    private final Map<String, ActiveFilter> filtersByKey = new HashMap<>();
+    // session id -> subscription id -> filter key (prefixed with the format unless JSON)
+    private final Map<String, Map<String, String>> subscriptions = new HashMap<>();
+    private long nextFilterId = 1;
+    
+    private volatile List<ActiveFilter> activeFilters = List.of();
+    
+    /**
+     * Registers a subscription and returns the destination it has to subscribe to:
+     * {@link LogBroadcaster#DESTINATION} itself when the filter lets everything through in JSON.
+     */
+    public synchronized String subscribe(String sessionId, String subscriptionId, LogStreamFilter filter,
+                                         LogWireFormat format) {
+        unsubscribe(sessionId, subscriptionId);
+        
+        String key = format == LogWireFormat.JSON ? filter.getKey() : format.name() + "|" + filter.getKey();
+        ActiveFilter active = filtersByKey.get(key);
+        if (active == null) {
+            String destination = filter.isUnfiltered() && format == LogWireFormat.JSON
+                    ? LogBroadcaster.DESTINATION
+                    : LogBroadcaster.DESTINATION + ".f" + nextFilterId++;
+            active = new ActiveFilter(filter, format, destination);
+            filtersByKey.put(key, active);
+            publishActiveFilters();
+        }
+        active.subscribers++;
+        subscriptions.computeIfAbsent(sessionId, id -> new HashMap<>()).put(subscriptionId, key);
+        return active.destination;
+    }
+    
+    public synchronized void unsubscribe(String sessionId, String subscriptionId) {
+        Map<String, String> sessionSubscriptions = subscriptions.get(sessionId);
+        if (sessionSubscriptions == null) {
+            return;
+        }
+        String key = sessionSubscriptions.remove(subscriptionId);
+        if (sessionSubscriptions.isEmpty()) {
+            subscriptions.remove(sessionId);
+        }
+        if (key != null) {
+            release(key);
+        }
+    }
+    
+    public synchronized void disconnect(String sessionId) {
+        Map<String, String> sessionSubscriptions = subscriptions.remove(sessionId);
+        if (sessionSubscriptions != null) {
+            sessionSubscriptions.values().forEach(this::release);
+        }
+    }
+    
+    // Filters with at least one subscriber; an empty list means nobody is listening
+    public List<ActiveFilter> getActiveFilters() {
+        return activeFilters;
+    }
+    
+    private void release(String key) {
+        ActiveFilter active = filtersByKey.get(key);
+        if (active != null && --active.subscribers == 0) {
+            filtersByKey.remove(key);
+            publishActiveFilters();
+        }
+    }
+    
+    private void publishActiveFilters() {
+        activeFilters = List.copyOf(filtersByKey.values());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,277 @@
+package com.loganalytics.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Online template mining after Drain (He et al., ICWS 2017). The first line of a message is split
+ * at whitespace and routed down a tree of fixed depth: first by its token count, then by one
+ * leading token per level. The leaf keeps the templates seen on that path, and the message joins
+ * the most similar one when at least {@code similarity} of the tokens agree, turning the tokens
+ * that differ into {@code <*>}. Otherwise it starts a new template. A token with a digit in it
+ * is taken for a parameter right away.
+ * <p>
+ * Memory is bounded: a node has at most {@code maxChildren} children, further tokens share its
+ * {@code <*>} child, and past {@code maxTemplates} the least recently matched template is
+ * forgotten along with the tree nodes only it used. Its messages start a new template when they
+ * come back. Safe to share between threads; one message is matched at a time.
+ */
+public class LogTemplateMiner {
+    
+    public static final String WILDCARD = "<*>";
+    
+    // Gives a new template its id; called with the miner locked
+    @FunctionalInterface
+    public interface IdAllocator {
+        int allocate(String template, int tokenCount);
+    }
+    
+    private final IdAllocator idAllocator;
+    // Tree levels below the token count level
+    private final int tokenLevels;
+    private final double similarity;
+    private final int maxChildren;
+    private final int maxTemplates;
+    private final int maxTokens;
+    
+    private final Node root = new Node(null, null);
+    // Access order, so the eldest template is the least recently matched one
+    private final LinkedHashMap<Integer, Template> templates = new LinkedHashMap<>(256, 0.75f, true);
+    // Templates that gained wildcards since the last takeChanged
+    private final Set<Template> changed = new LinkedHashSet<>();
+    private long evicted;
+    
+    /**
+     * @param depth tree depth as in Drain, counting the root and the token count level, at least 3
+     * @param similarity share of equal tokens (wildcards count as equal) needed to join a template
+     */
+    public LogTemplateMiner(IdAllocator idAllocator, int depth, double similarity, int maxChildren,
+                            int maxTemplates, int maxTokens) {
+        if (depth < 3) {
+            throw new IllegalArgumentException("depth must be at least 3");
+        }
+        if (maxChildren < 2 || maxTemplates < 1 || maxTokens < 2) {
+            throw new IllegalArgumentException("maxChildren and maxTokens must be at least 2, maxTemplates at least 1");
+        }
+        this.idAllocator = idAllocator;
+        this.tokenLevels = depth - 2;
+        this.similarity = similarity;
+        this.maxChildren = maxChildren;
+        this.maxTemplates = maxTemplates;
+        this.maxTokens = maxTokens;
+    }
+    
+    // The template the message belongs to, created or generalized as needed
+    public synchronized Template add(String message) {
+        String[] tokens = tokenize(message);
+        Node leaf = find(tokens);
+        Template best = leaf != null ? bestMatch(leaf, tokens) : null;
+        if (best != null) {
+            best.merge(tokens);
+            templates.get(best.id);
+            return best;
+        }
+        
+        Template template = new Template(idAllocator.allocate(String.join(" ", tokens), tokens.length), tokens);
+        insert(template);
+        return template;
+    }
+    
+    // Puts back a template stored earlier, e.g. at startup; the most recently loaded counts as newest
+    public synchronized void load(int id, String template) {
+        Template loaded = new Template(id, template.isEmpty() ? new String[0] : template.split(" "));
+        if (!templates.containsKey(id)) {
+            insert(loaded);
+        }
+    }
+    
+    // Templates whose text changed since the previous call
+    public synchronized List<Template> takeChanged() {
+        List<Template> result = new ArrayList<>(changed);
+        changed.clear();
+        return result;
+    }
+    
+    public synchronized int size() {
+        return templates.size();
+    }
+    
+    public synchronized long getEvicted() {
+        return evicted;
+    }
+    
+    private String[] tokenize(String message) {
+        int end = message.indexOf('\n');
+        String line = (end >= 0 ? message.substring(0, end) : message).strip();
+        if (line.isEmpty()) {
+            return new String[0];
+        }
+        String[] tokens = line.split("\\s+", maxTokens);
+        if (tokens.length == maxTokens && tokens[maxTokens - 1].chars().anyMatch(Character::isWhitespace)) {
+            // Longer messages are told apart by their first tokens only
+            tokens[maxTokens - 1] = WILDCARD;
+        }
+        for (int i = 0; i < tokens.length; i++) {
+            if (hasDigit(tokens[i])) {
+                tokens[i] = WILDCARD;
+            }
+        }
+        return tokens;
+    }
+    
+    private static boolean hasDigit(String token) {
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c >= '0' && c <= '9') {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    // The leaf a message would be matched in, following <*> where its own token has no node
+    private Node find(String[] tokens) {
+        Node node = root.children.get(lengthKey(tokens.length));
+        for (int level = 0; node != null && level < Math.min(tokenLevels, tokens.length); level++) {
+            Node child = node.children.get(tokens[level]);
+            node = child != null ? child : node.children.get(WILDCARD);
+        }
+        return node;
+    }
+    
+    private Template bestMatch(Node leaf, String[] tokens) {
+        Template best = null;
+        int bestScore = -1;
+        int bestWildcards = -1;
+        for (Template template : leaf.templates) {
+            int score = 0;
+            int wildcards = 0;
+            for (int i = 0; i < tokens.length; i++) {
+                String token = template.tokens[i];
+                if (token == WILDCARD) {
+                    wildcards++;
+                    score++;
+                } else if (token.equals(tokens[i])) {
+                    score++;
+                }
+            }
+            // Ties go to the more general template
+            if (score > bestScore || (score == bestScore && wildcards > bestWildcards)) {
+                best = template;
+                bestScore = score;
+                bestWildcards = wildcards;
+            }
+        }
+        if (best == null) {
+            return null;
+        }
+        return tokens.length == 0 || (double) bestScore / tokens.length >= similarity ? best : null;
+    }
+    
+    private void insert(Template template) {
+        String[] tokens = template.tokens;
+        Node node = root.child(lengthKey(tokens.length));
+        for (int level = 0; level < Math.min(tokenLevels, tokens.length); level++) {
+            String token = tokens[level];
+            Node child = node.children.get(token);
+            if (child == null) {
+                // A full node sends every further token to its <*> child
+                boolean full = node.children.size() >= maxChildren - (node.children.containsKey(WILDCARD) ? 0 : 1);
+                child = node.child(token == WILDCARD || full ? WILDCARD : token);
+            }
+            node = child;
+        }
+        node.templates.add(template);
+        template.leaf = node;
+        templates.put(template.id, template);
+        
+        if (templates.size() > maxTemplates) {
+            Iterator<Template> eldest = templates.values().iterator();
+            remove(eldest.next());
+            eldest.remove();
+            evicted++;
+        }
+    }
+    
+    private void remove(Template template) {
+        Node node = template.leaf;
+        node.templates.remove(template);
+        while (node.parent != null && node.templates.isEmpty() && node.children.isEmpty()) {
+            node.parent.children.remove(node.key);
+            node = node.parent;
+        }
+    }
+    
+    private static String lengthKey(int tokenCount) {
+        return Integer.toString(tokenCount);
+    }
+    
+    public final class Template {
+        
+        private final int id;
+        // Interned WILDCARD for wildcards, so they compare by reference
+        private final String[] tokens;
+        private Node leaf;
+        
+        private Template(int id, String[] tokens) {
+            this.id = id;
+            this.tokens = tokens;
+            for (int i = 0; i < tokens.length; i++) {
+                if (WILDCARD.equals(tokens[i])) {
+                    tokens[i] = WILDCARD;
+                }
+            }
+        }
+        
+        public int getId() {
+            return id;
+        }
+        
+        public String getText() {
+            synchronized (LogTemplateMiner.this) {
+                return String.join(" ", tokens);
+            }
+        }
+        
+        public int getTokenCount() {
+            return tokens.length;
+        }
+        
+        private void merge(String[] message) {
+            boolean generalized = false;
+            for (int i = 0; i < tokens.length; i++) {
+                if (tokens[i] != WILDCARD && !tokens[i].equals(message[i])) {
+                    tokens[i] = WILDCARD;
+                    generalized = true;
+                }
+            }
+            if (generalized) {
+                changed.add(this);
+            }
+        }
+    }
+    
+    private static final class Node {
+        
+        final Node parent;
+        final String key;
+        final Map<String, Node> children = new HashMap<>();
+        // Only on leaves
+        final List<Template> templates = new ArrayList<>(2);
+        
+        Node(Node parent, String key) {
+            this.parent = parent;
+            this.key = key;
+        }
+        
+        Node child(String key) {
+            return children.computeIfAbsent(key, k -> new Node(this, k));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,329 @@
+package com.loganalytics.service;
+
+import com.loganalytics.dto.LogPatternDto;
+import com.loganalytics.model.LogEntry;
+import com.loganalytics.model.LogTemplate;
+import com.loganalytics.model.LogTemplateCount;
+import com.loganalytics.model.RollupGranularity;
+import com.loganalytics.repository.LogTemplateCountRepository;
+import com.loganalytics.repository.LogTemplateRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Groups messages into templates with {@link LogTemplateMiner} and counts entries per template.
+ * Every entry gets its template id before it is stored, so grouping by template is an integer
+ * lookup on idx_log_entries_template_timestamp_id. A new template is inserted into
+ * log_templates right away, in its own transaction like a new dictionary name; text changes
+ * from generalizing and the per-minute and per-hour counts are merged into the tables on the
+ * rollup flush interval, the same way LogRollupService does for levels and sources.
+ */
+@Service
+public class LogTemplateService implements LogIngestListener {
+    
+    private static final Logger log = LoggerFactory.getLogger(LogTemplateService.class);
+    
+    @Autowired
+    private LogTemplateRepository templateRepository;
+    
+    @Autowired
+    private LogTemplateCountRepository countRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${logs.templates.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${logs.templates.depth:4}")
+    private int depth;
+    
+    @Value("${logs.templates.similarity:0.5}")
+    private double similarity;
+    
+    @Value("${logs.templates.max-children:100}")
+    private int maxChildren;
+    
+    @Value("${logs.templates.max-templates:10000}")
+    private int maxTemplates;
+    
+    @Value("${logs.templates.max-tokens:64}")
+    private int maxTokens;
+    
+    @Value("${logs.rollup.minute-retention:7d}")
+    private Duration minuteRetention;
+    
+    @Value("${logs.rollup.max-buckets:5000}")
+    private int maxBuckets;
+    
+    private record CountKey(RollupGranularity granularity, long bucketMinute, int templateId) {}
+    
+    private volatile ConcurrentHashMap<CountKey, LongAdder> pending = new ConcurrentHashMap<>();
+    
+    // Same roles as in LogRollupService: swapping pending, and readers against a flush in progress
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private final ReentrantReadWriteLock flushLock = new ReentrantReadWriteLock();
+    
+    private LogTemplateMiner miner;
+    // Generalized templates whose text could not be saved yet
+    private final List<LogTemplateMiner.Template> unsavedTemplates = new ArrayList<>();
+    private Counter createdCounter;
+    private Timer assignTimer;
+    
+    @PostConstruct
+    void load() {
+        miner = new LogTemplateMiner(this::register, depth, similarity, maxChildren, maxTemplates, maxTokens);
+        List<LogTemplate> newest = templateRepository.findNewest(PageRequest.of(0, maxTemplates));
+        for (int i = newest.size() - 1; i >= 0; i--) {
+            miner.load(newest.get(i).getId(), newest.get(i).getTemplate());
+        }
+        log.info("Loaded {} message templates", newest.size());
+        
+        createdCounter = Counter.builder("logs.templates.created")
+                .description("Message templates created")
+                .register(meterRegistry);
+        assignTimer = Timer.builder("logs.templates.assign")
+                .description("Time to match a batch of messages against the templates")
+                .register(meterRegistry);
+        Gauge.builder("logs.templates.size", miner, LogTemplateMiner::size)
+                .description("Templates held by the miner")
+                .register(meterRegistry);
+        FunctionCounter.builder("logs.templates.evicted", miner, LogTemplateMiner::getEvicted)
+                .description("Least recently matched templates the miner forgot to stay within max-templates")
+                .register(meterRegistry);
+    }
+    
+    // Sets the template id of every entry; called before the entries are stored
+    public void assignTemplates(List<LogEntry> entries) {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        for (LogEntry entry : entries) {
+            entry.setTemplateId(miner.add(entry.getMessage()).getId());
+        }
+        assignTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+    
+    @Override
+    public void onLogsIngested(List<LogEntry> entries) {
+        swapLock.readLock().lock();
+        try {
+            ConcurrentHashMap<CountKey, LongAdder> target = pending;
+            for (LogEntry entry : entries) {
+                Integer templateId = entry.getTemplateId();
+                if (templateId == null) {
+                    continue;
+                }
+                long minute = LogRollupService.epochMinute(entry.getTimestamp());
+                target.computeIfAbsent(new CountKey(RollupGranularity.MINUTE, minute, templateId),
+                        k -> new LongAdder()).increment();
+                target.computeIfAbsent(new CountKey(RollupGranularity.HOUR, Math.floorDiv(minute, 60L) * 60L, templateId),
+                        k -> new LongAdder()).increment();
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${logs.rollup.flush-interval:PT1S}")
+    public void flush() {
+        flushLock.writeLock().lock();
+        try {
+            ConcurrentHashMap<CountKey, LongAdder> toFlush;
+            swapLock.writeLock().lock();
+            try {
+                toFlush = pending;
+                if (!toFlush.isEmpty()) {
+                    pending = new ConcurrentHashMap<>();
+                }
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+            List<LogTemplateMiner.Template> changed = new ArrayList<>(unsavedTemplates);
+            changed.addAll(miner.takeChanged());
+            unsavedTemplates.clear();
+            if (toFlush.isEmpty() && changed.isEmpty()) {
+                return;
+            }
+            
+            try {
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    for (LogTemplateMiner.Template template : changed) {
+                        templateRepository.updateTemplate(template.getId(), template.getText());
+                    }
+                    for (Map.Entry<CountKey, LongAdder> entry : toFlush.entrySet()) {
+                        CountKey key = entry.getKey();
+                        long delta = entry.getValue().sum();
+                        LocalDateTime bucketStart = LogRollupService.toLocalDateTime(key.bucketMinute());
+                        if (countRepository.increment(key.granularity(), bucketStart, key.templateId(), delta) == 0) {
+                            countRepository.save(new LogTemplateCount(key.granularity(), bucketStart, key.templateId(), delta));
+                        }
+                    }
+                });
+            } catch (RuntimeException e) {
+                // Keep everything for the next flush
+                log.warn("Template flush of {} buckets failed: {}", toFlush.size(), e.getMessage());
+                unsavedTemplates.addAll(changed);
+                swapLock.readLock().lock();
+                try {
+                    toFlush.forEach((key, count) -> pending.computeIfAbsent(key, k -> new LongAdder()).add(count.sum()));
+                } finally {
+                    swapLock.readLock().unlock();
+                }
+            }
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+    }
+    
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+    
+    @Scheduled(cron = "${logs.rollup.prune-cron:0 7 * * * *}")
+    public void pruneMinuteCounts() {
+        LocalDateTime before = LocalDateTime.now().minus(minuteRetention);
+        int deleted = new TransactionTemplate(transactionManager).execute(status ->
+                countRepository.deleteOlderThan(RollupGranularity.MINUTE, before));
+        if (deleted > 0) {
+            log.info("Pruned {} minute template count rows older than {}", deleted, before);
+        }
+    }
+    
+    /**
+     * The templates with the most entries in the trailing window, most frequent first, each with
+     * its count per bucket; buckets are laid out like those of /api/logs/timeseries.
+     */
+    public List<LogPatternDto> getTopPatterns(int hours, TimeBucket bucket, int limit) {
+        long bucketMinutes = bucket.getMinutes();
+        long nowMinute = LogRollupService.epochMinute(LocalDateTime.now());
+        long endMinute = Math.floorDiv(nowMinute, bucketMinutes) * bucketMinutes + bucketMinutes;
+        int bucketCount = (int) Math.max(1, (hours * 60L + bucketMinutes - 1) / bucketMinutes);
+        if (bucketCount > maxBuckets) {
+            throw new IllegalArgumentException("Requested " + bucketCount + " buckets, the maximum is " + maxBuckets);
+        }
+        long startMinute = endMinute - bucketCount * bucketMinutes;
+        RollupGranularity granularity = bucket.getGranularity();
+        if (granularity == RollupGranularity.MINUTE && startMinute < nowMinute - minuteRetention.toMinutes()) {
+            throw new IllegalArgumentException("Bucket size " + bucket.getLabel()
+                    + " is only available for the last " + minuteRetention.toHours() + " hours");
+        }
+        LocalDateTime start = LogRollupService.toLocalDateTime(startMinute);
+        LocalDateTime end = LogRollupService.toLocalDateTime(endMinute);
+        
+        Map<Integer, long[]> series = new HashMap<>();
+        Map<Integer, Long> totals = new HashMap<>();
+        long total = 0;
+        flushLock.readLock().lock();
+        try {
+            for (Object[] row : countRepository.sumByTemplate(granularity, start, end)) {
+                totals.merge((Integer) row[0], ((Number) row[1]).longValue(), Long::sum);
+            }
+            for (Map.Entry<CountKey, LongAdder> entry : pending.entrySet()) {
+                CountKey key = entry.getKey();
+                if (key.granularity() == granularity && key.bucketMinute() >= startMinute && key.bucketMinute() < endMinute) {
+                    totals.merge(key.templateId(), entry.getValue().sum(), Long::sum);
+                }
+            }
+            for (long count : totals.values()) {
+                total += count;
+            }
+            
+            List<Integer> top = totals.entrySet().stream()
+                    .sorted(Map.Entry.<Integer, Long>comparingByValue().reversed())
+                    .limit(limit)
+                    .map(Map.Entry::getKey)
+                    .toList();
+            if (top.isEmpty()) {
+                return List.of();
+            }
+            for (Integer templateId : top) {
+                series.put(templateId, new long[bucketCount]);
+            }
+            for (Object[] row : countRepository.findBuckets(granularity, start, end, top)) {
+                long minute = LogRollupService.epochMinute(LogRollupService.toLocalDateTime(row[1]));
+                series.get((Integer) row[0])[(int) ((minute - startMinute) / bucketMinutes)] += ((Number) row[2]).longValue();
+            }
+            for (Map.Entry<CountKey, LongAdder> entry : pending.entrySet()) {
+                CountKey key = entry.getKey();
+                long[] counts = series.get(key.templateId());
+                if (counts != null && key.granularity() == granularity
+                        && key.bucketMinute() >= startMinute && key.bucketMinute() < endMinute) {
+                    counts[(int) ((key.bucketMinute() - startMinute) / bucketMinutes)] += entry.getValue().sum();
+                }
+            }
+            
+            Map<Integer, String> texts = getTemplateTexts(top);
+            List<LogPatternDto> patterns = new ArrayList<>(top.size());
+            for (Integer templateId : top) {
+                LogPatternDto pattern = new LogPatternDto();
+                pattern.setTemplateId(templateId);
+                pattern.setTemplate(texts.get(templateId));
+                pattern.setCount(totals.get(templateId));
+                pattern.setPercentage(total > 0 ? (double) totals.get(templateId) / total * 100 : 0.0);
+                pattern.setBucket(bucket.getLabel());
+                pattern.setFrom(start);
+                pattern.setCounts(series.get(templateId));
+                patterns.add(pattern);
+            }
+            return patterns;
+        } finally {
+            flushLock.readLock().unlock();
+        }
+    }
+    
+    // Texts come from the table, which is at most one flush interval behind the miner
+    public Map<Integer, String> getTemplateTexts(Collection<Integer> templateIds) {
+        Map<Integer, String> texts = new HashMap<>();
+        for (LogTemplate template : templateRepository.findAllById(templateIds)) {
+            texts.put(template.getId(), template.getTemplate());
+        }
+        return texts;
+    }
+    
+    public boolean exists(int templateId) {
+        return templateRepository.existsById(templateId);
+    }
+    
+    private int register(String template, int tokenCount) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        // Independent of any transaction the caller is in, so the id stays valid if the entries roll back
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        LogTemplate saved = transaction.execute(status ->
+                templateRepository.save(new LogTemplate(template, tokenCount, LocalDateTime.now())));
+        createdCounter.increment();
+        return saved.getId();
+    }
+}
\ No newline at end of file
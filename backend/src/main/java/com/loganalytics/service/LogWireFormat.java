@@ -0,0 +1,53 @@
+package com.loganalytics.service;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.Comparator;
+import java.util.List;
+
+// Encodings of log entries offered besides JSON; JSON stays the default whenever nothing else is asked for
+public enum LogWireFormat {
+    JSON(MediaType.APPLICATION_JSON),
+    // One array per field instead of one object per entry, see LogColumnsWriter. JSON text, but without
+    // a +json suffix, which the Jackson JSON converter would answer with plain JSON
+    COLUMNS(new MediaType("application", "vnd.loganalytics.columns")),
+    CBOR(MediaType.APPLICATION_CBOR),
+    SMILE(new MediaType("application", "x-jackson-smile"));
+    
+    private final MediaType mediaType;
+    
+    LogWireFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+    
+    /**
+     * The first of {@code offered} named in an Accept value, by quality; JSON when the value is
+     * missing, malformed or names none of them. Wildcards do not select anything but JSON.
+     */
+    public static LogWireFormat fromAccept(String accept, LogWireFormat... offered) {
+        if (accept == null || accept.isBlank()) {
+            return JSON;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+        // Stable, so types of equal quality keep the order of the header
+        accepted.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType type : accepted) {
+            for (LogWireFormat format : offered) {
+                if (format.mediaType.equalsTypeAndSubtype(type)) {
+                    return format;
+                }
+            }
+        }
+        return JSON;
+    }
+    
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,184 @@
+package com.loganalytics.service;
+
+import com.loganalytics.dto.LogEntryDto;
+import com.loganalytics.model.LogLevel;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Random log entries for the demo and load generators. Every message is formatted when the entry
+ * is built, so numbers in it differ from entry to entry. Safe to share between threads.
+ */
+public class SampleLogFactory {
+    
+    private static final String[] DEFAULT_SOURCES = {
+        "UserService", "PaymentService", "AuthService", "DatabaseService",
+        "CacheService", "NotificationService", "ReportService", "ApiGateway"
+    };
+    
+    private static final String[] THREADS = {
+        "http-nio-8080-exec-1", "http-nio-8080-exec-2", "scheduler-thread-1",
+        "async-task-executor-1", "background-worker-1", "main"
+    };
+    
+    // Indexed by LogLevel ordinal; the two arguments are always passed, templates use as many as they need
+    private static final String[][] TEMPLATES = {
+        {
+            "Database connection timeout after %d seconds",
+            "Failed to process payment transaction TX-%d",
+            "Authentication failed for user %d",
+            "Memory allocation error in heap space (%d MB requested)",
+            "Network connection refused by 10.0.%d.%d",
+            "File not found exception occurred: /data/import-%d.csv",
+            "Invalid JSON format in request body at offset %d",
+            "SQL constraint violation detected on row %d"
+        },
+        {
+            "High memory usage detected: %d%% of heap space used",
+            "API rate limit approaching: %d/1000 requests",
+            "Slow database query detected (%d ms execution time)",
+            "Cache miss rate is above threshold (%d%%)",
+            "Deprecated API endpoint accessed by client %d",
+            "Configuration value using default setting for key option-%d",
+            "Connection pool size approaching maximum (%d of %d)",
+            "Disk space usage above %d%%"
+        },
+        {
+            "User authentication successful for user %d",
+            "System backup completed successfully in %d s",
+            "New user registration completed: user %d",
+            "Cache refreshed successfully (%d entries)",
+            "Scheduled task %d executed successfully",
+            "Configuration reloaded from file (version %d)",
+            "Health check passed for all %d services",
+            "Data synchronization completed: %d records"
+        },
+        {
+            "Processing request with ID: REQ-%d",
+            "Cache lookup performed for key: user_session_%d",
+            "Database query executed in %d ms",
+            "Method entry: processUserData(%d)",
+            "Validation completed for %d input parameters",
+            "Thread pool status: %d active threads",
+            "Memory usage: %d%% of allocated heap",
+            "Network latency measured: %d ms"
+        },
+        {
+            "Trace: entering handler %d with %d arguments",
+            "Trace: cache key user_session_%d hashed to bucket %d",
+            "Trace: acquired lock %d after %d ns",
+            "Trace: serialized response of %d bytes",
+            "Trace: row %d mapped to entity",
+            "Trace: retry loop iteration %d of %d",
+            "Trace: buffer %d flushed",
+            "Trace: header X-Request-Id=%d"
+        }
+    };
+    
+    private final LogLevel[] levels;
+    private final int[] levelThresholds;
+    private final String[] sources;
+    private final double[] sourceThresholds;
+    private final int messageCardinality;
+    
+    /**
+     * @param levelWeights relative weight of each level; levels left out are not generated
+     * @param sourceSkew Zipf exponent over the sources, 0 for a uniform choice
+     * @param messageCardinality distinct messages per level, 0 for practically unbounded
+     */
+    public SampleLogFactory(Map<LogLevel, Integer> levelWeights, int sourceCount, double sourceSkew,
+                            int messageCardinality) {
+        if (sourceCount < 1) {
+            throw new IllegalArgumentException("sourceCount must be at least 1");
+        }
+        if (sourceSkew < 0) {
+            throw new IllegalArgumentException("sourceSkew must not be negative");
+        }
+        if (messageCardinality < 0) {
+            throw new IllegalArgumentException("messageCardinality must not be negative");
+        }
+        
+        List<LogLevel> weightedLevels = new ArrayList<>();
+        List<Integer> thresholds = new ArrayList<>();
+        int total = 0;
+        for (LogLevel level : LogLevel.values()) {
+            Integer weight = levelWeights.get(level);
+            if (weight == null || weight == 0) {
+                continue;
+            }
+            if (weight < 0) {
+                throw new IllegalArgumentException("weight of " + level + " must not be negative");
+            }
+            total += weight;
+            weightedLevels.add(level);
+            thresholds.add(total);
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("at least one level needs a positive weight");
+        }
+        this.levels = weightedLevels.toArray(new LogLevel[0]);
+        this.levelThresholds = thresholds.stream().mapToInt(Integer::intValue).toArray();
+        
+        this.sources = new String[sourceCount];
+        this.sourceThresholds = new double[sourceCount];
+        double cumulative = 0;
+        for (int i = 0; i < sourceCount; i++) {
+            sources[i] = i < DEFAULT_SOURCES.length ? DEFAULT_SOURCES[i] : "Service" + (i + 1);
+            cumulative += 1 / Math.pow(i + 1, sourceSkew);
+            sourceThresholds[i] = cumulative;
+        }
+        this.messageCardinality = messageCardinality;
+    }
+    
+    public LogEntryDto next(LocalDateTime timestamp) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LogLevel level = pickLevel(random);
+        String source = pickSource(random);
+        
+        LogEntryDto logDto = new LogEntryDto();
+        logDto.setTimestamp(timestamp);
+        logDto.setLevel(level);
+        logDto.setMessage(message(level, random));
+        logDto.setSource(source);
+        logDto.setThread(THREADS[random.nextInt(THREADS.length)]);
+        logDto.setLogger(source + ".class");
+        return logDto;
+    }
+    
+    public List<LogEntryDto> batch(int size, LocalDateTime timestamp) {
+        List<LogEntryDto> batch = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            batch.add(next(timestamp));
+        }
+        return batch;
+    }
+    
+    private LogLevel pickLevel(ThreadLocalRandom random) {
+        int point = random.nextInt(levelThresholds[levelThresholds.length - 1]);
+        int i = Arrays.binarySearch(levelThresholds, point + 1);
+        return levels[i >= 0 ? i : -i - 1];
+    }
+    
+    private String pickSource(ThreadLocalRandom random) {
+        double point = random.nextDouble(sourceThresholds[sourceThresholds.length - 1]);
+        int i = Arrays.binarySearch(sourceThresholds, point);
+        return sources[Math.min(i >= 0 ? i : -i - 1, sources.length - 1)];
+    }
+    
+    private String message(LogLevel level, ThreadLocalRandom random) {
+        String[] templates = TEMPLATES[level.ordinal()];
+        if (messageCardinality == 0) {
+            return String.format(templates[random.nextInt(templates.length)],
+                    random.nextInt(100_000), random.nextInt(1_000));
+        }
+        // Message k of the level: the same k always formats to the same text
+        int k = random.nextInt(messageCardinality);
+        int values = k / templates.length;
+        return String.format(templates[k % templates.length], values, k % 97);
+    }
+}
\ No newline at end of file
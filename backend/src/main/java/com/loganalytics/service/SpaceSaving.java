@@ -0,0 +1,110 @@
+package com.loganalytics.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving heavy hitters (Metwally et al. 2005) with at most {@code capacity} counters. A
+ * value without a counter takes over the smallest one, inheriting its count as error, so counts
+ * never underestimate and any value with more than 1/capacity of the total is guaranteed to have
+ * a counter. Summaries merge by adding counters; a value missing from a full summary may have had
+ * up to that summary's smallest count there, which is added to its count and error. Not thread safe.
+ */
+public final class SpaceSaving<K> {
+    
+    public record Item<K>(K value, long count, long error) {}
+    
+    private static final class Counter {
+        long count;
+        long error;
+        
+        Counter(long count, long error) {
+            this.count = count;
+            this.error = error;
+        }
+    }
+    
+    private final int capacity;
+    private final Map<K, Counter> counters;
+    
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>();
+    }
+    
+    public void add(K value, long weight) {
+        Counter counter = counters.get(value);
+        if (counter != null) {
+            counter.count += weight;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(value, new Counter(weight, 0));
+            return;
+        }
+        // Only values new to a full summary scan for the smallest counter
+        K smallest = null;
+        Counter min = null;
+        for (Map.Entry<K, Counter> entry : counters.entrySet()) {
+            if (min == null || entry.getValue().count < min.count) {
+                smallest = entry.getKey();
+                min = entry.getValue();
+            }
+        }
+        counters.remove(smallest);
+        counters.put(value, new Counter(min.count + weight, min.count));
+    }
+    
+    public void merge(SpaceSaving<K> other) {
+        long ourMin = minCount();
+        long theirMin = other.minCount();
+        for (Map.Entry<K, Counter> entry : counters.entrySet()) {
+            if (!other.counters.containsKey(entry.getKey())) {
+                entry.getValue().count += theirMin;
+                entry.getValue().error += theirMin;
+            }
+        }
+        for (Map.Entry<K, Counter> entry : other.counters.entrySet()) {
+            Counter counter = counters.get(entry.getKey());
+            if (counter != null) {
+                counter.count += entry.getValue().count;
+                counter.error += entry.getValue().error;
+            } else {
+                counters.put(entry.getKey(), new Counter(entry.getValue().count + ourMin, entry.getValue().error + ourMin));
+            }
+        }
+        // Merging may leave more counters than capacity; the summary keeps them, they only sharpen the answer
+    }
+    
+    // The limit largest counters, largest first
+    public List<Item<K>> top(int limit) {
+        List<Item<K>> items = new ArrayList<>(counters.size());
+        counters.forEach((value, counter) -> items.add(new Item<>(value, counter.count, counter.error)));
+        items.sort(Comparator.comparingLong((Item<K> item) -> item.count()).reversed());
+        return items.size() > limit ? new ArrayList<>(items.subList(0, limit)) : items;
+    }
+    
+    public SpaceSaving<K> copy() {
+        SpaceSaving<K> copy = new SpaceSaving<>(capacity);
+        counters.forEach((value, counter) -> copy.counters.put(value, new Counter(counter.count, counter.error)));
+        return copy;
+    }
+    
+    // Smallest count a value without a counter may have had: 0 unless every counter is taken
+    private long minCount() {
+        if (counters.size() < capacity) {
+            return 0;
+        }
+        long min = Long.MAX_VALUE;
+        for (Counter counter : counters.values()) {
+            min = Math.min(min, counter.count);
+        }
+        return min;
+    }
+}
\ No newline at end of file
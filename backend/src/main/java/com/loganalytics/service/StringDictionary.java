@@ -0,0 +1,87 @@
+package com.loganalytics.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps strings to dense int codes and back. Codes are never reused, so a code read from a
+ * column always decodes to the string it was assigned to. Lookups are lock free; only adding a
+ * new string synchronizes. Code 0 stands for null.
+ *
+ * Codes are either assigned here by {@link #encode} or elsewhere (a database sequence) and
+ * registered with {@link #put}; one dictionary uses one or the other.
+ */
+public class StringDictionary {
+    
+    public static final int NULL = 0;
+    
+    private final ConcurrentHashMap<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[64];
+    private int nextCode = 1;
+    
+    public int encode(String value) {
+        if (value == null) {
+            return NULL;
+        }
+        Integer code = codes.get(value);
+        return code != null ? code : add(value);
+    }
+    
+    // Code of an already known string, or -1; for filters, which must not grow the dictionary
+    public int find(String value) {
+        if (value == null) {
+            return NULL;
+        }
+        Integer code = codes.get(value);
+        return code != null ? code : -1;
+    }
+    
+    // The string of a code, or null for 0 and for codes not known here
+    public String decode(int code) {
+        String[] current = values;
+        return code >= 0 && code < current.length ? current[code] : null;
+    }
+    
+    // Registers a code assigned elsewhere
+    public synchronized void put(int code, String value) {
+        if (code <= NULL) {
+            throw new IllegalArgumentException("code must be positive: " + code);
+        }
+        String[] current = values;
+        if (code >= current.length) {
+            current = Arrays.copyOf(current, Math.max(current.length * 2, code + 1));
+        }
+        current[code] = value;
+        values = current;
+        codes.put(value, code);
+        nextCode = Math.max(nextCode, code + 1);
+    }
+    
+    // Number of distinct strings, not counting null
+    public int size() {
+        return codes.size();
+    }
+    
+    // The distinct strings, in no particular order
+    public List<String> values() {
+        return new ArrayList<>(codes.keySet());
+    }
+    
+    private synchronized int add(String value) {
+        Integer existing = codes.get(value);
+        if (existing != null) {
+            return existing;
+        }
+        String[] current = values;
+        if (nextCode == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[nextCode] = value;
+        // Publish the array before the code so a reader holding the code can decode it
+        values = current;
+        codes.put(value, nextCode);
+        return nextCode++;
+    }
+}
\ No newline at end of file
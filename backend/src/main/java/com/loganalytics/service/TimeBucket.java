@@ -0,0 +1,42 @@
+package com.loganalytics.service;
+
+import com.loganalytics.model.RollupGranularity;
+
+// Bucket sizes supported by /api/logs/timeseries and the rollup granularity each one is built from
+public enum TimeBucket {
+    ONE_MINUTE("1m", 1, RollupGranularity.MINUTE),
+    FIVE_MINUTES("5m", 5, RollupGranularity.MINUTE),
+    ONE_HOUR("1h", 60, RollupGranularity.HOUR),
+    ONE_DAY("1d", 1440, RollupGranularity.HOUR);
+    
+    private final String label;
+    private final int minutes;
+    private final RollupGranularity granularity;
+    
+    TimeBucket(String label, int minutes, RollupGranularity granularity) {
+        this.label = label;
+        this.minutes = minutes;
+        this.granularity = granularity;
+    }
+    
+    public static TimeBucket fromLabel(String label) {
+        for (TimeBucket bucket : values()) {
+            if (bucket.label.equalsIgnoreCase(label)) {
+                return bucket;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported bucket size: " + label + " (expected 1m, 5m, 1h or 1d)");
+    }
+    
+    public String getLabel() {
+        return label;
+    }
+    
+    public int getMinutes() {
+        return minutes;
+    }
+    
+    public RollupGranularity getGranularity() {
+        return granularity;
+    }
+}
@@ -0,0 +1,33 @@
+-- Development schema (H2). Mirrors db/migration/postgresql without partitioning.
+
+CREATE SEQUENCE log_entries_seq START WITH 1 INCREMENT BY 100;
+
+CREATE TABLE log_entries (
+    id        BIGINT       NOT NULL,
+    timestamp TIMESTAMP(6) NOT NULL,
+    level     VARCHAR(255) NOT NULL,
+    message   TEXT         NOT NULL,
+    source    VARCHAR(255),
+    thread    VARCHAR(255),
+    logger    VARCHAR(255),
+    CONSTRAINT log_entries_pkey PRIMARY KEY (id)
+);
+
+-- Every list query is "newest first", optionally narrowed by level or source; the id column
+-- makes the order total for keyset pagination
+CREATE INDEX idx_log_entries_timestamp_id ON log_entries (timestamp DESC, id DESC);
+CREATE INDEX idx_log_entries_level_timestamp_id ON log_entries (level, timestamp DESC, id DESC);
+CREATE INDEX idx_log_entries_source_timestamp_id ON log_entries (source, timestamp DESC, id DESC);
+
+CREATE SEQUENCE log_rollups_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE log_rollups (
+    id           BIGINT       NOT NULL,
+    granularity  VARCHAR(10)  NOT NULL,
+    bucket_start TIMESTAMP(6) NOT NULL,
+    level        VARCHAR(255) NOT NULL,
+    source       VARCHAR(255) NOT NULL,
+    entry_count  BIGINT       NOT NULL,
+    CONSTRAINT log_rollups_pkey PRIMARY KEY (id),
+    CONSTRAINT uk_log_rollups_bucket UNIQUE (granularity, bucket_start, level, source)
+);
@@ -0,0 +1,69 @@
+-- Production schema (PostgreSQL). log_entries is range partitioned by day on timestamp so
+-- time-bounded queries only touch the partitions they need and expired days are dropped
+-- as whole tables. Daily partitions are created ahead of time by LogPartitionManager.
+
+DO $$
+BEGIN
+    -- Databases created by ddl-auto before this migration existed: keep the old rows as a
+    -- single partition covering everything up to the end of their last day
+    IF to_regclass('log_entries') IS NOT NULL THEN
+        ALTER TABLE log_entries RENAME TO log_entries_legacy;
+        -- Replaced by the (id, timestamp) key of the partitioned table when the table is attached
+        ALTER TABLE log_entries_legacy DROP CONSTRAINT log_entries_pkey;
+        ALTER INDEX IF EXISTS idx_log_entries_timestamp_id RENAME TO idx_log_entries_legacy_timestamp_id;
+        ALTER INDEX IF EXISTS idx_log_entries_level_timestamp_id RENAME TO idx_log_entries_legacy_level_timestamp_id;
+        ALTER INDEX IF EXISTS idx_log_entries_source_timestamp_id RENAME TO idx_log_entries_legacy_source_timestamp_id;
+    END IF;
+END $$;
+
+CREATE SEQUENCE IF NOT EXISTS log_entries_seq START WITH 1 INCREMENT BY 100;
+
+-- The partition key has to be part of the primary key; ids stay unique through the sequence
+CREATE TABLE log_entries (
+    id        BIGINT       NOT NULL,
+    timestamp TIMESTAMP(6) NOT NULL,
+    level     VARCHAR(255) NOT NULL,
+    message   TEXT         NOT NULL,
+    source    VARCHAR(255),
+    thread    VARCHAR(255),
+    logger    VARCHAR(255),
+    CONSTRAINT log_entries_pkey PRIMARY KEY (id, timestamp)
+) PARTITION BY RANGE (timestamp);
+
+-- Catches entries outside the days that have a partition (late or far future timestamps)
+CREATE TABLE log_entries_default PARTITION OF log_entries DEFAULT;
+
+DO $$
+DECLARE
+    legacy_end TIMESTAMP;
+BEGIN
+    IF to_regclass('log_entries_legacy') IS NOT NULL THEN
+        SELECT COALESCE(date_trunc('day', max(timestamp)), date_trunc('day', now()::timestamp)) + INTERVAL '1 day'
+          INTO legacy_end
+          FROM log_entries_legacy;
+        ALTER TABLE log_entries_legacy ALTER COLUMN level TYPE VARCHAR(255);
+        ALTER TABLE log_entries_legacy ALTER COLUMN message TYPE TEXT;
+        EXECUTE format('ALTER TABLE log_entries ATTACH PARTITION log_entries_legacy FOR VALUES FROM (MINVALUE) TO (%L)',
+                       legacy_end);
+    END IF;
+END $$;
+
+-- Indexes on the parent are created on every partition, including ones attached later.
+-- Every list query is "newest first", optionally narrowed by level or source; the id column
+-- makes the order total for keyset pagination
+CREATE INDEX idx_log_entries_timestamp_id ON log_entries (timestamp DESC, id DESC);
+CREATE INDEX idx_log_entries_level_timestamp_id ON log_entries (level, timestamp DESC, id DESC);
+CREATE INDEX idx_log_entries_source_timestamp_id ON log_entries (source, timestamp DESC, id DESC);
+
+CREATE SEQUENCE IF NOT EXISTS log_rollups_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS log_rollups (
+    id           BIGINT       NOT NULL,
+    granularity  VARCHAR(10)  NOT NULL,
+    bucket_start TIMESTAMP(6) NOT NULL,
+    level        VARCHAR(255) NOT NULL,
+    source       VARCHAR(255) NOT NULL,
+    entry_count  BIGINT       NOT NULL,
+    CONSTRAINT log_rollups_pkey PRIMARY KEY (id),
+    CONSTRAINT uk_log_rollups_bucket UNIQUE (granularity, bucket_start, level, source)
+);
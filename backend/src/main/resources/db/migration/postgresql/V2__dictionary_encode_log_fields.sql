@@ -0,0 +1,41 @@
+-- source, thread and logger take a few hundred distinct values; store each name once in
+-- log_dictionary and reference it by id. Columns added to or dropped from the partitioned
+-- parent apply to every partition.
+
+CREATE SEQUENCE log_dictionary_seq START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE log_dictionary (
+    id    INTEGER      NOT NULL,
+    field VARCHAR(16)  NOT NULL,
+    name  VARCHAR(255) NOT NULL,
+    CONSTRAINT log_dictionary_pkey PRIMARY KEY (id),
+    CONSTRAINT uk_log_dictionary_field_name UNIQUE (field, name)
+);
+
+INSERT INTO log_dictionary (id, field, name)
+SELECT nextval('log_dictionary_seq'), field, name FROM (
+    SELECT DISTINCT 'SOURCE' AS field, source AS name FROM log_entries WHERE source IS NOT NULL
+    UNION SELECT DISTINCT 'THREAD', thread FROM log_entries WHERE thread IS NOT NULL
+    UNION SELECT DISTINCT 'LOGGER', logger FROM log_entries WHERE logger IS NOT NULL
+) names;
+
+ALTER TABLE log_entries ADD COLUMN source_id INTEGER;
+ALTER TABLE log_entries ADD COLUMN thread_id INTEGER;
+ALTER TABLE log_entries ADD COLUMN logger_id INTEGER;
+
+-- Rewrites every row once; run it in a maintenance window on large tables
+UPDATE log_entries e SET
+    source_id = (SELECT d.id FROM log_dictionary d WHERE d.field = 'SOURCE' AND d.name = e.source),
+    thread_id = (SELECT d.id FROM log_dictionary d WHERE d.field = 'THREAD' AND d.name = e.thread),
+    logger_id = (SELECT d.id FROM log_dictionary d WHERE d.field = 'LOGGER' AND d.name = e.logger);
+
+DROP INDEX idx_log_entries_source_timestamp_id;
+ALTER TABLE log_entries DROP COLUMN source;
+ALTER TABLE log_entries DROP COLUMN thread;
+ALTER TABLE log_entries DROP COLUMN logger;
+
+ALTER TABLE log_entries ADD CONSTRAINT fk_log_entries_source FOREIGN KEY (source_id) REFERENCES log_dictionary (id);
+ALTER TABLE log_entries ADD CONSTRAINT fk_log_entries_thread FOREIGN KEY (thread_id) REFERENCES log_dictionary (id);
+ALTER TABLE log_entries ADD CONSTRAINT fk_log_entries_logger FOREIGN KEY (logger_id) REFERENCES log_dictionary (id);
+
+CREATE INDEX idx_log_entries_source_timestamp_id ON log_entries (source_id, timestamp DESC, id DESC);
@@ -0,0 +1,17 @@
+-- Files tailed by LogFileTailService and how far each has been ingested. Mirrors
+-- db/migration/h2.
+
+CREATE SEQUENCE log_file_checkpoints_seq START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE log_file_checkpoints (
+    id          BIGINT        NOT NULL,
+    path        VARCHAR(1024) NOT NULL,
+    format      VARCHAR(16)   NOT NULL,
+    source      VARCHAR(255),
+    -- Identity of the file the offset belongs to; a different key means the file was rotated
+    file_key    VARCHAR(255),
+    file_offset BIGINT        NOT NULL,
+    updated_at  TIMESTAMP(6)  NOT NULL,
+    CONSTRAINT log_file_checkpoints_pkey PRIMARY KEY (id),
+    CONSTRAINT uk_log_file_checkpoints_path UNIQUE (path)
+);
@@ -0,0 +1,31 @@
+-- Message templates mined by LogTemplateMiner: each entry references the template its message
+-- was grouped under, and log_template_counts holds per-minute and per-hour counts per template.
+-- Entries stored before this migration keep a NULL template_id. Mirrors db/migration/h2.
+-- Columns and indexes added to the partitioned parent apply to every partition.
+
+CREATE SEQUENCE log_templates_seq START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE log_templates (
+    id          INTEGER      NOT NULL,
+    -- Whitespace separated tokens; <*> marks a token that varies between entries
+    template    TEXT         NOT NULL,
+    token_count INTEGER      NOT NULL,
+    created_at  TIMESTAMP(6) NOT NULL,
+    CONSTRAINT log_templates_pkey PRIMARY KEY (id)
+);
+
+ALTER TABLE log_entries ADD COLUMN template_id INTEGER;
+
+CREATE INDEX idx_log_entries_template_timestamp_id ON log_entries (template_id, timestamp DESC, id DESC);
+
+CREATE SEQUENCE log_template_counts_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE log_template_counts (
+    id           BIGINT       NOT NULL,
+    granularity  VARCHAR(10)  NOT NULL,
+    bucket_start TIMESTAMP(6) NOT NULL,
+    template_id  INTEGER      NOT NULL,
+    entry_count  BIGINT       NOT NULL,
+    CONSTRAINT log_template_counts_pkey PRIMARY KEY (id),
+    CONSTRAINT uk_log_template_counts_bucket UNIQUE (granularity, bucket_start, template_id)
+);
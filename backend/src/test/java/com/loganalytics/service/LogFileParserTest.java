@@ -0,0 +1,254 @@
+package com.loganalytics.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.loganalytics.model.LogEntry;
+import com.loganalytics.model.LogFileFormat;
+import com.loganalytics.model.LogLevel;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogFileParserTest {
+    
+    private static final String PATTERN_LOG = """
+            2026-10-17 05:00:00.123  INFO 4242 --- [main] com.example.App : Started in 1.5 s
+            2026-10-17 05:00:01.000 ERROR 4242 --- [worker-1] com.example.Job : Job failed
+            java.lang.IllegalStateException: boom
+            \tat com.example.Job.run(Job.java:10)
+            2026-10-17 05:00:02.500  WARN 4242 --- [worker-2] com.example.Job : Retrying café
+            """;
+    
+    private static final String JSON_LOG = """
+            {"timestamp":"2026-10-17T05:00:00","level":"INFO","message":"first","logger":"com.example.App"}
+            {"@timestamp":"2026-10-17T05:00:01","severity":"ERROR","msg":"second","thread":"main"}
+            
+            {"time":"2026-10-17T05:00:02","level":"WARN","message":"third","service":"billing"}
+            """;
+    
+    private static final String SYSLOG_LOG = """
+            <165>1 2026-10-17T05:00:00.123Z host app 4242 ID47 - first
+            <34>Oct 11 22:14:15 mymachine su[230]: second
+            <13>1 2026-10-17T05:00:02Z host app - - - third
+            """;
+    
+    @Test
+    void parsesPatternLayoutFields() {
+        List<LogEntry> entries = parseAll(LogFileFormat.PATTERN, PATTERN_LOG);
+        
+        assertThat(entries).hasSize(3);
+        LogEntry first = entries.get(0);
+        assertThat(first.getTimestamp()).isEqualTo(LocalDateTime.of(2026, 10, 17, 5, 0, 0, 123_000_000));
+        assertThat(first.getLevel()).isEqualTo(LogLevel.INFO);
+        assertThat(first.getThread()).isEqualTo("main");
+        assertThat(first.getLogger()).isEqualTo("com.example.App");
+        assertThat(first.getMessage()).isEqualTo("Started in 1.5 s");
+        assertThat(first.getSource()).isEqualTo("file");
+        assertThat(entries.get(2).getMessage()).isEqualTo("Retrying café");
+    }
+    
+    @Test
+    void keepsContinuationLinesInTheMessage() {
+        LogEntry failed = parseAll(LogFileFormat.PATTERN, PATTERN_LOG.replace("\n", "\r\n")).get(1);
+        
+        assertThat(failed.getLevel()).isEqualTo(LogLevel.ERROR);
+        assertThat(failed.getMessage())
+                .isEqualTo("Job failed\njava.lang.IllegalStateException: boom\n\tat com.example.Job.run(Job.java:10)");
+    }
+    
+    @Test
+    void leavesTheLastPatternRecordUntilEndOfInput() {
+        LogFileParser parser = parser(LogFileFormat.PATTERN);
+        ByteBuffer buf = buffer(PATTERN_LOG);
+        List<LogEntry> out = new ArrayList<>();
+        
+        // More continuation lines may still be written after the last record
+        int next = parser.parse(buf, 0, buf.limit(), 100, out, false);
+        assertThat(out).hasSize(2);
+        assertThat(next).isEqualTo(PATTERN_LOG.indexOf("2026-10-17 05:00:02.500"));
+        
+        next = parser.parse(buf, next, buf.limit(), 100, out, true);
+        assertThat(out).hasSize(3);
+        assertThat(next).isEqualTo(buf.limit());
+    }
+    
+    @Test
+    void leavesALineWithoutLineBreakUntilEndOfInput() {
+        String log = JSON_LOG.stripTrailing();
+        LogFileParser parser = parser(LogFileFormat.JSON_LINES);
+        ByteBuffer buf = buffer(log);
+        List<LogEntry> out = new ArrayList<>();
+        
+        int next = parser.parse(buf, 0, buf.limit(), 100, out, false);
+        assertThat(out).extracting(LogEntry::getMessage).containsExactly("first", "second");
+        
+        next = parser.parse(buf, next, buf.limit(), 100, out, true);
+        assertThat(out).extracting(LogEntry::getMessage).containsExactly("first", "second", "third");
+        assertThat(next).isEqualTo(buf.limit());
+    }
+    
+    @Test
+    void parsesTheSameEntriesWhateverTheChunkBoundary() {
+        for (LogFileFormat format : new LogFileFormat[] {LogFileFormat.PATTERN, LogFileFormat.JSON_LINES, LogFileFormat.SYSLOG}) {
+            String log = switch (format) {
+                case PATTERN -> PATTERN_LOG;
+                case JSON_LINES -> JSON_LOG;
+                default -> SYSLOG_LOG;
+            };
+            List<String> expected = parseAll(format, log).stream().map(LogEntry::getMessage).toList();
+            ByteBuffer buf = buffer(log);
+            
+            for (int split = 0; split <= buf.limit(); split++) {
+                // As a tailed file: the first call only sees the bytes written so far
+                LogFileParser parser = parser(format);
+                List<LogEntry> out = new ArrayList<>();
+                int next = parser.parse(buf, 0, split, 100, out, false);
+                assertThat(next).isBetween(0, split);
+                next = parser.parse(buf, next, buf.limit(), 100, out, true);
+                
+                assertThat(next).isEqualTo(buf.limit());
+                assertThat(out).extracting(LogEntry::getMessage)
+                        .as("%s split at %d", format, split)
+                        .containsExactlyElementsOf(expected);
+            }
+        }
+    }
+    
+    @Test
+    void stopsAtMaxEntriesAndContinuesFromTheReturnedPosition() {
+        LogFileParser parser = parser(LogFileFormat.PATTERN);
+        ByteBuffer buf = buffer(PATTERN_LOG);
+        List<LogEntry> out = new ArrayList<>();
+        
+        int pos = 0;
+        int calls = 0;
+        while (pos < buf.limit()) {
+            int before = out.size();
+            pos = parser.parse(buf, pos, buf.limit(), 1, out, true);
+            assertThat(out.size() - before).isEqualTo(1);
+            calls++;
+        }
+        
+        assertThat(calls).isEqualTo(3);
+        assertThat(out).extracting(LogEntry::getLevel).containsExactly(LogLevel.INFO, LogLevel.ERROR, LogLevel.WARN);
+    }
+    
+    @Test
+    void skipsContinuationLinesBeforeTheFirstRecord() {
+        String log = "\tat com.example.Job.run(Job.java:10)\n\tat java.base/java.lang.Thread.run(Thread.java:833)\n\n"
+                + "2026-10-17 05:00:00 INFO [main] com.example.App - Started\n";
+        LogFileParser parser = parser(LogFileFormat.PATTERN);
+        
+        List<LogEntry> entries = parseAll(parser, log);
+        
+        assertThat(entries).extracting(LogEntry::getMessage).containsExactly("Started");
+        assertThat(parser.getSkippedLines()).isEqualTo(2);
+    }
+    
+    @Test
+    void stripsAByteOrderMarkBeforeARecord() {
+        LogEntry entry = parseRecord(LogFileFormat.JSON_LINES,
+                "\uFEFF{\"timestamp\":\"2026-10-17T05:00:00\",\"level\":\"INFO\",\"message\":\"with bom\"}");
+        
+        assertThat(entry).isNotNull();
+        assertThat(entry.getMessage()).isEqualTo("with bom");
+    }
+    
+    @Test
+    void returnsNullForAnUnparseableRecordAndCountsIt() {
+        LogFileParser parser = parser(LogFileFormat.SYSLOG);
+        ByteBuffer buf = buffer("not syslog at all");
+        
+        assertThat(parser.parseRecord(buf, 0, buf.limit())).isNull();
+        assertThat(parser.getSkippedLines()).isEqualTo(1);
+    }
+    
+    @Test
+    void parsesRfc5424() {
+        LogEntry entry = parseRecord(LogFileFormat.SYSLOG, "<165>1 2026-10-17T05:00:00.123Z host app 4242 ID47 "
+                + "[exampleSDID@32473 iut=\"3\" eventSource=\"App]lication\"][other@1 a=\"b\"] \uFEFFAn application event");
+        
+        assertThat(entry.getTimestamp()).isEqualTo(utc("2026-10-17T05:00:00.123Z"));
+        // Severity 5 (notice)
+        assertThat(entry.getLevel()).isEqualTo(LogLevel.INFO);
+        assertThat(entry.getSource()).isEqualTo("app");
+        assertThat(entry.getLogger()).isEqualTo("host");
+        // The process id stays in the message, not in thread
+        assertThat(entry.getThread()).isNull();
+        assertThat(entry.getMessage()).isEqualTo("[4242] An application event");
+    }
+    
+    @Test
+    void parsesRfc5424WithNilFields() {
+        LogEntry entry = parseRecord(LogFileFormat.SYSLOG, "<11>1 2026-10-17T07:00:00+02:00 - - - - - disk full");
+        
+        assertThat(entry.getTimestamp()).isEqualTo(utc("2026-10-17T05:00:00Z"));
+        assertThat(entry.getLevel()).isEqualTo(LogLevel.ERROR);
+        assertThat(entry.getSource()).isEqualTo("file");
+        assertThat(entry.getLogger()).isNull();
+        assertThat(entry.getMessage()).isEqualTo("disk full");
+    }
+    
+    @Test
+    void parsesRfc3164() {
+        LogEntry entry = parseRecord(LogFileFormat.SYSLOG, "<34>Oct 11 22:14:15 mymachine su[230]: 'su root' failed");
+        
+        assertThat(entry.getTimestamp().getMonthValue()).isEqualTo(10);
+        assertThat(entry.getTimestamp().getDayOfMonth()).isEqualTo(11);
+        assertThat(entry.getTimestamp().toLocalTime()).hasToString("22:14:15");
+        assertThat(entry.getLevel()).isEqualTo(LogLevel.ERROR);
+        assertThat(entry.getSource()).isEqualTo("su");
+        assertThat(entry.getLogger()).isEqualTo("mymachine");
+        assertThat(entry.getThread()).isNull();
+        assertThat(entry.getMessage()).isEqualTo("[230] 'su root' failed");
+    }
+    
+    @Test
+    void parsesRfc3164WithPaddedDayAndNoProcessId() {
+        LogEntry entry = parseRecord(LogFileFormat.SYSLOG, "<15>Mar  5 01:02:03 host cron: job done");
+        
+        assertThat(entry.getTimestamp().getDayOfMonth()).isEqualTo(5);
+        assertThat(entry.getLevel()).isEqualTo(LogLevel.DEBUG);
+        assertThat(entry.getSource()).isEqualTo("cron");
+        assertThat(entry.getMessage()).isEqualTo("job done");
+    }
+    
+    private static LogFileParser parser(LogFileFormat format) {
+        return new LogFileParser(format, "file", new JsonFactory());
+    }
+    
+    private static List<LogEntry> parseAll(LogFileFormat format, String log) {
+        return parseAll(parser(format), log);
+    }
+    
+    private static List<LogEntry> parseAll(LogFileParser parser, String log) {
+        ByteBuffer buf = buffer(log);
+        List<LogEntry> out = new ArrayList<>();
+        assertThat(parser.parse(buf, 0, buf.limit(), 100, out, true)).isEqualTo(buf.limit());
+        return out;
+    }
+    
+    private static LogEntry parseRecord(LogFileFormat format, String record) {
+        ByteBuffer buf = buffer(record);
+        return parser(format).parseRecord(buf, 0, buf.limit());
+    }
+    
+    // Direct, like the mapped files and socket buffers the parser reads in production
+    private static ByteBuffer buffer(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buf = ByteBuffer.allocateDirect(bytes.length);
+        buf.put(bytes).flip();
+        return buf;
+    }
+    
+    private static LocalDateTime utc(String instant) {
+        return LocalDateTime.ofInstant(Instant.parse(instant), ZoneId.systemDefault());
+    }
+}
\ No newline at end of file
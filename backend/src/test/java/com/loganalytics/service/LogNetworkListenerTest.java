@@ -0,0 +1,165 @@
+package com.loganalytics.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.loganalytics.model.LogEntry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Framing of the syslog TCP listener, through a real socket: octet counting (RFC 6587) and
+ * newline framing, frames split across reads, and frames too long for the read buffer.
+ */
+class LogNetworkListenerTest {
+    
+    private static final int BUFFER_SIZE = 256;
+    private static final String HEADER = "<13>1 2026-10-17T05:00:00Z host app - - - ";
+    
+    private final List<LogEntry> stored = new CopyOnWriteArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private LogNetworkListener listener;
+    private int port;
+    
+    @BeforeEach
+    void start() throws IOException {
+        LogService logService = mock(LogService.class);
+        when(logService.createEntries(anyList(), anyBoolean(), any())).thenAnswer(invocation -> {
+            List<LogEntry> batch = invocation.getArgument(0);
+            stored.addAll(batch);
+            return batch.size();
+        });
+        try (ServerSocket free = new ServerSocket(0)) {
+            port = free.getLocalPort();
+        }
+        
+        listener = new LogNetworkListener();
+        ReflectionTestUtils.setField(listener, "logService", logService);
+        ReflectionTestUtils.setField(listener, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(listener, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(listener, "enabled", true);
+        ReflectionTestUtils.setField(listener, "bindAddress", "127.0.0.1");
+        ReflectionTestUtils.setField(listener, "syslogTcpPort", port);
+        ReflectionTestUtils.setField(listener, "syslogUdpPort", 0);
+        ReflectionTestUtils.setField(listener, "jsonTcpPort", 0);
+        ReflectionTestUtils.setField(listener, "maxConnections", 10);
+        ReflectionTestUtils.setField(listener, "maxLineLength", DataSize.ofBytes(BUFFER_SIZE));
+        ReflectionTestUtils.setField(listener, "queueCapacity", 1000);
+        ReflectionTestUtils.setField(listener, "batchSize", 100);
+        ReflectionTestUtils.setField(listener, "flushInterval", Duration.ofMillis(10));
+        listener.start();
+    }
+    
+    @AfterEach
+    void stop() {
+        listener.stop();
+    }
+    
+    @Test
+    void readsOctetCountedFrames() throws Exception {
+        send(frame("first") + frame("second, with\na line break") + frame("third"));
+        
+        assertThat(messages(3)).containsExactly("first", "second, with\na line break", "third");
+    }
+    
+    @Test
+    void readsFramesSplitAcrossReads() throws Exception {
+        byte[] bytes = (frame("first") + frame("second") + HEADER + "as a line\n" + frame("third"))
+                .getBytes(StandardCharsets.UTF_8);
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            OutputStream out = socket.getOutputStream();
+            // A few bytes at a time, so counts, headers and messages end up cut between reads
+            for (int i = 0; i < bytes.length; i += 7) {
+                out.write(bytes, i, Math.min(7, bytes.length - i));
+                out.flush();
+                Thread.sleep(2);
+            }
+        }
+        
+        assertThat(messages(4)).containsExactly("first", "second", "as a line", "third");
+    }
+    
+    @Test
+    void framesALineThatOnlyStartsWithDigits() throws Exception {
+        // Neither is a count: "1!!" has a non-digit, and a date is followed by '-' rather than a space
+        send("1!! x\n2026-10-17 05:00:00 not syslog\n" + frame("after"));
+        
+        assertThat(messages(1)).containsExactly("after");
+        assertThat(dropped("unparseable")).isEqualTo(2);
+    }
+    
+    @Test
+    void skipsAnOctetCountedFrameThatCannotFitTheBuffer() throws Exception {
+        // Shorter than the buffer, but not together with its "253 " prefix
+        String tooLong = HEADER + "x".repeat(BUFFER_SIZE - 3 - HEADER.length());
+        String longer = HEADER + "y".repeat(3 * BUFFER_SIZE);
+        send(frame(tooLong) + frame("after the first") + frame(longer) + frame("after the second"));
+        
+        assertThat(messages(2)).containsExactly("after the first", "after the second");
+        assertThat(dropped("too_long")).isEqualTo(2);
+    }
+    
+    @Test
+    void dropsAnOverlongLineUpToTheNextLineBreak() throws Exception {
+        send(HEADER + "z".repeat(2 * BUFFER_SIZE) + "\n" + HEADER + "next line\n");
+        
+        assertThat(messages(1)).containsExactly("next line");
+        assertThat(dropped("too_long")).isEqualTo(1);
+    }
+    
+    @Test
+    void storesALastLineWithoutLineBreakWhenTheSenderCloses() throws Exception {
+        send(HEADER + "complete\n" + HEADER + "unterminated");
+        
+        assertThat(messages(2)).containsExactly("complete", "unterminated");
+    }
+    
+    private void send(String data) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            socket.getOutputStream().write(data.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+    
+    // RFC 6587 octet counting: MSG-LEN SP SYSLOG-MSG
+    private static String frame(String message) {
+        String syslog = message.startsWith("<") ? message : HEADER + message;
+        return syslog.getBytes(StandardCharsets.UTF_8).length + " " + syslog;
+    }
+    
+    // The stored messages once at least count arrived; a short wait afterwards catches any extra ones
+    private List<String> messages(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (stored.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(100);
+        return stored.stream().map(LogEntry::getMessage).toList();
+    }
+    
+    private double dropped(String reason) {
+        return meterRegistry.get("logs.listener.dropped")
+                .tag("protocol", "syslog-tcp")
+                .tag("reason", reason)
+                .counter()
+                .count();
+    }
+}
\ No newline at end of file
@@ -111,29 +111,37 @@ export default function LogAnalyticsDashboard() {
         // Subscribe to log topic
         client.subscribe('/topic/logs', (message) => {
           try {
-            const logData: LogEntry = JSON.parse(message.body);
-            console.log('📥 Received log from Spring Boot:', logData);
+            // Entries arrive in batches: one frame holds a JSON array, oldest first
+            const payload: LogEntry | LogEntry[] = JSON.parse(message.body);
+            const batch = Array.isArray(payload) ? payload : [payload];
+            if (batch.length === 0) return;
+            console.log(`📥 Received ${batch.length} logs from Spring Boot`);
+            const newestFirst = [...batch].reverse();
             
-            // Optimistically update query cache with new log entry
+            // Optimistically update query cache with the new log entries
             queryClient.setQueryData(['/api/logs'], (oldData: LogEntry[] | undefined) => {
-              if (!oldData) return [logData];
-              return [logData, ...oldData].slice(0, 1000);
+              if (!oldData) return newestFirst.slice(0, 1000);
+              return [...newestFirst, ...oldData].slice(0, 1000);
             });
             
+            const errorCount = batch.filter(logData => logData.level === 'error').length;
+            const warnCount = batch.filter(logData => logData.level === 'warn').length;
+            const infoCount = batch.filter(logData => logData.level === 'info').length;
+            
             // Update stats cache incrementally
             queryClient.setQueryData(['/api/logs/stats'], (oldStats: LogStats | undefined) => {
               if (!oldStats) return {
-                totalLogs: 1,
-                errorCount: logData.level === 'error' ? 1 : 0,
-                warnCount: logData.level === 'warn' ? 1 : 0,
-                infoCount: logData.level === 'info' ? 1 : 0,
-                errorRate: logData.level === 'error' ? 100 : 0
+                totalLogs: batch.length,
+                errorCount,
+                warnCount,
+                infoCount,
+                errorRate: (errorCount / batch.length) * 100
               };
               
-              const newTotalLogs = oldStats.totalLogs + 1;
-              const newErrorCount = oldStats.errorCount + (logData.level === 'error' ? 1 : 0);
-              const newWarnCount = oldStats.warnCount + (logData.level === 'warn' ? 1 : 0);
-              const newInfoCount = oldStats.infoCount + (logData.level === 'info' ? 1 : 0);
+              const newTotalLogs = oldStats.totalLogs + batch.length;
+              const newErrorCount = oldStats.errorCount + errorCount;
+              const newWarnCount = oldStats.warnCount + warnCount;
+              const newInfoCount = oldStats.infoCount + infoCount;
               const newErrorRate = newTotalLogs > 0 ? (newErrorCount / newTotalLogs) * 100 : 0;
               
               return {